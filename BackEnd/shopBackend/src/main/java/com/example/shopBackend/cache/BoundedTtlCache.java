@@ -0,0 +1,188 @@
+package com.example.shopBackend.cache;
+
+import com.example.shopBackend.dto.CacheStatsDto;
+import lombok.AllArgsConstructor;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Small read-through cache bounded by entry count and time-to-live. Keys are spread over
+ * independently locked segments so concurrent lookups of different keys rarely contend;
+ * each segment evicts in LRU or FIFO order once it holds its share of the capacity, and
+ * expired entries are dropped when read.
+ *
+ * <p>Loading happens outside the lock so a slow loader never blocks other keys. A load
+ * registers a marker for its key first, and its result is only stored if the marker is
+ * still there afterwards: an {@link #invalidate} or write that lands while the loader
+ * runs removes the marker, so a value read before the change is never cached.
+ */
+public class BoundedTtlCache<K, V> {
+
+    private static final int MAX_SEGMENTS = 16;
+
+    private final String name;
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final Segment<K, V>[] segments;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    public BoundedTtlCache(String name, boolean enabled, int capacity, long ttlSeconds, EvictionPolicy policy) {
+        this.name = name;
+        this.enabled = enabled && capacity > 0;
+        this.ttlNanos = ttlSeconds * 1_000_000_000L;
+
+        // power of two no larger than the capacity, so every segment holds at least one entry
+        int segmentCount = Integer.highestOneBit(Math.max(1, Math.min(MAX_SEGMENTS, capacity)));
+        int segmentCapacity = (Math.max(1, capacity) + segmentCount - 1) / segmentCount;
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment<>(segmentCapacity, policy == EvictionPolicy.LRU, evictions);
+        }
+    }
+
+    public V get(K key, Function<K, V> loader) {
+        if (!enabled) {
+            return loader.apply(key);
+        }
+        V cached = getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        Segment<K, V> segment = segmentFor(key);
+        Object loadMarker = new Object();
+        synchronized (segment) {
+            segment.loading.put(key, loadMarker);
+        }
+        V value = null;
+        try {
+            value = loader.apply(key);
+        } finally {
+            synchronized (segment) {
+                // removed by invalidate() or a newer write while the loader ran: do not store
+                if (segment.loading.remove(key, loadMarker) && value != null) {
+                    segment.entries.put(key, new CacheEntry<>(value, System.nanoTime() + ttlNanos));
+                }
+            }
+        }
+        return value;
+    }
+
+    public V getIfPresent(K key) {
+        if (!enabled) {
+            return null;
+        }
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            CacheEntry<V> entry = segment.entries.get(key);
+            if (entry != null && entry.expiresAt - System.nanoTime() > 0) {
+                hits.increment();
+                return entry.value;
+            }
+            if (entry != null) {
+                segment.entries.remove(key);
+                evictions.increment();
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    public void put(K key, V value) {
+        if (!enabled) {
+            return;
+        }
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.loading.remove(key);
+            segment.entries.put(key, new CacheEntry<>(value, System.nanoTime() + ttlNanos));
+        }
+    }
+
+    /**
+     * Stores the value unless a live entry exists. Returns the existing value, or null if
+     * this call inserted. Disabled caches always return null.
+     */
+    public V putIfAbsent(K key, V value) {
+        if (!enabled) {
+            return null;
+        }
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            CacheEntry<V> entry = segment.entries.get(key);
+            if (entry != null && entry.expiresAt - System.nanoTime() > 0) {
+                hits.increment();
+                return entry.value;
+            }
+            misses.increment();
+            segment.loading.remove(key);
+            segment.entries.put(key, new CacheEntry<>(value, System.nanoTime() + ttlNanos));
+            return null;
+        }
+    }
+
+    public void invalidate(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.loading.remove(key);
+            segment.entries.remove(key);
+        }
+    }
+
+    public void invalidateAll() {
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.loading.clear();
+                segment.entries.clear();
+            }
+        }
+    }
+
+    public CacheStatsDto stats() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.entries.size();
+            }
+        }
+        return new CacheStatsDto(name, enabled, size, hits.sum(), misses.sum(), evictions.sum());
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        int hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (segments.length - 1)];
+    }
+
+    // all state is guarded by the segment's own monitor
+    private static final class Segment<K, V> {
+        private final Map<K, CacheEntry<V>> entries;
+        private final Map<K, Object> loading = new HashMap<>();
+
+        private Segment(int capacity, boolean accessOrder, LongAdder evictions) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, accessOrder) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, CacheEntry<V>> eldest) {
+                    if (size() > capacity) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+    }
+
+    @AllArgsConstructor
+    private static class CacheEntry<V> {
+        private final V value;
+        private final long expiresAt;
+    }
+}
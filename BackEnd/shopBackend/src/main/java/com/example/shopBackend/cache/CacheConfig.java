@@ -0,0 +1,19 @@
+package com.example.shopBackend.cache;
+
+import com.example.shopBackend.dto.ProductDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class CacheConfig {
+
+    @Bean
+    public BoundedTtlCache<Long, ProductDto> productCache(
+            @Value("${cache.product.enabled:true}") boolean enabled,
+            @Value("${cache.product.capacity:10000}") int capacity,
+            @Value("${cache.product.ttl-seconds:300}") long ttlSeconds,
+            @Value("${cache.product.eviction-policy:LRU}") EvictionPolicy policy) {
+        return new BoundedTtlCache<>("product", enabled, capacity, ttlSeconds, policy);
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.shopBackend.cache;
+
+import com.example.shopBackend.event.CategoryChangedEvent;
+import com.example.shopBackend.event.ProductChangedEvent;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonic version of the public catalog, bumped after every product or category
+ * mutation. Seeded from the clock so versions keep increasing across restarts.
+ *
+ * <p>A version must never be handed out before the data it describes is readable, or a
+ * stale response gets cached under the new ETag. Read models that apply a change on the
+ * event thread order their listeners at {@link #READ_MODEL_ORDER}, ahead of the bump
+ * here. Read models that rebuild in the background call {@link #bump()} once the new
+ * state is swapped in.
+ */
+@Component
+public class CatalogVersion {
+
+    /** Listener order for read models updated synchronously from catalog events. */
+    public static final int READ_MODEL_ORDER = Ordered.LOWEST_PRECEDENCE - 1;
+
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+
+    public long current() {
+        return version.get();
+    }
+
+    public void bump() {
+        version.incrementAndGet();
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        bump();
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        bump();
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.shopBackend.cache;
+
+import com.example.shopBackend.dto.CategoryDto;
+import com.example.shopBackend.dto.ProductDto;
+import com.example.shopBackend.entity.Category;
+import com.example.shopBackend.event.CategoryChangedEvent;
+import com.example.shopBackend.event.ProductChangedEvent;
+import com.example.shopBackend.mapper.EntityDtoMapper;
+import com.example.shopBackend.repository.CategoryRepo;
+import com.example.shopBackend.repository.ProductRepo;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Immutable in-memory copy of all categories with their product counts. Reloaded from
+ * the database on the writer's thread after category mutations and published with a
+ * single volatile write, so reads are lock-free and never touch the connection pool.
+ * Product mutations only change counts; they schedule one background reload shortly
+ * after, which coalesces bulk deletes. Reads hand out the snapshot's own objects without
+ * copying; the list is unmodifiable and the DTOs reject every setter.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class CategorySnapshot {
+    @Autowired
+    private final CategoryRepo categoryRepo;
+    @Autowired
+    private final ProductRepo productRepo;
+    @Autowired
+    private final EntityDtoMapper entityDtoMapper;
+    @Autowired
+    private final CatalogVersion catalogVersion;
+
+    private static final long COUNT_RELOAD_DELAY_MILLIS = 200;
+
+    private volatile Snapshot current = new Snapshot(List.of(), Map.of());
+    private final AtomicBoolean reloadPending = new AtomicBoolean();
+    private final ScheduledExecutorService reloader = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "category-snapshot-reload");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PreDestroy
+    void stop() {
+        reloader.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void reload() {
+        Map<Long, Long> productCounts = new HashMap<>();
+        for (Object[] row : productRepo.countProductsByCategory()) {
+            productCounts.put((Long) row[0], (Long) row[1]);
+        }
+
+        List<Category> categories = categoryRepo.findAll();
+        Map<Long, CategoryDto> byId = new HashMap<>();
+        List<CategoryDto> all = categories.stream().map(category -> {
+            CategoryDto mapped = entityDtoMapper.mapCategoryToDtoBasic(category);
+            CategoryDto dto = new FrozenCategoryDto(mapped.getId(), mapped.getName(),
+                    productCounts.getOrDefault(category.getId(), 0L));
+            byId.put(dto.getId(), dto);
+            return dto;
+        }).toList();
+
+        current = new Snapshot(all, Map.copyOf(byId));
+        // count reloads run well after the event's bump, so readers need a version of their own
+        catalogVersion.bump();
+        log.debug("Category snapshot reloaded with {} categories", all.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        reload();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (reloadPending.compareAndSet(false, true)) {
+            reloader.schedule(this::reloadCounts, COUNT_RELOAD_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void reloadCounts() {
+        // cleared first: a product change during the reload schedules another one
+        reloadPending.set(false);
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            log.warn("Could not reload category product counts: {}", e.getMessage());
+        }
+    }
+
+    public List<CategoryDto> getAll() {
+        return current.all;
+    }
+
+    public CategoryDto getById(Long categoryId) {
+        return current.byId.get(categoryId);
+    }
+
+    private static final class Snapshot {
+        private final List<CategoryDto> all;
+        private final Map<Long, CategoryDto> byId;
+
+        private Snapshot(List<CategoryDto> all, Map<Long, CategoryDto> byId) {
+            this.all = all;
+            this.byId = byId;
+        }
+    }
+
+    private static final class FrozenCategoryDto extends CategoryDto {
+        private FrozenCategoryDto(Long id, String name, Long productCount) {
+            super(id, name, productCount, null);
+        }
+
+        @Override
+        public void setId(Long id) {
+            throw new UnsupportedOperationException("Category snapshot is read-only");
+        }
+
+        @Override
+        public void setName(String name) {
+            throw new UnsupportedOperationException("Category snapshot is read-only");
+        }
+
+        @Override
+        public void setProductCount(Long productCount) {
+            throw new UnsupportedOperationException("Category snapshot is read-only");
+        }
+
+        @Override
+        public void setProductList(List<ProductDto> productList) {
+            throw new UnsupportedOperationException("Category snapshot is read-only");
+        }
+    }
+}
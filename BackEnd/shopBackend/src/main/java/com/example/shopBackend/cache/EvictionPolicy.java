@@ -0,0 +1,5 @@
+package com.example.shopBackend.cache;
+
+public enum EvictionPolicy {
+    LRU, FIFO
+}
@@ -1,6 +1,7 @@
 package com.example.shopBackend.controller;
 
 import com.example.shopBackend.dto.LoginRequest;
+import com.example.shopBackend.dto.RefreshTokenRequest;
 import com.example.shopBackend.dto.Response;
 import com.example.shopBackend.dto.UserDto;
 import com.example.shopBackend.service.UserService;
@@ -28,4 +29,14 @@ public class AuthController {
     public ResponseEntity<Response> loginUser(@RequestBody LoginRequest loginRequest){
         return ResponseEntity.ok(userService.loginUser(loginRequest));
     }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<Response> refreshToken(@RequestBody RefreshTokenRequest refreshTokenRequest){
+        return ResponseEntity.ok(userService.refreshToken(refreshTokenRequest));
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Response> logout(@RequestBody RefreshTokenRequest refreshTokenRequest){
+        return ResponseEntity.ok(userService.logout(refreshTokenRequest));
+    }
 }
@@ -1,5 +1,6 @@
 package com.example.shopBackend.controller;
 
+import com.example.shopBackend.dto.OrderItemStatusBulkRequest;
 import com.example.shopBackend.dto.OrderRequest;
 import com.example.shopBackend.dto.Response;
 import com.example.shopBackend.enums.OrderStatus;
@@ -23,14 +24,28 @@ public class OrderItemController {
     private OrderItemService orderItemService;
 
     @PostMapping("/create")
-    public ResponseEntity<Response> placeOrder(@RequestBody OrderRequest orderRequest){
-        return ResponseEntity.ok(orderItemService.placeOrder(orderRequest));
+    public ResponseEntity<Response> placeOrder(@RequestBody OrderRequest orderRequest,
+                                               @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey){
+        Response response = orderItemService.placeOrder(orderRequest, idempotencyKey);
+        return ResponseEntity.status(response.getStatus()).body(response);
+    }
+
+    @GetMapping("/status/{trackingId}")
+    public ResponseEntity<Response> getOrderIngestionStatus(@PathVariable String trackingId){
+        return ResponseEntity.ok(orderItemService.getOrderIngestionStatus(trackingId));
+    }
+
+    @PutMapping("/update-item-status/bulk")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<Response> bulkUpdateOrderItemStatus(@RequestBody OrderItemStatusBulkRequest request){
+        return ResponseEntity.ok(orderItemService.bulkUpdateOrderItemStatus(request));
     }
 
     @PutMapping("/update-item-status/{orderItemId}")
     @PreAuthorize("hasAuthority('ADMIN')")
-    public ResponseEntity<Response> updateOrderItemStatus(@PathVariable Long orderItemId,  @RequestParam String status){
-        return ResponseEntity.ok(orderItemService.updateOrderItemStatus(orderItemId, status));
+    public ResponseEntity<Response> updateOrderItemStatus(@PathVariable Long orderItemId,  @RequestParam String status,
+                                                          @RequestParam(required = false) Long version){
+        return ResponseEntity.ok(orderItemService.updateOrderItemStatus(orderItemId, status, version));
     }
 
 
@@ -42,12 +57,22 @@ public class OrderItemController {
             @RequestParam(required = false) String status,
             @RequestParam(required = false) Long itemId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "1000") int size
+            @RequestParam(defaultValue = "1000") int size,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includeTotal
 
     ){
-        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "id"));
         OrderStatus orderStatus = status != null ? OrderStatus.valueOf(status.toUpperCase()) : null;
 
+        // limit/cursor select keyset slices without a count; page/size keep the offset behaviour
+        if (limit != null || cursor != null) {
+            return ResponseEntity.ok(orderItemService.filterOrderItems(orderStatus, startDate, endDate, itemId,
+                    limit != null ? limit : size, cursor, includeTotal));
+        }
+
+        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "id"));
+
         return ResponseEntity.ok(orderItemService.filterOrderItems(orderStatus, startDate, endDate, itemId, pageable));
 
     }
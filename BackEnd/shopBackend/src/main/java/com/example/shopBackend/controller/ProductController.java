@@ -67,19 +67,100 @@ public class ProductController {
     }
 
     @GetMapping("/get-all")
-    public ResponseEntity<Response> getAllProducts(){
-        return ResponseEntity.ok(productService.getAllProducts());
+    public ResponseEntity<Response> getAllProducts(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor
+    ){
+        if (limit == null) {
+            return ResponseEntity.ok(productService.getAllProducts());
+        }
+        return ResponseEntity.ok(productService.getAllProducts(limit, cursor));
     }
 
 
     @GetMapping("/get-by-category-id/{categoryId}")
-    public ResponseEntity<Response> getProductsByCategory(@PathVariable Long categoryId){
-        return ResponseEntity.ok(productService.getProductsByCategory(categoryId));
+    public ResponseEntity<Response> getProductsByCategory(
+            @PathVariable Long categoryId,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor
+    ){
+        if (limit == null) {
+            return ResponseEntity.ok(productService.getProductsByCategory(categoryId));
+        }
+        return ResponseEntity.ok(productService.getProductsByCategory(categoryId, limit, cursor));
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Response> searchForProduct(@RequestParam String searchValue){
-        return ResponseEntity.ok(productService.searchProduct(searchValue));
+    public ResponseEntity<Response> searchForProduct(
+            @RequestParam String searchValue,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "100") int size
+    ){
+        return ResponseEntity.ok(productService.searchProduct(searchValue, page, size));
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<Response> suggestProducts(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit
+    ){
+        return ResponseEntity.ok(productService.suggestProducts(prefix, limit));
+    }
+
+    @GetMapping("/filter")
+    public ResponseEntity<Response> filterProducts(
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(defaultValue = "newest") String sort,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String cursor
+    ){
+        return ResponseEntity.ok(productService.filterProducts(categoryId, minPrice, maxPrice, sort, limit, cursor));
+    }
+
+    @GetMapping("/browse")
+    public ResponseEntity<Response> browseProducts(
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String cursor
+    ){
+        return ResponseEntity.ok(productService.browseProducts(categoryId, minPrice, maxPrice, limit, cursor));
+    }
+
+    @GetMapping("/stock/{productId}")
+    public ResponseEntity<Response> getProductStock(@PathVariable Long productId){
+        return ResponseEntity.ok(productService.getProductStock(productId));
+    }
+
+    // omit stock to stop tracking it for the product
+    @PutMapping("/update-stock/{productId}")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<Response> updateProductStock(@PathVariable Long productId,
+                                                       @RequestParam(required = false) Integer stock){
+        return ResponseEntity.ok(productService.updateProductStock(productId, stock));
+    }
+
+    @PutMapping("/flash-sale/{productId}")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<Response> updateFlashSale(@PathVariable Long productId,
+                                                    @RequestParam boolean enabled,
+                                                    @RequestParam(required = false) Integer permits){
+        return ResponseEntity.ok(productService.updateFlashSale(productId, enabled, permits));
+    }
+
+    @GetMapping("/flash-sale/stats")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<Response> getFlashSaleStats(){
+        return ResponseEntity.ok(productService.getFlashSaleStats());
+    }
+
+    @GetMapping("/cache-stats")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<Response> getProductCacheStats(){
+        return ResponseEntity.ok(productService.getProductCacheStats());
     }
 
 
@@ -7,7 +7,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -26,4 +30,22 @@ public class UserController {
     public ResponseEntity<Response> getUserInfoAndOrderHistory(){
         return ResponseEntity.ok(userService.getUserInfoAndOrderHistory());
     }
+
+    @PostMapping("/revoke-sessions/{userId}")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<Response> revokeUserSessions(@PathVariable Long userId){
+        return ResponseEntity.ok(userService.revokeUserSessions(userId));
+    }
+
+    @PutMapping("/update-role/{userId}")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<Response> updateUserRole(@PathVariable Long userId, @RequestParam String role){
+        return ResponseEntity.ok(userService.updateUserRole(userId, role));
+    }
+
+    @GetMapping("/principal-stats")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<Response> getPrincipalStats(){
+        return ResponseEntity.ok(userService.getPrincipalStats());
+    }
 }
@@ -0,0 +1,19 @@
+package com.example.shopBackend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@AllArgsConstructor
+@NoArgsConstructor
+public class CacheStatsDto {
+    private String name;
+    private boolean enabled;
+    private int size;
+    private long hits;
+    private long misses;
+    private long evictions;
+}
@@ -16,5 +16,6 @@ import java.util.List;
 public class CategoryDto {
     private Long id;
     private String  name;
+    private Long productCount;
     private List<ProductDto> productList;
 }
@@ -0,0 +1,20 @@
+package com.example.shopBackend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@AllArgsConstructor
+@NoArgsConstructor
+public class FacetBucketDto {
+    private Long categoryId;
+    private String label;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private long count;
+}
@@ -0,0 +1,19 @@
+package com.example.shopBackend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@AllArgsConstructor
+@NoArgsConstructor
+public class FlashSaleStatsDto {
+    private Long productId;
+    private int remainingPermits;
+    private long admitted;
+    private long rejected;
+    private long avgQueueWaitMillis;
+    private long maxQueueWaitMillis;
+}
@@ -22,5 +22,6 @@ public class OrderItemDto {
     private  UserDto user;
     private ProductDto product;
     private LocalDateTime createdAt;
+    private Long version;
 
 }
@@ -0,0 +1,23 @@
+package com.example.shopBackend.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Target status plus either explicit order item ids or a filter on current status and
+ * creation date.
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class OrderItemStatusBulkRequest {
+    private String status;
+
+    private List<Long> orderItemIds;
+
+    private String currentStatus;
+    private LocalDateTime startDate;
+    private LocalDateTime endDate;
+}
@@ -0,0 +1,17 @@
+package com.example.shopBackend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@AllArgsConstructor
+@NoArgsConstructor
+public class PrincipalStatsDto {
+    private CacheStatsDto cache;
+    private long principalLoads;
+    private long userLookupQueries;
+    private double userLookupQueriesPerLoad;
+}
@@ -20,4 +20,5 @@ public class ProductDto {
     private BigDecimal price;
     private String imageUrl;
     private CategoryDto category;
+    private Integer stock;
 }
@@ -1,14 +1,17 @@
 package com.example.shopBackend.dto;
 
+import com.example.shopBackend.enums.OrderIngestionStatus;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Builder;
 import lombok.Data;
+import lombok.extern.jackson.Jacksonized;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
 @Builder
+@Jacksonized
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public class Response {
 
@@ -17,11 +20,19 @@ public class Response {
     private final LocalDateTime timestamp = LocalDateTime.now();
 
     private String token;
+    private String refreshToken;
     private String role;
     private String  expirationTime;
 
     private int totalPage;
     private long totalElement;
+    private String nextCursor;
+    private Long approximateTotal;
+    private String suggestion;
+
+    private CacheStatsDto cacheStats;
+    private PrincipalStatsDto principalStats;
+    private List<FlashSaleStatsDto> flashSaleStats;
 
    private AddressDto address;
 
@@ -33,10 +44,17 @@ public class Response {
 
     private ProductDto product;
     private List<ProductDto> productList;
+    private List<FacetBucketDto> categoryFacets;
+    private List<FacetBucketDto> priceFacets;
 
     private OrderItemDto orderItem;
     private List<OrderItemDto> orderItemList;
 
     private OrderDto order;
     private List<OrderDto> orderList;
+    private String trackingId;
+    private Long orderId;
+    private OrderIngestionStatus ingestionStatus;
+    private Integer updatedCount;
+    private List<Long> missingIds;
 }
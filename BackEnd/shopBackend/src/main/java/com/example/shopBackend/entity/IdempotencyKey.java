@@ -0,0 +1,29 @@
+package com.example.shopBackend.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Table(name = "idempotency_keys", indexes = @Index(name = "idx_idempotency_keys_expires_at", columnList = "expires_at"))
+public class IdempotencyKey {
+    @Id
+    @Column(name = "idempotency_key", length = 255)
+    private String idempotencyKey;
+
+    @Column(nullable = false, length = 64)
+    private String fingerprint;
+
+    // serialized Response, null while the first request is in flight
+    @Lob
+    @Column(name = "response_json")
+    private String responseJson;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -1,5 +1,6 @@
 package com.example.shopBackend.entity;
 
+import com.example.shopBackend.repository.BlockSequenceId;
 import jakarta.persistence.*;
 import lombok.Data;
 
@@ -12,7 +13,7 @@ import java.util.List;
 @Table(name = "orders")
 public class Order {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @BlockSequenceId("orders")
     private Long id;
     private BigDecimal totalPrice;
     @OneToMany(mappedBy = "order", fetch = FetchType.LAZY,  cascade = CascadeType.ALL, orphanRemoval = true)
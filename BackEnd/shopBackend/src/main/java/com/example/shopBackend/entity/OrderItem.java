@@ -1,7 +1,9 @@
 package com.example.shopBackend.entity;
 
 import com.example.shopBackend.enums.OrderStatus;
+import com.example.shopBackend.repository.BlockSequenceId;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import lombok.Data;
 
 import java.math.BigDecimal;
@@ -9,16 +11,26 @@ import java.time.LocalDateTime;
 
 @Entity
 @Data
-@Table(name = "order_items")
+@Table(name = "order_items", indexes = {
+        @Index(name = "idx_order_items_status_created_at_id", columnList = "status, created_at, id"),
+        @Index(name = "idx_order_items_created_at_id", columnList = "created_at, id"),
+        @Index(name = "idx_order_items_user_created_at", columnList = "user_id, created_at"),
+        @Index(name = "idx_order_items_product", columnList = "product_id")
+})
 public class OrderItem {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @BlockSequenceId("order_items")
     private Long id;
 
     private int quantity;
     private BigDecimal price;
     private OrderStatus status;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
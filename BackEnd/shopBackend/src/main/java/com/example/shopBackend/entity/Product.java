@@ -8,7 +8,10 @@ import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_category_price_id", columnList = "category_id, price, id"),
+        @Index(name = "idx_products_created_at_id", columnList = "created_at, id")
+})
 public class Product {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -19,6 +22,12 @@ public class Product {
     private String imageUrl;
     private BigDecimal price;
 
+    // null means stock is not tracked for this product
+    private Integer stock;
+
+    @Column(name = "flash_sale")
+    private Boolean flashSale;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id")
     private Category category;
@@ -0,0 +1,48 @@
+package com.example.shopBackend.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * One refresh token of a login session. Refreshing rotates the row: the old token is
+ * marked used and a new row joins the same {@code sessionId}, which access tokens carry
+ * so a revoked session cuts them off too. Only a hash of the token is stored.
+ */
+@Data
+@Entity
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "idx_refresh_tokens_session_id", columnList = "session_id"),
+        @Index(name = "idx_refresh_tokens_user_id", columnList = "user_id"),
+        @Index(name = "idx_refresh_tokens_revoked_at", columnList = "revoked_at"),
+        @Index(name = "idx_refresh_tokens_expires_at", columnList = "expires_at")
+})
+public class RefreshToken {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "token_hash", nullable = false, unique = true, length = 64)
+    private String tokenHash;
+
+    @Column(name = "session_id", nullable = false, length = 36)
+    private String sessionId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    // set when the token was exchanged for a new one
+    @Column(name = "used_at")
+    private LocalDateTime usedAt;
+
+    @Column(name = "revoked_at")
+    private LocalDateTime revokedAt;
+}
@@ -0,0 +1,5 @@
+package com.example.shopBackend.enums;
+
+public enum OrderIngestionStatus {
+    QUEUED, COMMITTED, FAILED
+}
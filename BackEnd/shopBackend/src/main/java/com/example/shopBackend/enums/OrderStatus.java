@@ -1,5 +1,38 @@
 package com.example.shopBackend.enums;
 
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
 public enum OrderStatus {
-    PENDING, CONFIRMED, SHIPPED, DELIVERED, CANCELLED, RETURNED
+    PENDING, CONFIRMED, SHIPPED, DELIVERED, CANCELLED, RETURNED;
+
+    // allowed moves; CANCELLED and RETURNED are final
+    private static final Map<OrderStatus, Set<OrderStatus>> TRANSITIONS = new EnumMap<>(OrderStatus.class);
+    private static final Map<OrderStatus, Set<OrderStatus>> PREDECESSORS = new EnumMap<>(OrderStatus.class);
+
+    static {
+        TRANSITIONS.put(PENDING, EnumSet.of(CONFIRMED, CANCELLED));
+        TRANSITIONS.put(CONFIRMED, EnumSet.of(SHIPPED, CANCELLED));
+        TRANSITIONS.put(SHIPPED, EnumSet.of(DELIVERED, RETURNED));
+        TRANSITIONS.put(DELIVERED, EnumSet.of(RETURNED));
+        TRANSITIONS.put(CANCELLED, EnumSet.noneOf(OrderStatus.class));
+        TRANSITIONS.put(RETURNED, EnumSet.noneOf(OrderStatus.class));
+
+        for (OrderStatus status : values()) {
+            PREDECESSORS.put(status, EnumSet.noneOf(OrderStatus.class));
+        }
+        TRANSITIONS.forEach((from, targets) -> targets.forEach(to -> PREDECESSORS.get(to).add(from)));
+    }
+
+    public boolean canTransitionTo(OrderStatus next) {
+        return TRANSITIONS.get(this).contains(next);
+    }
+
+    /** Statuses from which an item may move to this one. */
+    public Set<OrderStatus> allowedPredecessors() {
+        return Collections.unmodifiableSet(PREDECESSORS.get(this));
+    }
 }
@@ -0,0 +1,5 @@
+package com.example.shopBackend.enums;
+
+public enum ProductSort {
+    NEWEST, PRICE_ASC, PRICE_DESC
+}
@@ -0,0 +1,13 @@
+package com.example.shopBackend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published by the category service after a category is created, updated or deleted.
+ */
+@Getter
+@AllArgsConstructor
+public class CategoryChangedEvent {
+    private final Long categoryId;
+}
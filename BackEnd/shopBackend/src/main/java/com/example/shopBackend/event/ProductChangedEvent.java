@@ -0,0 +1,28 @@
+package com.example.shopBackend.event;
+
+import com.example.shopBackend.entity.Product;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published by the product service after a product is created, updated or deleted so
+ * in-memory read models can patch themselves. {@code product} is null for deletions.
+ */
+@Getter
+@AllArgsConstructor
+public class ProductChangedEvent {
+    private final Long productId;
+    private final Product product;
+
+    public static ProductChangedEvent saved(Product product) {
+        return new ProductChangedEvent(product.getId(), product);
+    }
+
+    public static ProductChangedEvent deleted(Long productId) {
+        return new ProductChangedEvent(productId, null);
+    }
+
+    public boolean isDeleted() {
+        return product == null;
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.shopBackend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published after a column of a user that cached principals carry (role, credentials) changes,
+ * or its sessions are revoked, so the cached principal for that email is dropped.
+ */
+@Getter
+@AllArgsConstructor
+public class UserChangedEvent {
+    private final String email;
+}
@@ -0,0 +1,18 @@
+package com.example.shopBackend.exceptions;
+
+public class TooManyRequestsException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message){
+        this(message, 1);
+    }
+
+    public TooManyRequestsException(String message, long retryAfterSeconds){
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.shopBackend.idempotency;
+
+import com.example.shopBackend.dto.Response;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class IdempotencyRecord {
+    private final String fingerprint;
+    // null while the first request is still in flight
+    private final Response response;
+}
@@ -0,0 +1,106 @@
+package com.example.shopBackend.idempotency;
+
+import com.example.shopBackend.dto.Response;
+import com.example.shopBackend.exceptions.ConflictException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ValidationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+
+/**
+ * Runs an action at most once per idempotency key. A repeat with the same key and body
+ * replays the stored response, a concurrent repeat waits for the first one to finish,
+ * and reusing a key for a different body is rejected with 409.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 200;
+
+    private final IdempotencyStore idempotencyStore;
+    private final ObjectMapper objectMapper;
+    private final long waitTimeoutMillis;
+
+    public IdempotencyService(IdempotencyStore idempotencyStore,
+                              ObjectMapper objectMapper,
+                              @Value("${idempotency.wait-timeout-ms:10000}") long waitTimeoutMillis) {
+        this.idempotencyStore = idempotencyStore;
+        this.objectMapper = objectMapper;
+        this.waitTimeoutMillis = waitTimeoutMillis;
+    }
+
+    /**
+     * @param scope   namespaces the key, e.g. the caller's identity, so clients cannot
+     *                collide with or replay each other's keys
+     * @param request the request body, hashed to detect key reuse with a different payload
+     */
+    public Response execute(String scope, String idempotencyKey, Object request, Supplier<Response> action) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new ValidationException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        String key = scope + ":" + idempotencyKey;
+        if (key.length() > IdempotencyStore.MAX_KEY_LENGTH) {
+            throw new ValidationException("Idempotency-Key is too long for this account, use at most "
+                    + (IdempotencyStore.MAX_KEY_LENGTH - scope.length() - 1) + " characters");
+        }
+        String fingerprint = fingerprint(request);
+
+        // a second pass is only needed when the first owner failed and released the key
+        for (int attempt = 0; attempt < 2; attempt++) {
+            IdempotencyRecord existing = idempotencyStore.claim(key, fingerprint);
+            if (existing == null) {
+                return runAndRecord(key, action);
+            }
+            if (!existing.getFingerprint().equals(fingerprint)) {
+                throw new ConflictException("Idempotency-Key was already used for a different request");
+            }
+            if (existing.getResponse() != null) {
+                return existing.getResponse();
+            }
+
+            IdempotencyRecord finished;
+            try {
+                finished = idempotencyStore.await(key, waitTimeoutMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ConflictException("A request with this Idempotency-Key is still in progress");
+            }
+            if (finished != null && finished.getResponse() != null) {
+                return finished.getResponse();
+            }
+            if (finished != null) {
+                throw new ConflictException("A request with this Idempotency-Key is still in progress");
+            }
+        }
+        throw new ConflictException("A request with this Idempotency-Key is still in progress");
+    }
+
+    private Response runAndRecord(String key, Supplier<Response> action) {
+        Response response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            // failures are not remembered, the client may retry with the same key
+            idempotencyStore.release(key);
+            throw e;
+        }
+        idempotencyStore.complete(key, response);
+        return response;
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(request);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not fingerprint request", e);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.shopBackend.idempotency;
+
+import com.example.shopBackend.dto.Response;
+
+/**
+ * Remembers which idempotency keys were already used and what they answered. The
+ * in-memory store is the default; set {@code idempotency.store=jdbc} to share keys
+ * between nodes through the database.
+ */
+public interface IdempotencyStore {
+
+    /** Longest scoped key a store accepts, the width of {@code idempotency_keys.idempotency_key}. */
+    int MAX_KEY_LENGTH = 255;
+
+    /**
+     * Atomically reserves the key for the caller.
+     *
+     * @return null if the caller now owns the key, otherwise the existing record
+     */
+    IdempotencyRecord claim(String key, String fingerprint);
+
+    /** Stores the owner's response so later duplicates can replay it. */
+    void complete(String key, Response response);
+
+    /** Frees the key after the owner failed, letting a retry run again. */
+    void release(String key);
+
+    /**
+     * Waits for an in-flight key to finish.
+     *
+     * @return the record, with a null response if it is still running at the timeout, or
+     * null if the key was released or has expired
+     */
+    IdempotencyRecord await(String key, long timeoutMillis) throws InterruptedException;
+}
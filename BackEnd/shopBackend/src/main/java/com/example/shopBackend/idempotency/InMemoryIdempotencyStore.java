@@ -0,0 +1,81 @@
+package com.example.shopBackend.idempotency;
+
+import com.example.shopBackend.cache.BoundedTtlCache;
+import com.example.shopBackend.cache.EvictionPolicy;
+import com.example.shopBackend.dto.Response;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Single-node store. Each key holds a future that duplicates block on until the first
+ * request completes. Memory is bounded by {@code idempotency.capacity}; the oldest keys
+ * are dropped first.
+ */
+@Component
+@ConditionalOnProperty(name = "idempotency.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private final BoundedTtlCache<String, Entry> entries;
+
+    public InMemoryIdempotencyStore(@Value("${idempotency.capacity:100000}") int capacity,
+                                    @Value("${idempotency.ttl-seconds:86400}") long ttlSeconds) {
+        this.entries = new BoundedTtlCache<>("idempotency", true, capacity, ttlSeconds, EvictionPolicy.FIFO);
+    }
+
+    @Override
+    public IdempotencyRecord claim(String key, String fingerprint) {
+        Entry existing = entries.putIfAbsent(key, new Entry(fingerprint, new CompletableFuture<>()));
+        return existing == null ? null : existing.toRecord();
+    }
+
+    @Override
+    public void complete(String key, Response response) {
+        Entry entry = entries.getIfPresent(key);
+        if (entry != null) {
+            entry.result.complete(response);
+        }
+    }
+
+    @Override
+    public void release(String key) {
+        Entry entry = entries.getIfPresent(key);
+        entries.invalidate(key);
+        if (entry != null) {
+            entry.result.cancel(false);
+        }
+    }
+
+    @Override
+    public IdempotencyRecord await(String key, long timeoutMillis) throws InterruptedException {
+        Entry entry = entries.getIfPresent(key);
+        if (entry == null) {
+            return null;
+        }
+        try {
+            return new IdempotencyRecord(entry.fingerprint, entry.result.get(timeoutMillis, TimeUnit.MILLISECONDS));
+        } catch (CancellationException | ExecutionException e) {
+            return null;
+        } catch (TimeoutException e) {
+            return new IdempotencyRecord(entry.fingerprint, null);
+        }
+    }
+
+    @AllArgsConstructor
+    private static class Entry {
+        private final String fingerprint;
+        private final CompletableFuture<Response> result;
+
+        IdempotencyRecord toRecord() {
+            return new IdempotencyRecord(fingerprint, result.isDone() && !result.isCompletedExceptionally()
+                    ? result.join() : null);
+        }
+    }
+}
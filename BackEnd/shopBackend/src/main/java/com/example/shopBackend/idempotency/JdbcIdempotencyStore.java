@@ -0,0 +1,147 @@
+package com.example.shopBackend.idempotency;
+
+import com.example.shopBackend.dto.Response;
+import com.example.shopBackend.repository.IdempotencyKeyRepo;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Database-backed store shared by all nodes. The primary key on {@code idempotency_keys}
+ * decides which request owns a key; duplicates on other nodes poll the row until the
+ * owner writes its response. Expired rows are purged at most once a minute.
+ *
+ * <p>An in-flight claim only holds a short lease ({@code idempotency.lease-seconds}); the
+ * response extends it to the full ttl. If the owning node dies before answering, the next
+ * claimer after the lease takes the key over instead of waiting out the whole ttl. The
+ * lease must outlast the slowest order, or a duplicate could run while the first is busy.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "idempotency.store", havingValue = "jdbc")
+public class JdbcIdempotencyStore implements IdempotencyStore {
+
+    private static final long POLL_INTERVAL_MILLIS = 50;
+    private static final long PURGE_INTERVAL_MILLIS = 60_000;
+
+    private final IdempotencyKeyRepo idempotencyKeyRepo;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final long ttlSeconds;
+    private final long leaseSeconds;
+    private final AtomicLong lastPurge = new AtomicLong();
+
+    public JdbcIdempotencyStore(IdempotencyKeyRepo idempotencyKeyRepo,
+                                ObjectMapper objectMapper,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${idempotency.ttl-seconds:86400}") long ttlSeconds,
+                                @Value("${idempotency.lease-seconds:60}") long leaseSeconds) {
+        this.idempotencyKeyRepo = idempotencyKeyRepo;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // the claim must be visible to other nodes before the order is written
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.ttlSeconds = ttlSeconds;
+        this.leaseSeconds = Math.min(leaseSeconds, ttlSeconds);
+    }
+
+    @Override
+    public IdempotencyRecord claim(String key, String fingerprint) {
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency key longer than " + MAX_KEY_LENGTH + " characters");
+        }
+        purgeExpiredIfDue();
+        DataIntegrityViolationException conflict = null;
+        // a second pass covers a row released between our insert and read; any more would only hide a bug
+        for (int attempt = 0; attempt < 2; attempt++) {
+            LocalDateTime now = LocalDateTime.now();
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        idempotencyKeyRepo.insert(key, fingerprint, now, now.plusSeconds(leaseSeconds)));
+                return null;
+            } catch (DataIntegrityViolationException e) {
+                conflict = e;
+            }
+            IdempotencyKeyRepo.KeyState existing = idempotencyKeyRepo.findState(key).orElse(null);
+            if (existing == null) {
+                continue;
+            }
+            if (!existing.getExpiresAt().isBefore(now)) {
+                return toRecord(key, existing);
+            }
+            // an expired answer, or an owner whose lease ran out before it answered
+            Integer taken = transactionTemplate.execute(status ->
+                    idempotencyKeyRepo.takeOver(key, fingerprint, now, now.plusSeconds(leaseSeconds)));
+            if (taken != null && taken > 0) {
+                return null;
+            }
+        }
+        throw conflict;
+    }
+
+    @Override
+    public void complete(String key, Response response) {
+        try {
+            String json = objectMapper.writeValueAsString(response);
+            transactionTemplate.executeWithoutResult(status ->
+                    idempotencyKeyRepo.complete(key, json, LocalDateTime.now().plusSeconds(ttlSeconds)));
+        } catch (JsonProcessingException e) {
+            log.error("Could not store response for idempotency key {}", key, e);
+            release(key);
+        }
+    }
+
+    @Override
+    public void release(String key) {
+        transactionTemplate.executeWithoutResult(status -> idempotencyKeyRepo.deleteById(key));
+    }
+
+    @Override
+    public IdempotencyRecord await(String key, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (true) {
+            IdempotencyKeyRepo.KeyState existing = idempotencyKeyRepo.findState(key).orElse(null);
+            // an expired lease counts as released, so the caller's next claim can take it over
+            if (existing == null || existing.getExpiresAt().isBefore(LocalDateTime.now())) {
+                return null;
+            }
+            if (existing.getResponseJson() != null || System.currentTimeMillis() >= deadline) {
+                return toRecord(key, existing);
+            }
+            Thread.sleep(POLL_INTERVAL_MILLIS);
+        }
+    }
+
+    private IdempotencyRecord toRecord(String key, IdempotencyKeyRepo.KeyState row) {
+        if (row.getResponseJson() == null) {
+            return new IdempotencyRecord(row.getFingerprint(), null);
+        }
+        try {
+            return new IdempotencyRecord(row.getFingerprint(), objectMapper.readValue(row.getResponseJson(), Response.class));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Corrupt stored response for idempotency key " + key, e);
+        }
+    }
+
+    private void purgeExpiredIfDue() {
+        long now = System.currentTimeMillis();
+        long last = lastPurge.get();
+        if (now - last < PURGE_INTERVAL_MILLIS || !lastPurge.compareAndSet(last, now)) {
+            return;
+        }
+        Integer purged = transactionTemplate.execute(status -> idempotencyKeyRepo.deleteExpired(LocalDateTime.now()));
+        if (purged != null && purged > 0) {
+            log.info("Purged {} expired idempotency keys", purged);
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.example.shopBackend.inventory;
+
+import com.example.shopBackend.dto.FlashSaleStatsDto;
+import com.example.shopBackend.dto.OrderItemRequest;
+import com.example.shopBackend.dto.OrderRequest;
+import com.example.shopBackend.entity.Product;
+import com.example.shopBackend.event.ProductChangedEvent;
+import com.example.shopBackend.exceptions.ConflictException;
+import com.example.shopBackend.exceptions.TooManyRequestsException;
+import com.example.shopBackend.repository.ProductRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admission control for products flagged as flash sales. Each flagged product holds one
+ * permit per unit for sale; an order must take its units before it touches the database,
+ * so once a product sells out every further request is turned away in memory. Admitted
+ * orders then wait, for at most {@code flash-sale.max-wait-ms}, for one of a fixed number
+ * of placement slots, which caps how many flash-sale orders use connections at once.
+ */
+@Component
+@Slf4j
+public class FlashSaleGate {
+
+    private final ProductRepo productRepo;
+    private final StockLedger stockLedger;
+    private final Semaphore placementSlots;
+    private final long maxWaitMillis;
+    private final Map<Long, Sale> sales = new ConcurrentHashMap<>();
+
+    public FlashSaleGate(ProductRepo productRepo,
+                         StockLedger stockLedger,
+                         @Value("${flash-sale.max-concurrent-placements:8}") int maxConcurrentPlacements,
+                         @Value("${flash-sale.max-wait-ms:2000}") long maxWaitMillis) {
+        this.productRepo = productRepo;
+        this.stockLedger = stockLedger;
+        this.placementSlots = new Semaphore(Math.max(1, maxConcurrentPlacements));
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadFlaggedProducts() {
+        for (Product product : productRepo.findByFlashSaleTrue()) {
+            Integer stock = stockLedger.available(product.getId());
+            if (stock == null) {
+                log.warn("Flash sale product {} has no tracked stock and stays closed until re-enabled", product.getId());
+                stock = 0;
+            }
+            sales.put(product.getId(), new Sale(stock));
+        }
+        if (!sales.isEmpty()) {
+            log.info("Flash sale admission active for {} products", sales.size());
+        }
+    }
+
+    /**
+     * Opens a sale or changes how many units an open one has left. {@code permits} counts
+     * every unsold unit, including those held by admitted orders still being placed; an
+     * open sale is resized in place so those orders return their units to it if they
+     * fail, and its statistics carry on.
+     */
+    public void open(Long productId, int permits) {
+        // a no-op for a sale created by this call
+        sales.computeIfAbsent(productId, id -> new Sale(permits)).resize(permits);
+    }
+
+    public void close(Long productId) {
+        sales.remove(productId);
+    }
+
+    public boolean isOpen(Long productId) {
+        return sales.containsKey(productId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.isDeleted()) {
+            sales.remove(event.getProductId());
+        }
+    }
+
+    /**
+     * Takes permits for every flash-sale line of the order and a placement slot. Orders
+     * without flash-sale products pass straight through.
+     *
+     * @throws ConflictException        if a flash-sale product is sold out
+     * @throws TooManyRequestsException if no placement slot frees up in time
+     */
+    public Admission admit(OrderRequest orderRequest) {
+        Map<Long, Integer> wanted = new LinkedHashMap<>();
+        for (OrderItemRequest item : orderRequest.getItems()) {
+            if (sales.containsKey(item.getProductId())) {
+                wanted.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+            }
+        }
+        if (wanted.isEmpty()) {
+            return Admission.NONE;
+        }
+
+        Map<Sale, Integer> taken = new LinkedHashMap<>();
+        for (Map.Entry<Long, Integer> line : wanted.entrySet()) {
+            Sale sale = sales.get(line.getKey());
+            if (sale == null) {
+                continue;
+            }
+            if (!sale.permits.tryAcquire(line.getValue())) {
+                sale.rejected.increment();
+                taken.forEach((takenSale, quantity) -> takenSale.permits.release(quantity));
+                throw new ConflictException("Product id " + line.getKey() + " is sold out");
+            }
+            taken.put(sale, line.getValue());
+        }
+
+        long start = System.nanoTime();
+        boolean slot;
+        try {
+            slot = placementSlots.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            slot = false;
+        }
+        long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        taken.keySet().forEach(sale -> sale.recordWait(waitedMillis));
+
+        if (!slot) {
+            taken.forEach((sale, quantity) -> {
+                sale.permits.release(quantity);
+                sale.rejected.increment();
+            });
+            throw new TooManyRequestsException("Flash sale is busy, please retry");
+        }
+        taken.keySet().forEach(sale -> sale.admitted.increment());
+        return new Admission(placementSlots, taken);
+    }
+
+    public List<FlashSaleStatsDto> stats() {
+        return sales.entrySet().stream()
+                .map(entry -> entry.getValue().toDto(entry.getKey()))
+                .sorted(Comparator.comparing(FlashSaleStatsDto::getProductId))
+                .toList();
+    }
+
+    /**
+     * Holds a placement slot and the permits taken for one order. Call {@link #finish}
+     * once placement is over, and {@link #cancel} if an order that was handed off later
+     * fails, so its units go back on sale.
+     */
+    public static class Admission {
+        static final Admission NONE = new Admission(null, Map.of());
+
+        private final Semaphore placementSlots;
+        private final Map<Sale, Integer> taken;
+        private final AtomicBoolean slotReleased = new AtomicBoolean();
+        // guarded by this: a handed-off order can fail on the writer while finish() runs
+        private boolean sold;
+        private boolean cancelled;
+
+        private Admission(Semaphore placementSlots, Map<Sale, Integer> taken) {
+            this.placementSlots = placementSlots;
+            this.taken = taken;
+        }
+
+        public void finish(boolean placed) {
+            if (placementSlots != null && slotReleased.compareAndSet(false, true)) {
+                placementSlots.release();
+            }
+            if (placed) {
+                markSold();
+            } else {
+                cancel();
+            }
+        }
+
+        public synchronized void cancel() {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            taken.forEach((sale, quantity) -> {
+                if (sold) {
+                    sale.sold.add(-quantity);
+                }
+                sale.permits.release(quantity);
+            });
+        }
+
+        private synchronized void markSold() {
+            if (!cancelled && !sold) {
+                sold = true;
+                taken.forEach((sale, quantity) -> sale.sold.add(quantity));
+            }
+        }
+    }
+
+    private static class Sale {
+        private final SalePermits permits;
+        // units put on sale so far, net of resizes, and units of placed orders
+        private int offered;
+        private final LongAdder sold = new LongAdder();
+        private final LongAdder admitted = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder waits = new LongAdder();
+        private final LongAdder totalWaitMillis = new LongAdder();
+        private final AtomicLong maxWaitMillis = new AtomicLong();
+
+        Sale(int permits) {
+            this.offered = Math.max(0, permits);
+            this.permits = new SalePermits(offered);
+        }
+
+        // unsold units are those offered minus those sold; held units stay counted, so a
+        // failed order's release lands on the resized total
+        synchronized void resize(int target) {
+            int delta = Math.max(0, target) - (offered - (int) sold.sum());
+            offered += delta;
+            if (delta > 0) {
+                permits.release(delta);
+            } else if (delta < 0) {
+                permits.shrink(-delta);
+            }
+        }
+
+        void recordWait(long millis) {
+            waits.increment();
+            totalWaitMillis.add(millis);
+            maxWaitMillis.accumulateAndGet(millis, Math::max);
+        }
+
+        FlashSaleStatsDto toDto(Long productId) {
+            long count = waits.sum();
+            return new FlashSaleStatsDto(productId, Math.max(0, permits.availablePermits()), admitted.sum(), rejected.sum(),
+                    count == 0 ? 0 : totalWaitMillis.sum() / count, maxWaitMillis.get());
+        }
+    }
+
+    // a shrink below the units currently held leaves the count negative until they come back
+    private static class SalePermits extends Semaphore {
+        SalePermits(int permits) {
+            super(permits);
+        }
+
+        void shrink(int reduction) {
+            reducePermits(reduction);
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.example.shopBackend.inventory;
+
+import com.example.shopBackend.entity.Order;
+import com.example.shopBackend.entity.OrderItem;
+import com.example.shopBackend.entity.Product;
+import com.example.shopBackend.event.ProductChangedEvent;
+import com.example.shopBackend.exceptions.ConflictException;
+import com.example.shopBackend.repository.ProductRepo;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory stock counters. Reservations are a compare-and-set on a per-product counter,
+ * so checkout never takes a row lock. Once the order commits, its units accumulate as
+ * per-product deltas that a background thread writes behind with conditional updates,
+ * which cannot take the stock column below zero even if another node sold the same units.
+ * Units held by an uncommitted order live only in the counter.
+ *
+ * <p>Counters are seeded from {@code products.stock} on first use. Products whose stock is
+ * null are not tracked and can always be ordered.
+ */
+@Component
+@Slf4j
+public class StockLedger {
+
+    // marks products without stock tracking, so their stock is not re-read on every order
+    private static final AtomicInteger UNTRACKED = new AtomicInteger();
+
+    private final ProductRepo productRepo;
+    private final TransactionTemplate transactionTemplate;
+    private final long flushIntervalMillis;
+
+    private final Map<Long, AtomicInteger> available = new ConcurrentHashMap<>();
+    // net units sold by committed orders but not yet written to the database
+    private final Map<Long, AtomicInteger> pending = new ConcurrentHashMap<>();
+    private ScheduledExecutorService flusher;
+
+    public StockLedger(ProductRepo productRepo,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${stock.flush-interval-ms:200}") long flushIntervalMillis) {
+        this.productRepo = productRepo;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.flushIntervalMillis = flushIntervalMillis;
+    }
+
+    @PostConstruct
+    void start() {
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> new Thread(runnable, "stock-write-behind"));
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+        flush();
+    }
+
+    /**
+     * Takes stock for every line of the order or for none of them.
+     *
+     * @throws ConflictException if a product does not have enough stock left
+     */
+    public StockReservation reserve(Order order) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        Map<Long, Product> products = new LinkedHashMap<>();
+        for (OrderItem orderItem : order.getOrderItemList()) {
+            quantities.merge(orderItem.getProduct().getId(), orderItem.getQuantity(), Integer::sum);
+            products.putIfAbsent(orderItem.getProduct().getId(), orderItem.getProduct());
+        }
+
+        Map<Long, Integer> taken = new LinkedHashMap<>();
+        for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+            Product product = products.get(line.getKey());
+            AtomicInteger counter = available.computeIfAbsent(product.getId(),
+                    id -> product.getStock() == null ? UNTRACKED : new AtomicInteger(product.getStock()));
+            if (counter == UNTRACKED) {
+                continue;
+            }
+            if (!tryTake(counter, line.getValue())) {
+                release(taken, false);
+                throw new ConflictException("Insufficient stock for product id: " + product.getId());
+            }
+            taken.put(product.getId(), line.getValue());
+        }
+
+        StockReservation reservation = new StockReservation(this, taken);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        reservation.commit();
+                    } else {
+                        reservation.release();
+                    }
+                }
+            });
+        } else {
+            reservation.commit();
+        }
+        return reservation;
+    }
+
+    /** Live stock for the product, or null if it is not tracked. */
+    public Integer available(Long productId) {
+        AtomicInteger counter = available.get(productId);
+        if (counter == null) {
+            return productRepo.findStockById(productId);
+        }
+        return counter == UNTRACKED ? null : counter.get();
+    }
+
+    /**
+     * Overwrites the stock of a product, e.g. after a restock. The counter is moved in place
+     * by the difference to the stored value rather than replaced: sales not yet written stay
+     * pending and still come off the new value, and units held by orders in flight count as
+     * part of it, so releasing them later does not push stock above what was set.
+     */
+    public void setStock(Long productId, Integer stock) {
+        // seeded before the write, so an order cannot seed it afterwards from a stale product
+        AtomicInteger counter = stock == null ? available.get(productId) : available.computeIfAbsent(productId, id -> {
+            Integer current = productRepo.findStockById(id);
+            return current == null ? UNTRACKED : new AtomicInteger(current);
+        });
+        Integer stored = transactionTemplate.execute(status -> {
+            Integer previous = productRepo.findStockForUpdate(productId);
+            productRepo.setStock(productId, stock);
+            return previous;
+        });
+
+        if (stock == null) {
+            available.put(productId, UNTRACKED);
+            pending.remove(productId);
+        } else if (counter == UNTRACKED) {
+            // nothing can have been reserved against an untracked product
+            available.replace(productId, UNTRACKED, new AtomicInteger(stock));
+        } else if (counter != null) {
+            counter.addAndGet(stored == null ? stock - counter.get() - pendingUnits(productId) : stock - stored);
+        }
+    }
+
+    private int pendingUnits(Long productId) {
+        AtomicInteger units = pending.get(productId);
+        return units == null ? 0 : units.get();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.isDeleted()) {
+            available.remove(event.getProductId());
+            pending.remove(event.getProductId());
+        }
+    }
+
+    void commit(Map<Long, Integer> quantities) {
+        quantities.forEach((productId, quantity) ->
+                pending.computeIfAbsent(productId, id -> new AtomicInteger()).addAndGet(quantity));
+    }
+
+    void release(Map<Long, Integer> quantities, boolean committed) {
+        quantities.forEach((productId, quantity) -> {
+            AtomicInteger counter = available.get(productId);
+            if (counter != null && counter != UNTRACKED) {
+                counter.addAndGet(quantity);
+            }
+            if (committed) {
+                pending.computeIfAbsent(productId, id -> new AtomicInteger()).addAndGet(-quantity);
+            }
+        });
+    }
+
+    private static boolean tryTake(AtomicInteger counter, int quantity) {
+        while (true) {
+            int current = counter.get();
+            if (current < quantity) {
+                return false;
+            }
+            if (counter.compareAndSet(current, current - quantity)) {
+                return true;
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Stock write-behind failed", e);
+        }
+    }
+
+    void flush() {
+        for (Map.Entry<Long, AtomicInteger> entry : pending.entrySet()) {
+            Long productId = entry.getKey();
+            int delta = entry.getValue().getAndSet(0);
+            if (delta == 0) {
+                continue;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> write(productId, delta));
+            } catch (RuntimeException e) {
+                // keep the delta for the next round
+                entry.getValue().addAndGet(delta);
+                log.warn("Could not write stock for product {}: {}", productId, e.getMessage());
+            }
+        }
+    }
+
+    private void write(Long productId, int delta) {
+        if (delta < 0) {
+            productRepo.incrementStock(productId, -delta);
+            return;
+        }
+        if (productRepo.decrementStock(productId, delta) > 0) {
+            return;
+        }
+        // the row has less stock than we sold: another writer got there first
+        Integer stored = productRepo.findStockById(productId);
+        if (stored == null) {
+            available.put(productId, UNTRACKED);
+            return;
+        }
+        log.warn("Stock conflict on product {}: {} units sold but only {} left, clamping to zero",
+                productId, delta, stored);
+        productRepo.setStock(productId, 0);
+        AtomicInteger counter = available.get(productId);
+        if (counter != null && counter != UNTRACKED) {
+            counter.set(0);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.shopBackend.inventory;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Units taken from {@link StockLedger} for one order. They are held until the order's
+ * transaction commits and only then become sales to write behind. Release it if the
+ * order is not persisted; releasing twice is harmless.
+ */
+public class StockReservation {
+    private static final int HELD = 0;
+    private static final int COMMITTED = 1;
+    private static final int RELEASED = 2;
+
+    private final StockLedger stockLedger;
+    private final Map<Long, Integer> quantities;
+    private final AtomicInteger state = new AtomicInteger(HELD);
+
+    StockReservation(StockLedger stockLedger, Map<Long, Integer> quantities) {
+        this.stockLedger = stockLedger;
+        this.quantities = quantities;
+    }
+
+    void commit() {
+        if (state.compareAndSet(HELD, COMMITTED)) {
+            stockLedger.commit(quantities);
+        }
+    }
+
+    public void release() {
+        if (state.compareAndSet(HELD, RELEASED)) {
+            stockLedger.release(quantities, false);
+        } else if (state.compareAndSet(COMMITTED, RELEASED)) {
+            stockLedger.release(quantities, true);
+        }
+    }
+}
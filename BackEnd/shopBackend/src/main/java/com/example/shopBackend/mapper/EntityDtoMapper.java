@@ -2,6 +2,7 @@ package com.example.shopBackend.mapper;
 
 import com.example.shopBackend.dto.*;
 import com.example.shopBackend.entity.*;
+import com.example.shopBackend.repository.OrderItemRepo;
 import org.springframework.stereotype.Component;
 
 import java.util.stream.Collectors;
@@ -46,6 +47,7 @@ public class EntityDtoMapper {
         orderItemDto.setPrice(orderItem.getPrice());
         orderItemDto.setStatus(orderItem.getStatus().name());
         orderItemDto.setCreatedAt(orderItem.getCreatedAt());
+        orderItemDto.setVersion(orderItem.getVersion());
         return orderItemDto;
     }
 
@@ -61,8 +63,6 @@ public class EntityDtoMapper {
     }
 
     public UserDto mapUserToDtoPlusAddress(User user){
-
-        System.out.println("mapUserToDtoPlusAddress is called");
         UserDto userDto = mapUserToDtoBasic(user);
         if (user.getAddress() != null){
 
@@ -97,6 +97,48 @@ public class EntityDtoMapper {
         return orderItemDto;
     }
 
+    //OrderItem join row to DTO plus product and user, same shape as mapOrderItemToDtoPlusProductAndUser
+    public OrderItemDto mapOrderItemRowToDto(OrderItemRepo.OrderItemRow row){
+        OrderItemDto orderItemDto = new OrderItemDto();
+        orderItemDto.setId(row.getId());
+        orderItemDto.setQuantity(row.getQuantity());
+        orderItemDto.setPrice(row.getPrice());
+        orderItemDto.setStatus(row.getStatus().name());
+        orderItemDto.setCreatedAt(row.getCreatedAt());
+        orderItemDto.setVersion(row.getVersion());
+
+        if (row.getProductId() != null) {
+            ProductDto productDto = new ProductDto();
+            productDto.setId(row.getProductId());
+            productDto.setName(row.getProductName());
+            productDto.setDescription(row.getProductDescription());
+            productDto.setPrice(row.getProductPrice());
+            productDto.setImageUrl(row.getProductImageUrl());
+            orderItemDto.setProduct(productDto);
+        }
+
+        if (row.getUserId() != null) {
+            UserDto userDto = new UserDto();
+            userDto.setId(row.getUserId());
+            userDto.setPhoneNumber(row.getUserPhoneNumber());
+            userDto.setEmail(row.getUserEmail());
+            userDto.setRole(row.getUserRole() != null ? row.getUserRole().name() : null);
+            userDto.setName(row.getUserName());
+            if (row.getAddressId() != null) {
+                AddressDto addressDto = new AddressDto();
+                addressDto.setId(row.getAddressId());
+                addressDto.setCity(row.getAddressCity());
+                addressDto.setStreet(row.getAddressStreet());
+                addressDto.setState(row.getAddressState());
+                addressDto.setCountry(row.getAddressCountry());
+                addressDto.setZipCode(row.getAddressZipCode());
+                userDto.setAddress(addressDto);
+            }
+            orderItemDto.setUser(userDto);
+        }
+        return orderItemDto;
+    }
+
 
     //USer to DTO with Address and Order Items History
     public UserDto mapUserToDtoPlusAddressAndOrderHistory(User user) {
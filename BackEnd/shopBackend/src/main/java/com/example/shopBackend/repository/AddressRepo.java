@@ -4,6 +4,9 @@ import com.example.shopBackend.entity.Address;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+
 @Repository
 public interface AddressRepo extends JpaRepository<Address,Long> {
+    Optional<Address> findByUserId(Long userId);
 }
@@ -0,0 +1,19 @@
+package com.example.shopBackend.repository;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Assigns ids from the named row of {@code id_sequences} through {@link IdBlockAllocator}.
+ * Ids are known before the insert, so inserts of these entities can be JDBC batched.
+ */
+@IdGeneratorType(BlockSequenceIdGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface BlockSequenceId {
+    String value();
+}
@@ -0,0 +1,63 @@
+package com.example.shopBackend.repository;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.AnnotationBasedGenerator;
+import org.hibernate.generator.GeneratorCreationContext;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.resource.beans.container.spi.BeanContainer;
+import org.hibernate.resource.beans.spi.BeanInstanceProducer;
+import org.hibernate.resource.beans.spi.ManagedBeanRegistry;
+
+import java.lang.reflect.Member;
+
+/**
+ * Generator behind {@link BlockSequenceId}. The allocator is the application's own bean,
+ * looked up through Hibernate's bean container, which Spring Boot backs with the
+ * application context.
+ */
+public class BlockSequenceIdGenerator implements IdentifierGenerator, AnnotationBasedGenerator<BlockSequenceId> {
+
+    // the shared singleton rather than a JPA-style instance created per lookup
+    private static final BeanContainer.LifecycleOptions SHARED_BEAN = new BeanContainer.LifecycleOptions() {
+        @Override
+        public boolean canUseCachedReferences() {
+            return true;
+        }
+
+        @Override
+        public boolean useJpaCompliantCreation() {
+            return false;
+        }
+    };
+
+    private static final BeanInstanceProducer NO_FALLBACK = new BeanInstanceProducer() {
+        @Override
+        public <B> B produceBeanInstance(Class<B> beanType) {
+            throw new IllegalStateException("No " + beanType.getSimpleName() + " bean is available to Hibernate");
+        }
+
+        @Override
+        public <B> B produceBeanInstance(String name, Class<B> beanType) {
+            return produceBeanInstance(beanType);
+        }
+    };
+
+    private IdBlockAllocator allocator;
+    private String sequence;
+
+    @Override
+    public void initialize(BlockSequenceId annotation, Member member, GeneratorCreationContext context) {
+        BeanContainer beanContainer = context.getServiceRegistry().requireService(ManagedBeanRegistry.class).getBeanContainer();
+        if (beanContainer == null) {
+            throw new IllegalStateException("@BlockSequenceId requires a bean container providing IdBlockAllocator");
+        }
+        this.allocator = beanContainer.getBean(IdBlockAllocator.class, SHARED_BEAN, NO_FALLBACK).getBeanInstance();
+        this.sequence = annotation.value();
+        allocator.register(sequence, context.getPersistentClass().getTable().getName());
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        return allocator.next(sequence);
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.shopBackend.repository;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hands out ids in blocks reserved from {@code id_sequences}. Blocks are fetched over a
+ * small connection pool of their own: Hibernate's table generator borrows a second
+ * connection from the main pool while the caller already holds one, which deadlocks once
+ * every pooled connection belongs to a request waiting for an id.
+ *
+ * <p>A sequence is seeded the first time this node reserves from it: the table and row
+ * are created if missing and next_val is moved past the highest id already in the
+ * sequence's table, which covers databases upgraded from auto-increment ids. Each step is
+ * idempotent, so nodes starting together may all run it.
+ *
+ * <p>The pool takes the main pool's {@code spring.datasource.hikari.*} settings (timeouts,
+ * init SQL, driver properties) except its name and size: it holds at most two connections
+ * unless {@code persistence.id-pool.*} says otherwise, which accepts any Hikari property,
+ * e.g. {@code persistence.id-pool.maximum-pool-size}.
+ */
+@Component
+@Slf4j
+public class IdBlockAllocator {
+
+    private final HikariDataSource dataSource;
+    private final int blockSize;
+    private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+
+    public IdBlockAllocator(DataSourceProperties dataSourceProperties,
+                            Environment environment,
+                            @Value("${persistence.id-block-size:50}") int blockSize) {
+        this.dataSource = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder binder = Binder.get(environment);
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+        this.dataSource.setMaximumPoolSize(2);
+        this.dataSource.setMinimumIdle(0);
+        binder.bind("persistence.id-pool", Bindable.ofInstance(dataSource));
+        this.dataSource.setPoolName("id-allocator");
+        this.blockSize = blockSize;
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    HikariConfig poolConfig() {
+        return dataSource;
+    }
+
+    /** Declares a sequence whose ids must stay above those already in {@code table}. */
+    public void register(String sequence, String table) {
+        Block block = blocks.computeIfAbsent(sequence, name -> new Block(table));
+        if (!block.table.equals(table)) {
+            throw new IllegalStateException("Id sequence " + sequence + " is already used for table " + block.table);
+        }
+    }
+
+    public long next(String sequence) {
+        Block block = blocks.get(sequence);
+        if (block == null) {
+            throw new IllegalStateException("Id sequence " + sequence + " is not registered");
+        }
+        synchronized (block) {
+            if (block.next > block.max) {
+                if (!block.seeded) {
+                    seed(sequence, block.table);
+                    block.seeded = true;
+                }
+                long upper = reserve(sequence);
+                block.next = upper - blockSize + 1;
+                block.max = upper;
+            }
+            return block.next++;
+        }
+    }
+
+    private void seed(String sequence, String table) {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(true);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE IF NOT EXISTS id_sequences (" +
+                        "sequence_name VARCHAR(255) NOT NULL PRIMARY KEY, next_val BIGINT)");
+            }
+            long maxId;
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + table)) {
+                resultSet.next();
+                maxId = resultSet.getLong(1);
+            }
+
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO id_sequences (sequence_name, next_val) VALUES (?, ?)")) {
+                insert.setString(1, sequence);
+                insert.setLong(2, maxId);
+                insert.executeUpdate();
+                log.info("Id sequence {} created after existing id {}", sequence, maxId);
+                return;
+            } catch (SQLException e) {
+                // integrity violation: the row exists already, possibly inserted by another node just now
+                if (e.getSQLState() == null || !e.getSQLState().startsWith("23")) {
+                    throw e;
+                }
+            }
+
+            try (PreparedStatement align = connection.prepareStatement(
+                    "UPDATE id_sequences SET next_val = ? WHERE sequence_name = ? AND next_val < ?")) {
+                align.setLong(1, maxId);
+                align.setString(2, sequence);
+                align.setLong(3, maxId);
+                if (align.executeUpdate() > 0) {
+                    log.info("Id sequence {} aligned past existing id {}", sequence, maxId);
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not seed id sequence " + sequence, e);
+        }
+    }
+
+    // returns the inclusive upper bound of a freshly reserved block
+    private long reserve(String sequence) {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement update = connection.prepareStatement(
+                    "UPDATE id_sequences SET next_val = next_val + ? WHERE sequence_name = ?")) {
+                update.setLong(1, blockSize);
+                update.setString(2, sequence);
+                if (update.executeUpdate() == 0) {
+                    connection.rollback();
+                    throw new IllegalStateException("Id sequence " + sequence + " does not exist");
+                }
+            }
+            long upper;
+            try (PreparedStatement select = connection.prepareStatement(
+                    "SELECT next_val FROM id_sequences WHERE sequence_name = ?")) {
+                select.setString(1, sequence);
+                try (ResultSet resultSet = select.executeQuery()) {
+                    resultSet.next();
+                    upper = resultSet.getLong(1);
+                }
+            }
+            connection.commit();
+            return upper;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not reserve ids for sequence " + sequence, e);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        dataSource.close();
+    }
+
+    private static class Block {
+        private final String table;
+        private boolean seeded;
+        private long next = 1;
+        private long max = 0;
+
+        private Block(String table) {
+            this.table = table;
+        }
+    }
+}
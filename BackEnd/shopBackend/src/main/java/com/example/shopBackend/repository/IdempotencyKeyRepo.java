@@ -0,0 +1,50 @@
+package com.example.shopBackend.repository;
+
+import com.example.shopBackend.entity.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyKeyRepo extends JpaRepository<IdempotencyKey, String> {
+
+    // plain insert so a concurrent duplicate fails on the primary key instead of being merged
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (idempotency_key, fingerprint, created_at, expires_at) " +
+            "VALUES (:key, :fingerprint, :createdAt, :expiresAt)", nativeQuery = true)
+    int insert(@Param("key") String key, @Param("fingerprint") String fingerprint,
+               @Param("createdAt") LocalDateTime createdAt, @Param("expiresAt") LocalDateTime expiresAt);
+
+    // scalar projection, so polling always reads the row instead of a cached entity
+    @Query("SELECT k.fingerprint AS fingerprint, k.responseJson AS responseJson, k.expiresAt AS expiresAt " +
+            "FROM IdempotencyKey k WHERE k.idempotencyKey = :key")
+    Optional<KeyState> findState(@Param("key") String key);
+
+    // the answer is kept for the full ttl, replacing the short in-flight lease
+    @Modifying
+    @Query("UPDATE IdempotencyKey k SET k.responseJson = :responseJson, k.expiresAt = :expiresAt WHERE k.idempotencyKey = :key")
+    int complete(@Param("key") String key, @Param("responseJson") String responseJson,
+                 @Param("expiresAt") LocalDateTime expiresAt);
+
+    // conditional on expiry, so only one of several concurrent claimers can take a stale key over
+    @Modifying
+    @Query("UPDATE IdempotencyKey k SET k.fingerprint = :fingerprint, k.responseJson = NULL, " +
+            "k.createdAt = :now, k.expiresAt = :expiresAt WHERE k.idempotencyKey = :key AND k.expiresAt < :now")
+    int takeOver(@Param("key") String key, @Param("fingerprint") String fingerprint,
+                 @Param("now") LocalDateTime now, @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+
+    interface KeyState {
+        String getFingerprint();
+        String getResponseJson();
+        LocalDateTime getExpiresAt();
+    }
+}
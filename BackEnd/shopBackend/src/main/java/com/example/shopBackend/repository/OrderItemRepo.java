@@ -2,9 +2,102 @@ package com.example.shopBackend.repository;
 
 import com.example.shopBackend.entity.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import com.example.shopBackend.enums.OrderStatus;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.example.shopBackend.enums.UserRole;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
-public interface OrderItemRepo extends JpaRepository <OrderItem,Long>, JpaSpecificationExecutor <OrderItem> {
+public interface OrderItemRepo extends JpaRepository <OrderItem,Long>, JpaSpecificationExecutor <OrderItem>, OrderItemRowQueries {
+
+    // [productId, total quantity ordered] used as a popularity weight
+    @Query("SELECT oi.product.id, SUM(oi.quantity) FROM OrderItem oi WHERE oi.product IS NOT NULL GROUP BY oi.product.id")
+    List<Object[]> sumQuantityByProduct();
+
+    // projection, so the state is read from the row rather than a cached entity
+    @Query("SELECT oi.status AS status, oi.version AS version FROM OrderItem oi WHERE oi.id = :id")
+    Optional<StatusVersion> findStatusVersionById(@Param("id") Long id);
+
+    @Query("SELECT oi.id FROM OrderItem oi WHERE oi.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // only rows whose current status may move to the target are touched, so the count is what actually changed
+    @Modifying
+    @Query("UPDATE OrderItem oi SET oi.status = :status, oi.version = oi.version + 1 " +
+            "WHERE oi.id IN :ids AND oi.status IN :allowedFrom")
+    int updateStatusByIds(@Param("ids") Collection<Long> ids, @Param("status") OrderStatus status,
+                          @Param("allowedFrom") Collection<OrderStatus> allowedFrom);
+
+    // compare-and-set on the version; 0 rows means someone else changed the item first
+    @Modifying
+    @Query("UPDATE OrderItem oi SET oi.status = :status, oi.version = oi.version + 1 " +
+            "WHERE oi.id = :id AND oi.version = :version AND oi.status IN :allowedFrom")
+    int updateStatusIfVersion(@Param("id") Long id, @Param("version") Long version, @Param("status") OrderStatus status,
+                              @Param("allowedFrom") Collection<OrderStatus> allowedFrom);
+
+    // next chunk of ids matching a bulk status filter, in id order
+    @Query("SELECT oi.id FROM OrderItem oi WHERE oi.id > :afterId " +
+            "AND (:currentStatus IS NULL OR oi.status = :currentStatus) " +
+            "AND (:startDate IS NULL OR oi.createdAt >= :startDate) " +
+            "AND (:endDate IS NULL OR oi.createdAt <= :endDate) " +
+            "AND oi.status IN :allowedFrom ORDER BY oi.id")
+    List<Long> findIdsForStatusUpdate(@Param("afterId") Long afterId,
+                                      @Param("currentStatus") OrderStatus currentStatus,
+                                      @Param("startDate") LocalDateTime startDate,
+                                      @Param("endDate") LocalDateTime endDate,
+                                      @Param("allowedFrom") Collection<OrderStatus> allowedFrom,
+                                      Limit limit);
+
+    // [status, count] over all order items, used to seed the status counters
+    @Query("SELECT oi.status, COUNT(oi) FROM OrderItem oi GROUP BY oi.status")
+    List<Object[]> countByStatus();
+
+    // [status, count] of the given items a bulk update is about to move
+    @Query("SELECT oi.status, COUNT(oi) FROM OrderItem oi WHERE oi.id IN :ids AND oi.status IN :allowedFrom GROUP BY oi.status")
+    List<Object[]> countByStatusForIds(@Param("ids") Collection<Long> ids,
+                                       @Param("allowedFrom") Collection<OrderStatus> allowedFrom);
+
+    // listing row built by OrderItemRowQueries, product, user and address columns are null when absent
+    @Value
+    class OrderItemRow {
+        Long id;
+        int quantity;
+        BigDecimal price;
+        OrderStatus status;
+        LocalDateTime createdAt;
+        Long version;
+        Long productId;
+        String productName;
+        String productDescription;
+        BigDecimal productPrice;
+        String productImageUrl;
+        Long userId;
+        String userName;
+        String userEmail;
+        String userPhoneNumber;
+        UserRole userRole;
+        Long addressId;
+        String addressStreet;
+        String addressCity;
+        String addressState;
+        String addressZipCode;
+        String addressCountry;
+    }
+
+    interface StatusVersion {
+        OrderStatus getStatus();
+        Long getVersion();
+    }
 }
@@ -0,0 +1,22 @@
+package com.example.shopBackend.repository;
+
+import com.example.shopBackend.enums.OrderStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// order item listing rows; each filter that is set adds its own condition, unset ones add nothing
+public interface OrderItemRowQueries {
+
+    // order item with its product, user and address in one join, for listing pages
+    Page<OrderItemRepo.OrderItemRow> findRows(OrderStatus status, LocalDateTime startDate, LocalDateTime endDate,
+                                              Long itemId, Long userId, Pageable pageable);
+
+    // keyset variant, newest first; rows strictly after the (createdAt, id) position, no count
+    List<OrderItemRepo.OrderItemRow> findRowsBefore(OrderStatus status, LocalDateTime startDate, LocalDateTime endDate,
+                                                    Long itemId, Long userId,
+                                                    LocalDateTime afterCreatedAt, Long afterId, Limit limit);
+}
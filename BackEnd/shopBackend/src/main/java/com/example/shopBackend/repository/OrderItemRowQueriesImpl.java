@@ -0,0 +1,127 @@
+package com.example.shopBackend.repository;
+
+import com.example.shopBackend.entity.Address;
+import com.example.shopBackend.entity.OrderItem;
+import com.example.shopBackend.entity.Product;
+import com.example.shopBackend.entity.User;
+import com.example.shopBackend.enums.OrderStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Criteria version of the order item listing. A catch-all {@code (:x IS NULL OR ...)} filter compiles
+ * to one plan for every combination, and that plan cannot use the status or user indexes; building the
+ * WHERE clause from the filters actually given lets each combination get its own index range.
+ */
+class OrderItemRowQueriesImpl implements OrderItemRowQueries {
+
+    private final EntityManager entityManager;
+
+    OrderItemRowQueriesImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Page<OrderItemRepo.OrderItemRow> findRows(OrderStatus status, LocalDateTime startDate, LocalDateTime endDate,
+                                                     Long itemId, Long userId, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<OrderItemRepo.OrderItemRow> query = cb.createQuery(OrderItemRepo.OrderItemRow.class);
+        Root<OrderItem> item = query.from(OrderItem.class);
+        selectRow(cb, query, item);
+        query.where(filters(cb, item, status, startDate, endDate, itemId, userId).toArray(Predicate[]::new));
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), item, cb));
+
+        TypedQuery<OrderItemRepo.OrderItemRow> typed = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typed.setFirstResult((int) pageable.getOffset());
+            typed.setMaxResults(pageable.getPageSize());
+        }
+        return PageableExecutionUtils.getPage(typed.getResultList(), pageable,
+                () -> count(status, startDate, endDate, itemId, userId));
+    }
+
+    @Override
+    public List<OrderItemRepo.OrderItemRow> findRowsBefore(OrderStatus status, LocalDateTime startDate, LocalDateTime endDate,
+                                                           Long itemId, Long userId,
+                                                           LocalDateTime afterCreatedAt, Long afterId, Limit limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<OrderItemRepo.OrderItemRow> query = cb.createQuery(OrderItemRepo.OrderItemRow.class);
+        Root<OrderItem> item = query.from(OrderItem.class);
+        selectRow(cb, query, item);
+
+        List<Predicate> predicates = filters(cb, item, status, startDate, endDate, itemId, userId);
+        if (afterCreatedAt != null && afterId != null) {
+            predicates.add(cb.or(cb.lessThan(item.get("createdAt"), afterCreatedAt),
+                    cb.and(cb.equal(item.get("createdAt"), afterCreatedAt), cb.lessThan(item.get("id"), afterId))));
+        }
+        query.where(predicates.toArray(Predicate[]::new));
+        query.orderBy(cb.desc(item.get("createdAt")), cb.desc(item.get("id")));
+
+        TypedQuery<OrderItemRepo.OrderItemRow> typed = entityManager.createQuery(query);
+        if (limit.isLimited()) {
+            typed.setMaxResults(limit.max());
+        }
+        return typed.getResultList();
+    }
+
+    private long count(OrderStatus status, LocalDateTime startDate, LocalDateTime endDate, Long itemId, Long userId) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<OrderItem> item = query.from(OrderItem.class);
+        query.select(cb.count(item));
+        query.where(filters(cb, item, status, startDate, endDate, itemId, userId).toArray(Predicate[]::new));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private static void selectRow(CriteriaBuilder cb, CriteriaQuery<OrderItemRepo.OrderItemRow> query, Root<OrderItem> item) {
+        Join<OrderItem, Product> product = item.join("product", JoinType.LEFT);
+        Join<OrderItem, User> user = item.join("user", JoinType.LEFT);
+        Join<User, Address> address = user.join("address", JoinType.LEFT);
+        query.select(cb.construct(OrderItemRepo.OrderItemRow.class,
+                item.get("id"), item.get("quantity"), item.get("price"), item.get("status"),
+                item.get("createdAt"), item.get("version"),
+                product.get("id"), product.get("name"), product.get("description"),
+                product.get("price"), product.get("imageUrl"),
+                user.get("id"), user.get("name"), user.get("email"), user.get("phoneNumber"), user.get("role"),
+                address.get("id"), address.get("street"), address.get("city"), address.get("state"),
+                address.get("zipCode"), address.get("country")));
+    }
+
+    // only the filters that are set become conditions
+    private static List<Predicate> filters(CriteriaBuilder cb, From<?, OrderItem> item, OrderStatus status,
+                                           LocalDateTime startDate, LocalDateTime endDate, Long itemId, Long userId) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (status != null) {
+            predicates.add(cb.equal(item.get("status"), status));
+        }
+        if (startDate != null) {
+            predicates.add(cb.greaterThanOrEqualTo(item.get("createdAt"), startDate));
+        }
+        if (endDate != null) {
+            predicates.add(cb.lessThanOrEqualTo(item.get("createdAt"), endDate));
+        }
+        if (itemId != null) {
+            predicates.add(cb.equal(item.get("id"), itemId));
+        }
+        if (userId != null) {
+            predicates.add(cb.equal(item.get("user").get("id"), userId));
+        }
+        return predicates;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.shopBackend.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class PersistenceConfig {
+
+    // orders and order items use pooled table ids, so their inserts can be JDBC batched
+    @Bean
+    public HibernatePropertiesCustomizer jdbcBatchingCustomizer(@Value("${persistence.jdbc-batch-size:50}") int batchSize) {
+        return properties -> {
+            properties.putIfAbsent("hibernate.jdbc.batch_size", batchSize);
+            properties.putIfAbsent("hibernate.order_inserts", true);
+            properties.putIfAbsent("hibernate.order_updates", true);
+        };
+    }
+}
@@ -1,13 +1,50 @@
 package com.example.shopBackend.repository;
 
 import com.example.shopBackend.entity.Product;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
-public interface ProductRepo extends JpaRepository<Product,Long> {
+public interface ProductRepo extends JpaRepository<Product,Long>, JpaSpecificationExecutor<Product> {
     List<Product> findByCategoryId(Long categoryId);
     List<Product> findByNameContainingOrDescriptionContaining(String name, String description);
+
+    // keyset pagination: WHERE id < :cursor ORDER BY id DESC LIMIT n, no count query
+    List<Product> findAllByOrderByIdDesc(Limit limit);
+    List<Product> findByIdLessThanOrderByIdDesc(Long cursor, Limit limit);
+    List<Product> findByCategoryIdOrderByIdDesc(Long categoryId, Limit limit);
+    List<Product> findByCategoryIdAndIdLessThanOrderByIdDesc(Long categoryId, Long cursor, Limit limit);
+
+    // [categoryId, product count]
+    @Query("SELECT p.category.id, COUNT(p) FROM Product p WHERE p.category IS NOT NULL GROUP BY p.category.id")
+    List<Object[]> countProductsByCategory();
+
+    List<Product> findByFlashSaleTrue();
+
+    @Query("SELECT p.stock FROM Product p WHERE p.id = :productId")
+    Integer findStockById(@Param("productId") Long productId);
+
+    // conditional so a concurrent writer elsewhere can never push stock below zero
+    @Modifying
+    @Query("UPDATE Product p SET p.stock = p.stock - :quantity WHERE p.id = :productId AND p.stock >= :quantity")
+    int decrementStock(@Param("productId") Long productId, @Param("quantity") int quantity);
+
+    @Modifying
+    @Query("UPDATE Product p SET p.stock = p.stock + :quantity WHERE p.id = :productId AND p.stock IS NOT NULL")
+    int incrementStock(@Param("productId") Long productId, @Param("quantity") int quantity);
+
+    // holds the row until commit, so no write-behind decrement can land between read and overwrite
+    @Query(value = "SELECT stock FROM products WHERE id = :productId FOR UPDATE", nativeQuery = true)
+    Integer findStockForUpdate(@Param("productId") Long productId);
+
+    @Modifying
+    @Query("UPDATE Product p SET p.stock = :stock WHERE p.id = :productId")
+    int setStock(@Param("productId") Long productId, @Param("stock") Integer stock);
 }
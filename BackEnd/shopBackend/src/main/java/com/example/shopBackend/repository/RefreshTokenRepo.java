@@ -0,0 +1,56 @@
+package com.example.shopBackend.repository;
+
+import com.example.shopBackend.entity.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RefreshTokenRepo extends JpaRepository<RefreshToken, Long> {
+
+    // scalar projection with the owner's email, so a refresh needs a single read
+    @Query("SELECT r.id AS id, r.sessionId AS sessionId, r.expiresAt AS expiresAt, r.usedAt AS usedAt, " +
+            "r.revokedAt AS revokedAt, u.id AS userId, u.email AS email " +
+            "FROM RefreshToken r JOIN r.user u WHERE r.tokenHash = :tokenHash")
+    Optional<TokenState> findStateByTokenHash(@Param("tokenHash") String tokenHash);
+
+    // 0 rows means the token was already exchanged or revoked concurrently
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.usedAt = :now WHERE r.id = :id AND r.usedAt IS NULL AND r.revokedAt IS NULL")
+    int markUsed(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.revokedAt = :now WHERE r.sessionId = :sessionId AND r.revokedAt IS NULL")
+    int revokeSession(@Param("sessionId") String sessionId, @Param("now") LocalDateTime now);
+
+    @Query("SELECT DISTINCT r.sessionId FROM RefreshToken r WHERE r.user.id = :userId AND r.revokedAt IS NULL")
+    List<String> findOpenSessionIds(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.revokedAt = :now WHERE r.user.id = :userId AND r.revokedAt IS NULL")
+    int revokeUser(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    // sessions whose access tokens may still be unexpired
+    @Query("SELECT DISTINCT r.sessionId FROM RefreshToken r WHERE r.revokedAt >= :since")
+    List<String> findSessionIdsRevokedSince(@Param("since") LocalDateTime since);
+
+    @Modifying
+    @Query("DELETE FROM RefreshToken r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+
+    interface TokenState {
+        Long getId();
+        String getSessionId();
+        LocalDateTime getExpiresAt();
+        LocalDateTime getUsedAt();
+        LocalDateTime getRevokedAt();
+        Long getUserId();
+        String getEmail();
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.shopBackend.search;
+
+import com.example.shopBackend.cache.CatalogVersion;
+import com.example.shopBackend.dto.ProductDto;
+import com.example.shopBackend.entity.Product;
+import com.example.shopBackend.event.ProductChangedEvent;
+import com.example.shopBackend.mapper.EntityDtoMapper;
+import com.example.shopBackend.repository.ProductRepo;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Columnar snapshot of the catalog used for faceted browsing. Products are kept sorted
+ * by id in parallel primitive arrays (id, category ordinal, price in cents, price
+ * bucket), so a browse request is a single scan that filters, pages and counts facets
+ * without touching the database.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ProductFacetIndex {
+    @Autowired
+    private final ProductRepo productRepo;
+    @Autowired
+    private final EntityDtoMapper entityDtoMapper;
+
+    // lower bound of each price bucket in cents; the last bucket is open ended
+    public static final long[] PRICE_BUCKET_FLOORS = {0, 1_000, 2_500, 5_000, 10_000, 25_000};
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> categoryOrdinals = new HashMap<>();
+    private long[] categoryIdsByOrdinal = new long[16];
+
+    private long[] ids = new long[0];
+    private int[] categories = new int[0];
+    private long[] pricesInCents = new long[0];
+    private byte[] buckets = new byte[0];
+    private ProductDto[] products = new ProductDto[0];
+    private int size;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndex() {
+        List<Product> all = productRepo.findAll();
+        all.sort((a, b) -> Long.compare(a.getId(), b.getId()));
+        lock.writeLock().lock();
+        try {
+            ensureCapacity(all.size());
+            size = 0;
+            for (Product product : all) {
+                setRow(size++, product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Product facet index built with {} products", all.size());
+    }
+
+    @Order(CatalogVersion.READ_MODEL_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            int row = Arrays.binarySearch(ids, 0, size, event.getProductId());
+            if (event.isDeleted()) {
+                if (row >= 0) removeRow(row);
+            } else if (row >= 0) {
+                setRow(row, event.getProduct());
+            } else {
+                insertRow(-row - 1, event.getProduct());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Scans newest first. Category counts honour the price filter and bucket counts honour
+     * the category filter, so each facet shows what selecting one of its values would yield.
+     */
+    public BrowseResult browse(Long categoryId, Long minCents, Long maxCents, Long cursor, int limit) {
+        lock.readLock().lock();
+        try {
+            Integer wantedOrdinal = categoryId == null ? null : categoryOrdinals.get(categoryId);
+            int[] categoryCounts = new int[categoryOrdinals.size()];
+            long[] bucketCounts = new long[PRICE_BUCKET_FLOORS.length];
+            List<ProductDto> page = new ArrayList<>(limit + 1);
+
+            for (int i = size - 1; i >= 0; i--) {
+                boolean categoryMatch = categoryId == null || (wantedOrdinal != null && categories[i] == wantedOrdinal);
+                long price = pricesInCents[i];
+                boolean priceMatch = (minCents == null || price >= minCents) && (maxCents == null || price <= maxCents);
+
+                if (priceMatch && categories[i] >= 0) categoryCounts[categories[i]]++;
+                if (categoryMatch) bucketCounts[buckets[i]]++;
+                if (categoryMatch && priceMatch && page.size() <= limit && (cursor == null || ids[i] < cursor)) {
+                    page.add(products[i]);
+                }
+            }
+
+            Map<Long, Long> categoryFacets = new LinkedHashMap<>();
+            for (int ordinal = 0; ordinal < categoryCounts.length; ordinal++) {
+                if (categoryCounts[ordinal] > 0) {
+                    categoryFacets.put(categoryIdsByOrdinal[ordinal], (long) categoryCounts[ordinal]);
+                }
+            }
+            boolean hasNext = page.size() > limit;
+            List<ProductDto> content = hasNext ? page.subList(0, limit) : page;
+            Long nextCursor = hasNext ? content.get(content.size() - 1).getId() : null;
+            return new BrowseResult(content, nextCursor, categoryFacets, bucketCounts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static long toCents(BigDecimal price) {
+        return price == null ? 0 : price.movePointRight(2).longValue();
+    }
+
+    private void setRow(int row, Product product) {
+        ids[row] = product.getId();
+        categories[row] = ordinalOf(product.getCategory() == null ? null : product.getCategory().getId());
+        pricesInCents[row] = toCents(product.getPrice());
+        buckets[row] = bucketOf(pricesInCents[row]);
+        products[row] = entityDtoMapper.mapProductToDtoBasic(product);
+    }
+
+    private void insertRow(int row, Product product) {
+        ensureCapacity(size + 1);
+        int moved = size - row;
+        System.arraycopy(ids, row, ids, row + 1, moved);
+        System.arraycopy(categories, row, categories, row + 1, moved);
+        System.arraycopy(pricesInCents, row, pricesInCents, row + 1, moved);
+        System.arraycopy(buckets, row, buckets, row + 1, moved);
+        System.arraycopy(products, row, products, row + 1, moved);
+        size++;
+        setRow(row, product);
+    }
+
+    private void removeRow(int row) {
+        int moved = size - row - 1;
+        System.arraycopy(ids, row + 1, ids, row, moved);
+        System.arraycopy(categories, row + 1, categories, row, moved);
+        System.arraycopy(pricesInCents, row + 1, pricesInCents, row, moved);
+        System.arraycopy(buckets, row + 1, buckets, row, moved);
+        System.arraycopy(products, row + 1, products, row, moved);
+        products[--size] = null;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= ids.length) {
+            return;
+        }
+        int capacity = Math.max(required, Math.max(16, ids.length * 3 / 2));
+        ids = Arrays.copyOf(ids, capacity);
+        categories = Arrays.copyOf(categories, capacity);
+        pricesInCents = Arrays.copyOf(pricesInCents, capacity);
+        buckets = Arrays.copyOf(buckets, capacity);
+        products = Arrays.copyOf(products, capacity);
+    }
+
+    private int ordinalOf(Long categoryId) {
+        if (categoryId == null) {
+            return -1;
+        }
+        return categoryOrdinals.computeIfAbsent(categoryId, id -> {
+            int ordinal = categoryOrdinals.size();
+            if (ordinal == categoryIdsByOrdinal.length) {
+                categoryIdsByOrdinal = Arrays.copyOf(categoryIdsByOrdinal, ordinal * 2);
+            }
+            categoryIdsByOrdinal[ordinal] = id;
+            return ordinal;
+        });
+    }
+
+    private static byte bucketOf(long cents) {
+        byte bucket = 0;
+        while (bucket + 1 < PRICE_BUCKET_FLOORS.length && cents >= PRICE_BUCKET_FLOORS[bucket + 1]) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class BrowseResult {
+        private final List<ProductDto> products;
+        private final Long nextCursor;
+        private final Map<Long, Long> categoryCounts;
+        private final long[] priceBucketCounts;
+    }
+}
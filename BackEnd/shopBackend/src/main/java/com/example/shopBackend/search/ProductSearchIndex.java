@@ -0,0 +1,239 @@
+package com.example.shopBackend.search;
+
+import com.example.shopBackend.cache.CatalogVersion;
+import com.example.shopBackend.dto.ProductDto;
+import com.example.shopBackend.entity.Product;
+import com.example.shopBackend.event.ProductChangedEvent;
+import com.example.shopBackend.mapper.EntityDtoMapper;
+import com.example.shopBackend.repository.ProductRepo;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process inverted index over product name and description, ranked with BM25.
+ * Built once at startup and patched from {@link ProductChangedEvent}s, so searches
+ * never touch the database.
+ *
+ * <p>The full build reads the catalog without holding the lock, into a structure of its
+ * own. Changes that arrive meanwhile patch the live structure as usual and are also
+ * recorded, then replayed onto the new structure when it is swapped in, so a product
+ * edited during startup is never overwritten by the older row the build read.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ProductSearchIndex {
+    @Autowired
+    private final ProductRepo productRepo;
+    @Autowired
+    private final EntityDtoMapper entityDtoMapper;
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int NAME_BOOST = 3; // a name hit counts as three description hits
+    private static final int MAX_PREFIX_EXPANSIONS = 50;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // guarded by lock
+    private Index index = new Index();
+    // changes seen while a build is reading the catalog, null when no build runs; guarded by lock
+    private List<ProductChangedEvent> changesDuringBuild;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndex() {
+        lock.writeLock().lock();
+        try {
+            changesDuringBuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Index fresh = new Index();
+        int count;
+        try {
+            List<Product> products = productRepo.findAll();
+            products.forEach(fresh::add);
+            count = products.size();
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                changesDuringBuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            // in arrival order, so the last change to a product wins as it did on the live index
+            changesDuringBuild.forEach(fresh::apply);
+            changesDuringBuild = null;
+            index = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Product search index built with {} products", count);
+    }
+
+    @Order(CatalogVersion.READ_MODEL_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            index.apply(event);
+            if (changesDuringBuild != null) {
+                changesDuringBuild.add(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns one page of products ranked by BM25. The last query token is also matched
+     * as a prefix so results keep up with search-as-you-type input.
+     */
+    public SearchPage search(String query, int page, int size) {
+        List<String> terms = Tokenizer.tokenize(query);
+        if (terms.isEmpty()) {
+            return new SearchPage(List.of(), 0);
+        }
+
+        lock.readLock().lock();
+        try {
+            TreeMap<String, Map<Long, Integer>> postings = index.postings;
+            int docCount = index.documents.size();
+            if (docCount == 0) {
+                return new SearchPage(List.of(), 0);
+            }
+            double avgLength = (double) index.totalLength / docCount;
+            Map<Long, Double> scores = new HashMap<>();
+
+            for (int i = 0; i < terms.size(); i++) {
+                String term = terms.get(i);
+                if (i == terms.size() - 1) {
+                    int expansions = 0;
+                    for (Map<Long, Integer> posting : postings.subMap(term, true, term + Character.MAX_VALUE, true).values()) {
+                        scoreTerm(posting, docCount, avgLength, scores);
+                        if (++expansions >= MAX_PREFIX_EXPANSIONS) break;
+                    }
+                } else {
+                    Map<Long, Integer> posting = postings.get(term);
+                    if (posting != null) {
+                        scoreTerm(posting, docCount, avgLength, scores);
+                    }
+                }
+            }
+
+            List<ProductDto> products = topK(scores, page, size);
+            return new SearchPage(products, scores.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void scoreTerm(Map<Long, Integer> posting, int docCount, double avgLength, Map<Long, Double> scores) {
+        double idf = Math.log(1 + (docCount - posting.size() + 0.5) / (posting.size() + 0.5));
+        for (Map.Entry<Long, Integer> entry : posting.entrySet()) {
+            int tf = entry.getValue();
+            int length = index.documents.get(entry.getKey()).length;
+            double score = idf * tf * (K1 + 1) / (tf + K1 * (1 - B + B * length / avgLength));
+            scores.merge(entry.getKey(), score, Double::sum);
+        }
+    }
+
+    private List<ProductDto> topK(Map<Long, Double> scores, int page, int size) {
+        int k = (page + 1) * size;
+        Comparator<Map.Entry<Long, Double>> byRank = Map.Entry.<Long, Double>comparingByValue()
+                .thenComparing(Map.Entry.comparingByKey());
+        PriorityQueue<Map.Entry<Long, Double>> heap = new PriorityQueue<>(byRank);
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            heap.offer(entry);
+            if (heap.size() > k) heap.poll();
+        }
+
+        List<Map.Entry<Long, Double>> ranked = new ArrayList<>(heap);
+        ranked.sort(byRank.reversed());
+
+        List<ProductDto> result = new ArrayList<>();
+        for (int i = page * size; i < ranked.size(); i++) {
+            result.add(index.documents.get(ranked.get(i).getKey()).product);
+        }
+        return result;
+    }
+
+    private class Index {
+        private final TreeMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+        private final Map<Long, IndexedProduct> documents = new HashMap<>();
+        private long totalLength;
+
+        void apply(ProductChangedEvent event) {
+            remove(event.getProductId());
+            if (!event.isDeleted()) {
+                add(event.getProduct());
+            }
+        }
+
+        void add(Product product) {
+            Map<String, Integer> termFreqs = new HashMap<>();
+            for (String token : Tokenizer.tokenize(product.getName())) {
+                termFreqs.merge(token, NAME_BOOST, Integer::sum);
+            }
+            for (String token : Tokenizer.tokenize(product.getDescription())) {
+                termFreqs.merge(token, 1, Integer::sum);
+            }
+            int length = termFreqs.values().stream().mapToInt(Integer::intValue).sum();
+
+            termFreqs.forEach((term, tf) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(product.getId(), tf));
+            documents.put(product.getId(), new IndexedProduct(entityDtoMapper.mapProductToDtoBasic(product), termFreqs, length));
+            totalLength += length;
+        }
+
+        void remove(Long productId) {
+            IndexedProduct existing = documents.remove(productId);
+            if (existing == null) {
+                return;
+            }
+            for (String term : existing.termFreqs.keySet()) {
+                Map<Long, Integer> posting = postings.get(term);
+                if (posting != null) {
+                    posting.remove(productId);
+                    if (posting.isEmpty()) postings.remove(term);
+                }
+            }
+            totalLength -= existing.length;
+        }
+    }
+
+    @AllArgsConstructor
+    private static class IndexedProduct {
+        private final ProductDto product;
+        private final Map<String, Integer> termFreqs;
+        private final int length;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class SearchPage {
+        private final List<ProductDto> products;
+        private final long totalElements;
+    }
+}
@@ -0,0 +1,230 @@
+package com.example.shopBackend.search;
+
+import com.example.shopBackend.cache.CatalogVersion;
+import com.example.shopBackend.dto.ProductDto;
+import com.example.shopBackend.entity.Product;
+import com.example.shopBackend.event.ProductChangedEvent;
+import com.example.shopBackend.repository.OrderItemRepo;
+import com.example.shopBackend.repository.ProductRepo;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Prefix autocomplete over product names. Every trie node stores its top-N entries by
+ * popularity (units ordered), so a lookup is a walk down the prefix. The trie is
+ * immutable: product events only record the change and mark the index dirty, a single
+ * background thread rebuilds the trie and swaps the volatile reference. Events arriving
+ * while a rebuild is pending are folded into it, so a burst of N changes costs one
+ * rebuild rather than N. Readers never block.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ProductSuggestIndex {
+    @Autowired
+    private final ProductRepo productRepo;
+    @Autowired
+    private final OrderItemRepo orderItemRepo;
+    @Autowired
+    private final CatalogVersion catalogVersion;
+
+    public static final int MAX_SUGGESTIONS = 20;
+    private static final int MAX_KEY_LENGTH = 40;
+    // short enough to feel immediate, long enough to fold a category delete into one rebuild
+    private static final long REBUILD_DELAY_MILLIS = 100;
+
+    // writer-side state, guarded by "this"
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Map<Long, Long> popularity = new HashMap<>();
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    private final AtomicLong rebuilds = new AtomicLong();
+    private final ScheduledExecutorService rebuilder = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "product-suggest-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void buildIndex() {
+        popularity.clear();
+        for (Object[] row : orderItemRepo.sumQuantityByProduct()) {
+            popularity.put((Long) row[0], ((Number) row[1]).longValue());
+        }
+        entries.clear();
+        for (Product product : productRepo.findAll()) {
+            entries.put(product.getId(), toEntry(product));
+        }
+        snapshot = Snapshot.build(entries.values());
+        catalogVersion.bump();
+        log.info("Product suggest index built with {} products", entries.size());
+    }
+
+    @PreDestroy
+    void stop() {
+        rebuilder.shutdownNow();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        synchronized (this) {
+            if (event.isDeleted()) {
+                entries.remove(event.getProductId());
+            } else {
+                entries.put(event.getProductId(), toEntry(event.getProduct()));
+            }
+        }
+        if (rebuildPending.compareAndSet(false, true)) {
+            rebuilder.schedule(this::rebuild, REBUILD_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void rebuild() {
+        // cleared before copying: a change made after the copy schedules the next rebuild
+        rebuildPending.set(false);
+        List<Entry> current;
+        synchronized (this) {
+            current = new ArrayList<>(entries.values());
+        }
+        try {
+            snapshot = Snapshot.build(current);
+            rebuilds.incrementAndGet();
+            // the event already bumped the version, but before this trie was readable
+            catalogVersion.bump();
+        } catch (RuntimeException e) {
+            log.warn("Could not rebuild the product suggest index: {}", e.getMessage());
+        }
+    }
+
+    /** Number of background rebuilds since startup. */
+    long rebuildCount() {
+        return rebuilds.get();
+    }
+
+    public List<ProductDto> suggest(String prefix, int limit) {
+        return snapshot.lookup(prefix.toLowerCase(Locale.ROOT), Math.min(limit, MAX_SUGGESTIONS));
+    }
+
+    private Entry toEntry(Product product) {
+        ProductDto dto = new ProductDto();
+        dto.setId(product.getId());
+        dto.setName(product.getName());
+        return new Entry(dto, popularity.getOrDefault(product.getId(), 0L));
+    }
+
+    @AllArgsConstructor
+    private static class Entry {
+        private final ProductDto product;
+        private final long weight;
+    }
+
+    private static final class Node {
+        private final char[] labels;
+        private final Node[] children;
+        private final ProductDto[] top;
+
+        private Node(char[] labels, Node[] children, ProductDto[] top) {
+            this.labels = labels;
+            this.children = children;
+            this.top = top;
+        }
+    }
+
+    private static final class Snapshot {
+        private static final Snapshot EMPTY = new Snapshot(new Node(new char[0], new Node[0], new ProductDto[0]));
+
+        private final Node root;
+
+        private Snapshot(Node root) {
+            this.root = root;
+        }
+
+        List<ProductDto> lookup(String prefix, int limit) {
+            Node node = root;
+            for (int i = 0; i < prefix.length() && node != null; i++) {
+                int idx = Arrays.binarySearch(node.labels, prefix.charAt(i));
+                node = idx < 0 ? null : node.children[idx];
+            }
+            if (node == null) {
+                return List.of();
+            }
+            return List.of(node.top).subList(0, Math.min(limit, node.top.length));
+        }
+
+        /**
+         * Entries are inserted heaviest first, so the first MAX_SUGGESTIONS entries to
+         * reach a node are its top list. Each word start in the name is a key, so
+         * "chair" also completes "Office Chair".
+         */
+        static Snapshot build(Iterable<Entry> source) {
+            List<Entry> sorted = new ArrayList<>();
+            source.forEach(sorted::add);
+            sorted.sort(Comparator.<Entry>comparingLong(e -> e.weight).reversed()
+                    .thenComparing(e -> e.product.getId(), Comparator.reverseOrder()));
+
+            BuilderNode root = new BuilderNode();
+            for (Entry entry : sorted) {
+                String name = entry.product.getName() == null ? "" : entry.product.getName().toLowerCase(Locale.ROOT);
+                for (int start = 0; start < name.length(); start++) {
+                    if (start == 0 || (!Character.isLetterOrDigit(name.charAt(start - 1)) && Character.isLetterOrDigit(name.charAt(start)))) {
+                        root.insert(name, start, Math.min(name.length(), start + MAX_KEY_LENGTH), entry.product);
+                    }
+                }
+            }
+            return new Snapshot(root.freeze());
+        }
+    }
+
+    private static final class BuilderNode {
+        private final TreeMap<Character, BuilderNode> children = new TreeMap<>();
+        private final List<ProductDto> top = new ArrayList<>();
+
+        void insert(String key, int from, int to, ProductDto product) {
+            BuilderNode node = this;
+            node.offer(product);
+            for (int i = from; i < to; i++) {
+                node = node.children.computeIfAbsent(key.charAt(i), c -> new BuilderNode());
+                node.offer(product);
+            }
+        }
+
+        private void offer(ProductDto product) {
+            if (top.size() < MAX_SUGGESTIONS && !top.contains(product)) {
+                top.add(product);
+            }
+        }
+
+        Node freeze() {
+            char[] labels = new char[children.size()];
+            Node[] frozen = new Node[children.size()];
+            int i = 0;
+            for (Map.Entry<Character, BuilderNode> child : children.entrySet()) {
+                labels[i] = child.getKey();
+                frozen[i++] = child.getValue().freeze();
+            }
+            return new Node(labels, frozen, top.toArray(new ProductDto[0]));
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.example.shopBackend.search;
+
+import com.example.shopBackend.cache.CatalogVersion;
+import com.example.shopBackend.dto.ProductDto;
+import com.example.shopBackend.entity.Product;
+import com.example.shopBackend.event.ProductChangedEvent;
+import com.example.shopBackend.mapper.EntityDtoMapper;
+import com.example.shopBackend.repository.ProductRepo;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Typo-tolerant trigram index over product names. Products are numbered densely and
+ * posting lists are plain int arrays; renamed or deleted products are tombstoned and
+ * the index compacts itself once tombstones outnumber live entries.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ProductTrigramIndex {
+    @Autowired
+    private final ProductRepo productRepo;
+    @Autowired
+    private final EntityDtoMapper entityDtoMapper;
+
+    private static final double MIN_SIMILARITY = 0.3;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Map<String, IntPostingList> postings = new HashMap<>();
+    private Map<Long, Integer> docByProductId = new HashMap<>();
+    private ProductDto[] products = new ProductDto[INITIAL_CAPACITY];
+    private int[] gramCounts = new int[INITIAL_CAPACITY];
+    private BitSet alive = new BitSet();
+    private int docCount;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndex() {
+        List<Product> all = productRepo.findAll();
+        lock.writeLock().lock();
+        try {
+            reset();
+            all.forEach(product -> addDocument(entityDtoMapper.mapProductToDtoBasic(product)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Product trigram index built with {} products", all.size());
+    }
+
+    @Order(CatalogVersion.READ_MODEL_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            Integer existing = docByProductId.remove(event.getProductId());
+            if (existing != null) {
+                alive.clear(existing);
+            }
+            if (!event.isDeleted()) {
+                addDocument(entityDtoMapper.mapProductToDtoBasic(event.getProduct()));
+            }
+            if (docCount > INITIAL_CAPACITY && alive.cardinality() * 2 < docCount) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ranks products whose names share enough trigrams with the query. The score is the
+     * fraction of query trigrams found in the name, with Dice similarity as tie-breaker.
+     */
+    public FuzzyPage search(String query, int page, int size) {
+        Set<String> queryGrams = trigrams(query);
+        if (queryGrams.isEmpty()) {
+            return new FuzzyPage(List.of(), 0, null);
+        }
+
+        lock.readLock().lock();
+        try {
+            // posting lists are in ascending doc order, so merging them one by one into a sorted
+            // (doc, count) run yields each candidate's shared-trigram count; nothing is sized to
+            // the catalog, only to the candidates the query reaches
+            DocCounts merged = new DocCounts(0);
+            for (String gram : queryGrams) {
+                IntPostingList posting = postings.get(gram);
+                if (posting != null) merged = merged.merge(posting);
+            }
+
+            int k = (page + 1) * size;
+            PriorityQueue<ScoredDoc> heap = new PriorityQueue<>();
+            int matches = 0;
+            for (int i = 0; i < merged.size; i++) {
+                int doc = merged.docs[i];
+                if (!alive.get(doc)) continue;
+                int common = merged.counts[i];
+                double containment = (double) common / queryGrams.size();
+                if (containment < MIN_SIMILARITY) continue;
+                double dice = 2.0 * common / (queryGrams.size() + gramCounts[doc]);
+                matches++;
+                heap.offer(new ScoredDoc(doc, containment + dice / 10));
+                if (heap.size() > k) heap.poll();
+            }
+
+            List<ScoredDoc> ranked = new ArrayList<>(heap);
+            ranked.sort((a, b) -> Double.compare(b.score, a.score));
+            List<ProductDto> result = new ArrayList<>();
+            for (int i = page * size; i < ranked.size(); i++) {
+                result.add(products[ranked.get(i).doc]);
+            }
+            String suggestion = ranked.isEmpty() ? null : products[ranked.get(0).doc].getName();
+            return new FuzzyPage(result, matches, suggestion);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addDocument(ProductDto product) {
+        if (docCount == products.length) {
+            products = Arrays.copyOf(products, docCount * 2);
+            gramCounts = Arrays.copyOf(gramCounts, docCount * 2);
+        }
+        int doc = docCount++;
+        Set<String> grams = trigrams(product.getName());
+        for (String gram : grams) {
+            postings.computeIfAbsent(gram, g -> new IntPostingList()).add(doc);
+        }
+        products[doc] = product;
+        gramCounts[doc] = grams.size();
+        alive.set(doc);
+        docByProductId.put(product.getId(), doc);
+    }
+
+    private void compact() {
+        List<ProductDto> live = new ArrayList<>();
+        for (int doc = alive.nextSetBit(0); doc >= 0; doc = alive.nextSetBit(doc + 1)) {
+            live.add(products[doc]);
+        }
+        reset();
+        live.forEach(this::addDocument);
+    }
+
+    private void reset() {
+        postings = new HashMap<>();
+        docByProductId = new HashMap<>();
+        products = new ProductDto[INITIAL_CAPACITY];
+        gramCounts = new int[INITIAL_CAPACITY];
+        alive = new BitSet();
+        docCount = 0;
+    }
+
+    // each word is padded so that word starts and short words still produce trigrams
+    static Set<String> trigrams(String text) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (String token : Tokenizer.tokenize(text)) {
+            String padded = "  " + token + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                grams.add(padded.substring(i, i + 3));
+            }
+        }
+        return grams;
+    }
+
+    private static class IntPostingList {
+        private int[] docs = new int[4];
+        private int size;
+
+        void add(int doc) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            docs[size++] = doc;
+        }
+    }
+
+    private static class DocCounts {
+        private final int[] docs;
+        private final int[] counts;
+        private int size;
+
+        DocCounts(int capacity) {
+            docs = new int[capacity];
+            counts = new int[capacity];
+        }
+
+        DocCounts merge(IntPostingList posting) {
+            DocCounts out = new DocCounts(size + posting.size);
+            int i = 0, j = 0;
+            while (i < size || j < posting.size) {
+                int doc;
+                int count = 0;
+                if (j == posting.size || (i < size && docs[i] < posting.docs[j])) {
+                    doc = docs[i];
+                    count = counts[i++];
+                } else {
+                    doc = posting.docs[j++];
+                    count = 1;
+                    if (i < size && docs[i] == doc) count += counts[i++];
+                }
+                out.docs[out.size] = doc;
+                out.counts[out.size++] = count;
+            }
+            return out;
+        }
+    }
+
+    @AllArgsConstructor
+    private static class ScoredDoc implements Comparable<ScoredDoc> {
+        private final int doc;
+        private final double score;
+
+        @Override
+        public int compareTo(ScoredDoc other) {
+            return Double.compare(score, other.score);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class FuzzyPage {
+        private final List<ProductDto> products;
+        private final long totalElements;
+        private final String suggestion;
+    }
+}
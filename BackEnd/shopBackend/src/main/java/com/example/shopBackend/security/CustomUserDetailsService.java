@@ -1,7 +1,6 @@
 package com.example.shopBackend.security;
 import com.example.shopBackend.exceptions.NotFoundException;
 import com.example.shopBackend.entity.User;
-import com.example.shopBackend.repository.UserRepo;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -13,12 +12,14 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class CustomUserDetailsService implements UserDetailsService {
     @Autowired
-    private  UserRepo userRepo;
+    private  PrincipalCache principalCache;
     @Override
     public  UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
 
-        User user = userRepo.findByEmail(username)
-                .orElseThrow(()-> new NotFoundException("User/ Email Not found"));
+        User user = principalCache.load(username);
+        if (user == null) {
+            throw new NotFoundException("User/ Email Not found");
+        }
 
         return AuthUser.builder()
                 .user(user)
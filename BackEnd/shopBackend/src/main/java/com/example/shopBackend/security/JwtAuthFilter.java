@@ -24,6 +24,8 @@ public class JwtAuthFilter   extends OncePerRequestFilter {
     private final JwtUtils jwtUtils;
     @Autowired
     private final  CustomUserDetailsService customUserDetailsService;
+    @Autowired
+    private final RevocationList revocationList;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
@@ -31,12 +33,15 @@ public class JwtAuthFilter   extends OncePerRequestFilter {
         String token = getTokenFromRequest(request);
 
         if (token != null){
-            String username = jwtUtils.getUsernameFromToken(token);
-
-            UserDetails userDetails = customUserDetailsService.loadUserByUsername(username);
+            // one signature check per token, later requests are answered from the verified cache
+            JwtUtils.VerifiedToken verified = jwtUtils.verify(token);
 
-            if (StringUtils.hasText(username) && jwtUtils.isTokenValid(token, userDetails)){
-                log.info("VALID JWT FOR {}", username);
+            // revoked sessions are an in-memory lookup, no database round trip
+            if (verified != null && StringUtils.hasText(verified.getSubject())
+                    && !revocationList.isRevoked(verified.getSessionId())){
+                String username = verified.getSubject();
+                UserDetails userDetails = customUserDetailsService.loadUserByUsername(username);
+                log.debug("Valid JWT for {}", username);
 
                 UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities()
@@ -1,9 +1,14 @@
 package com.example.shopBackend.security;
 
-import com.example.shopBackend.entity.User;
+import com.example.shopBackend.cache.BoundedTtlCache;
+import com.example.shopBackend.cache.EvictionPolicy;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -12,53 +17,120 @@ import org.springframework.stereotype.Service;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
-import java.util.function.Function;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @Slf4j
 public class JwtUtils {
-    private static final long EXPIRATION_TIME_IN_MILLISEC = 1000L * 60L *60L *24L * 30L * 6L; //expirers 6 months
+    private static final String SESSION_CLAIM = "sid";
     private SecretKey key;
+    // immutable once built, shared by all request threads
+    private JwtParser parser;
+    // SHA-256 of the token -> subject and expiry, so a token is only signature-checked once
+    private BoundedTtlCache<String, VerifiedToken> verifiedTokens;
 
     @Value("${secreteJwtString}")
     private String secreteJwtString; //Make sure the value in the application properties is 32characters or long
 
+    @Value("${security.jwt.access-token-minutes:15}")
+    private long accessTokenMinutes;
+
+    @Value("${jwt.verified-cache.enabled:true}")
+    private boolean verifiedCacheEnabled;
+    @Value("${jwt.verified-cache.capacity:10000}")
+    private int verifiedCacheCapacity;
+    @Value("${jwt.verified-cache.ttl-seconds:300}")
+    private long verifiedCacheTtlSeconds;
+
     @PostConstruct
     private void init(){
         byte[] keyBytes = secreteJwtString.getBytes(StandardCharsets.UTF_8);
         this.key = new SecretKeySpec(keyBytes, "HmacSHA256");
+        this.parser = Jwts.parser().verifyWith(key).build();
+        this.verifiedTokens = new BoundedTtlCache<>("jwt-verified", verifiedCacheEnabled,
+                verifiedCacheCapacity, verifiedCacheTtlSeconds, EvictionPolicy.LRU);
     }
 
-    public String generateToken(User user){
-        String username = user.getEmail();
-        return generateToken(username);
-    }
-
-    public String generateToken(String username){
+    // short-lived; the session id lets a revoked session reject it before it expires
+    public String generateAccessToken(String username, String sessionId){
+        long now = System.currentTimeMillis();
         return Jwts.builder()
                 .subject(username)
-                .issuedAt(new Date(System.currentTimeMillis()))
-                .expiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME_IN_MILLISEC))
+                .claim(SESSION_CLAIM, sessionId)
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + TimeUnit.MINUTES.toMillis(accessTokenMinutes)))
                 .signWith(key)
                 .compact();
     }
 
-    public String getUsernameFromToken(String token){
-        return extractClaims(token, Claims::getSubject);
+    public long getAccessTokenMinutes(){
+        return accessTokenMinutes;
     }
 
-    private <T> T extractClaims(String token, Function<Claims, T> claimsTFunction){
-        return claimsTFunction.apply(Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload());
+    /**
+     * Verifies the signature and expiry with a single parse, or answers from the cache of
+     * tokens already verified. Returns null for a token that is malformed, forged, expired
+     * or not bound to a session (the long-lived tokens issued before refresh tokens existed).
+     */
+    public VerifiedToken verify(String token){
+        String tokenHash = hash(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(tokenHash);
+        if (cached != null) {
+            if (!cached.isExpired()) {
+                return cached;
+            }
+            verifiedTokens.invalidate(tokenHash);
+            return null;
+        }
+
+        Claims claims;
+        try {
+            claims = parser.parseSignedClaims(token).getPayload();
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Rejected JWT: {}", e.getMessage());
+            return null;
+        }
+        VerifiedToken verified = new VerifiedToken(claims.getSubject(), claims.get(SESSION_CLAIM, String.class),
+                claims.getExpiration());
+        if (verified.isExpired() || verified.getSessionId() == null) {
+            return null;
+        }
+        verifiedTokens.put(tokenHash, verified);
+        return verified;
+    }
+
+    public String getUsernameFromToken(String token){
+        VerifiedToken verified = verify(token);
+        return verified == null ? null : verified.getSubject();
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails){
-        final String username = getUsernameFromToken(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        VerifiedToken verified = verify(token);
+        return verified != null && verified.getSubject().equals(userDetails.getUsername());
     }
 
-    private boolean isTokenExpired(String token){
-        return extractClaims(token, Claims::getExpiration).before(new Date());
+    static String hash(String token){
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 
+    @Getter
+    @AllArgsConstructor
+    public static class VerifiedToken {
+        private final String subject;
+        private final String sessionId;
+        private final Date expiresAt;
+
+        boolean isExpired(){
+            return expiresAt != null && expiresAt.before(new Date());
+        }
+    }
 }
@@ -0,0 +1,115 @@
+package com.example.shopBackend.security;
+
+import com.example.shopBackend.exceptions.TooManyRequestsException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs BCrypt on a small dedicated pool so a burst of logins is capped at
+ * {@code max-concurrency} cores instead of occupying every request thread. Work that
+ * cannot be queued, or waits longer than {@code queue-timeout-ms} to start, is shed
+ * with 429.
+ */
+@Component
+@Slf4j
+public class PasswordHasher {
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[aby]?\\$(\\d{2})\\$");
+
+    private final PasswordEncoder passwordEncoder;
+    private final int strength;
+    private final long queueTimeoutMillis;
+    private final ThreadPoolExecutor executor;
+
+    public PasswordHasher(PasswordEncoder passwordEncoder,
+                          @Value("${security.bcrypt.strength:10}") int strength,
+                          @Value("${security.password-hashing.max-concurrency:0}") int maxConcurrency,
+                          @Value("${security.password-hashing.queue-capacity:64}") int queueCapacity,
+                          @Value("${security.password-hashing.queue-timeout-ms:2000}") long queueTimeoutMillis) {
+        this.passwordEncoder = passwordEncoder;
+        this.strength = strength;
+        this.queueTimeoutMillis = queueTimeoutMillis;
+        // default to half the cores, leaving the rest for regular traffic
+        int threads = maxConcurrency > 0 ? maxConcurrency : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hasher-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    public String encode(String rawPassword) {
+        return run(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return run(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /** True when the stored hash was made with a different cost than the configured one. */
+    public boolean needsRehash(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) != strength;
+    }
+
+    // hashes submitted but not yet started
+    int queuedTasks() {
+        return executor.getQueue().size();
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new TooManyRequestsException("Too many sign-in attempts, please retry");
+        }
+        try {
+            try {
+                return future.get(queueTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // still queued: drop it; already hashing: the result is only moments away
+                if (executor.remove((Runnable) future)) {
+                    throw new TooManyRequestsException("Too many sign-in attempts, please retry");
+                }
+                return future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.remove((Runnable) future);
+            throw new TooManyRequestsException("Sign-in interrupted, please retry");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.shopBackend.security;
+
+import com.example.shopBackend.cache.BoundedTtlCache;
+import com.example.shopBackend.cache.EvictionPolicy;
+import com.example.shopBackend.dto.PrincipalStatsDto;
+import com.example.shopBackend.entity.User;
+import com.example.shopBackend.event.UserChangedEvent;
+import com.example.shopBackend.repository.UserRepo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Short-lived cache of authenticated users keyed by email, so a request with a known token
+ * costs no user query. Cached users are detached snapshots of the scalar columns only:
+ * they are shared between requests and must be treated as read-only, and callers that
+ * navigate associations have to load the entity themselves.
+ */
+@Component
+public class PrincipalCache {
+
+    private final UserRepo userRepo;
+    private final BoundedTtlCache<String, User> principals;
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder lookups = new LongAdder();
+
+    public PrincipalCache(UserRepo userRepo,
+                          @Value("${security.principal-cache.enabled:true}") boolean enabled,
+                          @Value("${security.principal-cache.capacity:10000}") int capacity,
+                          @Value("${security.principal-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.userRepo = userRepo;
+        this.principals = new BoundedTtlCache<>("principal", enabled, capacity, ttlSeconds, EvictionPolicy.LRU);
+    }
+
+    /** The user with this email, or null if there is none. */
+    public User load(String email) {
+        loads.increment();
+        return principals.get(email, key -> {
+            lookups.increment();
+            return userRepo.findByEmail(key).map(PrincipalCache::snapshot).orElse(null);
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void evict(UserChangedEvent event) {
+        principals.invalidate(event.getEmail());
+    }
+
+    public PrincipalStatsDto stats() {
+        long loadCount = loads.sum();
+        long lookupCount = lookups.sum();
+        return new PrincipalStatsDto(principals.stats(), loadCount, lookupCount,
+                loadCount == 0 ? 0 : (double) lookupCount / loadCount);
+    }
+
+    private static User snapshot(User user) {
+        return User.builder()
+                .id(user.getId())
+                .name(user.getName())
+                .email(user.getEmail())
+                .password(user.getPassword())
+                .phoneNumber(user.getPhoneNumber())
+                .role(user.getRole())
+                .build();
+    }
+}
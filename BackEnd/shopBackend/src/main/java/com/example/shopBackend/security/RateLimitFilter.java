@@ -0,0 +1,278 @@
+package com.example.shopBackend.security;
+
+import com.example.shopBackend.dto.Response;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token-bucket rate limiting per authenticated user, or per client IP for anonymous
+ * requests, with a separate bucket for each configured route. Quotas are written as
+ * {@code capacity:tokens-per-second}; routes are Ant patterns matched in order, anything
+ * else shares the default quota. Limited requests get 429 with {@code Retry-After}.
+ *
+ * <p>This filter runs ahead of {@link JwtAuthFilter}, so anonymous traffic is turned away
+ * before any token is parsed. Requests carrying a bearer token only pass a per-IP ceiling
+ * there, {@code rate-limit.ip-quota}, and are charged their route quota by
+ * {@link #userStage()} once the token has resolved to an account; a token that does not
+ * resolve is charged to the IP instead.
+ *
+ * <p>Each bucket is a single {@link AtomicLong} holding its theoretical arrival time
+ * (GCRA), so taking a token is one compare-and-set and needs no lock. A bucket whose
+ * arrival time has passed is full again and indistinguishable from a new one, which lets
+ * the sweeper drop idle buckets without changing any client's allowance.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    // route index of a bearer request whose route quota the user stage still has to charge
+    private static final String PENDING_ROUTE = RateLimitFilter.class.getName() + ".PENDING_ROUTE";
+    // bucket suffix of the per-IP ceiling on bearer requests, beside the route indexes and -1 for the default
+    private static final int BEARER_LIMIT = -2;
+    // a full map asks the sweeper for a pass at most this often
+    private static final long FORCED_SWEEP_GAP_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int maxBuckets;
+    private final Quota defaultQuota;
+    private final Quota ipQuota;
+    private final List<RouteQuota> routeQuotas;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService sweeper;
+    private final AtomicLong lastForcedSweep = new AtomicLong(System.nanoTime() - FORCED_SWEEP_GAP_NANOS);
+    private final UserStage userStage = new UserStage();
+
+    public RateLimitFilter(ObjectMapper objectMapper,
+                           @Value("${rate-limit.enabled:true}") boolean enabled,
+                           @Value("${rate-limit.max-buckets:100000}") int maxBuckets,
+                           @Value("${rate-limit.default-quota:120:20}") String defaultQuota,
+                           @Value("${rate-limit.ip-quota:600:100}") String ipQuota,
+                           @Value("${rate-limit.route-quotas:/product/get-all=30:3,/product/search=30:3,/auth/login=10:0.2,/auth/register=5:0.05}") String routeQuotas) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.maxBuckets = Math.max(1, maxBuckets);
+        this.defaultQuota = Quota.parse(defaultQuota);
+        this.ipQuota = Quota.parse(ipQuota);
+        this.routeQuotas = parseRoutes(routeQuotas);
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rate-limit-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(this::evictIdle, 30, 30, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        sweeper.shutdownNow();
+    }
+
+    /** The second stage, to run after {@link JwtAuthFilter}. */
+    OncePerRequestFilter userStage() {
+        return userStage;
+    }
+
+    int bucketCount() {
+        return buckets.size();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || "OPTIONS".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        int route = matchRoute(path);
+
+        long waitNanos;
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (StringUtils.hasText(authorization) && StringUtils.startsWithIgnoreCase(authorization, "Bearer ")) {
+            waitNanos = tryAcquire("ip:" + request.getRemoteAddr() + '|' + BEARER_LIMIT, BEARER_LIMIT, ipQuota);
+            request.setAttribute(PENDING_ROUTE, route);
+        } else {
+            waitNanos = tryAcquire("ip:" + request.getRemoteAddr() + '|' + route, route, quota(route));
+        }
+        if (waitNanos == 0) {
+            filterChain.doFilter(request, response);
+        } else {
+            reject(response, waitNanos);
+        }
+    }
+
+    private void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), Response.builder()
+                .status(HttpStatus.TOO_MANY_REQUESTS.value())
+                .message("Too many requests, please retry later")
+                .build());
+    }
+
+    /** Returns 0 if a token was taken, otherwise the nanoseconds until one is available. */
+    private long tryAcquire(String key, int limit, Quota quota) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxBuckets) {
+                // new clients share one bucket per limit until the sweeper makes room; the
+                // request thread never walks the map
+                requestSweep();
+                bucket = buckets.computeIfAbsent("overflow|" + limit, k -> new AtomicLong(System.nanoTime()));
+            } else {
+                bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(System.nanoTime()));
+            }
+        }
+
+        while (true) {
+            long now = System.nanoTime();
+            long arrival = bucket.get();
+            long start = arrival - now > 0 ? arrival : now;
+            // each token pushes arrival one interval ahead; a full burst leaves it at most the tolerance ahead
+            long ahead = start - now - quota.toleranceNanos;
+            if (ahead > 0) {
+                return ahead;
+            }
+            if (bucket.compareAndSet(arrival, start + quota.intervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    private void requestSweep() {
+        long now = System.nanoTime();
+        long last = lastForcedSweep.get();
+        if (now - last >= FORCED_SWEEP_GAP_NANOS && lastForcedSweep.compareAndSet(last, now)) {
+            try {
+                sweeper.execute(this::evictIdle);
+            } catch (RejectedExecutionException e) {
+                // shutting down
+            }
+        }
+    }
+
+    private void evictIdle() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+    }
+
+    private int matchRoute(String path) {
+        for (int i = 0; i < routeQuotas.size(); i++) {
+            RouteQuota routeQuota = routeQuotas.get(i);
+            // literal routes skip the matcher, which tokenizes the path on every call
+            if (routeQuota.literal ? routeQuota.pattern.equals(path) : pathMatcher.match(routeQuota.pattern, path)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private Quota quota(int route) {
+        return route < 0 ? defaultQuota : routeQuotas.get(route).quota;
+    }
+
+    // authenticated users are limited as themselves wherever they connect from
+    private static String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "u:" + authentication.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    // charges the route quota of bearer requests left pending by the first stage
+    private final class UserStage extends OncePerRequestFilter {
+        @Override
+        protected boolean shouldNotFilter(HttpServletRequest request) {
+            return request.getAttribute(PENDING_ROUTE) == null;
+        }
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+            int route = (Integer) request.getAttribute(PENDING_ROUTE);
+            request.removeAttribute(PENDING_ROUTE);
+            long waitNanos = tryAcquire(clientKey(request) + '|' + route, route, quota(route));
+            if (waitNanos == 0) {
+                filterChain.doFilter(request, response);
+            } else {
+                reject(response, waitNanos);
+            }
+        }
+    }
+
+    private List<RouteQuota> parseRoutes(String routeQuotas) {
+        List<RouteQuota> routes = new ArrayList<>();
+        for (String entry : StringUtils.commaDelimitedListToStringArray(routeQuotas)) {
+            if (!StringUtils.hasText(entry)) {
+                continue;
+            }
+            int separator = entry.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Invalid rate-limit route quota: " + entry);
+            }
+            String pattern = entry.substring(0, separator).trim();
+            routes.add(new RouteQuota(pattern, !pathMatcher.isPattern(pattern), Quota.parse(entry.substring(separator + 1))));
+        }
+        return List.copyOf(routes);
+    }
+
+    private record RouteQuota(String pattern, boolean literal, Quota quota) {
+    }
+
+    private static final class Quota {
+        // time to earn one token, and how far ahead of now a bucket of this capacity may run
+        private final long intervalNanos;
+        private final long toleranceNanos;
+
+        private Quota(int capacity, double tokensPerSecond) {
+            this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / tokensPerSecond);
+            this.toleranceNanos = intervalNanos * (capacity - 1);
+        }
+
+        static Quota parse(String quota) {
+            String[] parts = quota.trim().split(":");
+            int capacity;
+            double tokensPerSecond;
+            try {
+                capacity = parts.length == 2 ? Integer.parseInt(parts[0].trim()) : 0;
+                tokensPerSecond = parts.length == 2 ? Double.parseDouble(parts[1].trim()) : 0;
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid rate-limit quota: " + quota, e);
+            }
+            if (capacity < 1 || tokensPerSecond <= 0) {
+                throw new IllegalArgumentException("Invalid rate-limit quota: " + quota);
+            }
+            return new Quota(capacity, tokensPerSecond);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.shopBackend.security;
+
+import com.example.shopBackend.entity.RefreshToken;
+import com.example.shopBackend.entity.User;
+import com.example.shopBackend.exceptions.InvalidCredentialsException;
+import com.example.shopBackend.repository.RefreshTokenRepo;
+import com.example.shopBackend.repository.UserRepo;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Issues access/refresh token pairs and rotates them. A refresh token can be exchanged
+ * once; presenting an already exchanged token is treated as theft and revokes the whole
+ * session.
+ */
+@Service
+@Slf4j
+public class RefreshTokenService {
+
+    private static final long PURGE_INTERVAL_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private final RefreshTokenRepo refreshTokenRepo;
+    private final UserRepo userRepo;
+    private final JwtUtils jwtUtils;
+    private final RevocationList revocationList;
+    private final TransactionTemplate transactionTemplate;
+    private final long refreshTokenDays;
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final AtomicLong lastPurge = new AtomicLong();
+
+    public RefreshTokenService(RefreshTokenRepo refreshTokenRepo,
+                               UserRepo userRepo,
+                               JwtUtils jwtUtils,
+                               RevocationList revocationList,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${security.jwt.refresh-token-days:30}") long refreshTokenDays) {
+        this.refreshTokenRepo = refreshTokenRepo;
+        this.userRepo = userRepo;
+        this.jwtUtils = jwtUtils;
+        this.revocationList = revocationList;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.refreshTokenDays = refreshTokenDays;
+    }
+
+    /** Starts a new session for the user. */
+    public IssuedTokens issue(User user) {
+        purgeExpiredIfDue();
+        String sessionId = UUID.randomUUID().toString();
+        String refreshToken = transactionTemplate.execute(status -> store(user, sessionId));
+        return new IssuedTokens(jwtUtils.generateAccessToken(user.getEmail(), sessionId), refreshToken);
+    }
+
+    /**
+     * Exchanges a refresh token for a new pair in the same session.
+     *
+     * @throws InvalidCredentialsException if the token is unknown, expired, revoked or already used
+     */
+    public IssuedTokens refresh(String refreshToken) {
+        RefreshTokenRepo.TokenState state = refreshTokenRepo.findStateByTokenHash(JwtUtils.hash(refreshToken))
+                .orElseThrow(() -> new InvalidCredentialsException("Invalid refresh token"));
+        if (state.getRevokedAt() != null || state.getExpiresAt().isBefore(LocalDateTime.now())) {
+            throw new InvalidCredentialsException("Refresh token expired or revoked");
+        }
+        if (state.getUsedAt() != null) {
+            log.warn("Reuse of an exchanged refresh token, revoking session {}", state.getSessionId());
+            revokeSession(state.getSessionId());
+            throw new InvalidCredentialsException("Refresh token expired or revoked");
+        }
+
+        String next = transactionTemplate.execute(status -> {
+            if (refreshTokenRepo.markUsed(state.getId(), LocalDateTime.now()) == 0) {
+                return null;
+            }
+            return store(userRepo.getReferenceById(state.getUserId()), state.getSessionId());
+        });
+        // lost a race with a concurrent exchange or revocation of the same token: a replay that
+        // arrives together with the legitimate exchange is still a replay
+        if (next == null) {
+            log.warn("Concurrent reuse of a refresh token, revoking session {}", state.getSessionId());
+            revokeSession(state.getSessionId());
+            throw new InvalidCredentialsException("Refresh token expired or revoked");
+        }
+        return new IssuedTokens(jwtUtils.generateAccessToken(state.getEmail(), state.getSessionId()), next);
+    }
+
+    /** Ends the session the refresh token belongs to; unknown tokens are ignored. */
+    public void logout(String refreshToken) {
+        refreshTokenRepo.findStateByTokenHash(JwtUtils.hash(refreshToken))
+                .ifPresent(state -> revokeSession(state.getSessionId()));
+    }
+
+    /** Ends every session of the user, cutting off their access tokens within seconds. */
+    public int revokeAllSessions(Long userId) {
+        List<String> sessionIds = transactionTemplate.execute(status -> {
+            List<String> open = refreshTokenRepo.findOpenSessionIds(userId);
+            refreshTokenRepo.revokeUser(userId, LocalDateTime.now());
+            return open;
+        });
+        sessionIds.forEach(revocationList::add);
+        return sessionIds.size();
+    }
+
+    private void revokeSession(String sessionId) {
+        transactionTemplate.executeWithoutResult(status -> refreshTokenRepo.revokeSession(sessionId, LocalDateTime.now()));
+        revocationList.add(sessionId);
+    }
+
+    private String store(User user, String sessionId) {
+        byte[] secret = new byte[32];
+        secureRandom.nextBytes(secret);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(secret);
+
+        LocalDateTime now = LocalDateTime.now();
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setTokenHash(JwtUtils.hash(token));
+        refreshToken.setSessionId(sessionId);
+        refreshToken.setUser(user);
+        refreshToken.setCreatedAt(now);
+        refreshToken.setExpiresAt(now.plusDays(refreshTokenDays));
+        refreshTokenRepo.save(refreshToken);
+        return token;
+    }
+
+    private void purgeExpiredIfDue() {
+        long now = System.currentTimeMillis();
+        long last = lastPurge.get();
+        if (now - last < PURGE_INTERVAL_MILLIS || !lastPurge.compareAndSet(last, now)) {
+            return;
+        }
+        Integer purged = transactionTemplate.execute(status -> refreshTokenRepo.deleteExpired(LocalDateTime.now()));
+        if (purged != null && purged > 0) {
+            log.info("Purged {} expired refresh tokens", purged);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class IssuedTokens {
+        private final String accessToken;
+        private final String refreshToken;
+    }
+}
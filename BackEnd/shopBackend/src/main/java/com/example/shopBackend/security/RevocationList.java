@@ -0,0 +1,80 @@
+package com.example.shopBackend.security;
+
+import com.example.shopBackend.repository.RefreshTokenRepo;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Session ids revoked recently enough that access tokens issued for them may still be
+ * unexpired. The filter checks every request against it without touching the database.
+ * A snapshot is rebuilt from {@code refresh_tokens} every few seconds, so revocations on
+ * other nodes apply within that interval; revocations on this node apply at once.
+ */
+@Component
+@Slf4j
+public class RevocationList {
+
+    private final RefreshTokenRepo refreshTokenRepo;
+    private final long windowMinutes;
+    private final long rebuildIntervalSeconds;
+
+    private volatile Set<String> snapshot = Set.of();
+    // revoked on this node since the snapshot was taken, with the time they were added
+    private final Map<String, Long> recent = new ConcurrentHashMap<>();
+    private ScheduledExecutorService rebuilder;
+
+    public RevocationList(RefreshTokenRepo refreshTokenRepo,
+                          @Value("${security.jwt.access-token-minutes:15}") long accessTokenMinutes,
+                          @Value("${security.revocation.rebuild-interval-seconds:5}") long rebuildIntervalSeconds) {
+        this.refreshTokenRepo = refreshTokenRepo;
+        // one extra minute covers clock skew between nodes
+        this.windowMinutes = accessTokenMinutes + 1;
+        this.rebuildIntervalSeconds = Math.max(1, rebuildIntervalSeconds);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        rebuild();
+        rebuilder = Executors.newSingleThreadScheduledExecutor(runnable -> new Thread(runnable, "revocation-list"));
+        rebuilder.scheduleWithFixedDelay(this::rebuild, rebuildIntervalSeconds, rebuildIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (rebuilder != null) {
+            rebuilder.shutdownNow();
+        }
+    }
+
+    public boolean isRevoked(String sessionId) {
+        return sessionId != null && (snapshot.contains(sessionId) || recent.containsKey(sessionId));
+    }
+
+    /** Call after the revocation has been committed. */
+    public void add(String sessionId) {
+        recent.put(sessionId, System.currentTimeMillis());
+    }
+
+    void rebuild() {
+        long startedAt = System.currentTimeMillis();
+        try {
+            snapshot = Set.copyOf(refreshTokenRepo.findSessionIdsRevokedSince(LocalDateTime.now().minusMinutes(windowMinutes)));
+            // entries committed before this read are in the snapshot now
+            recent.values().removeIf(addedAt -> addedAt < startedAt);
+        } catch (RuntimeException e) {
+            log.warn("Could not rebuild the token revocation list: {}", e.getMessage());
+        }
+    }
+}
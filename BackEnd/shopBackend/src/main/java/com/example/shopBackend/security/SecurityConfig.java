@@ -2,6 +2,8 @@ package com.example.shopBackend.security;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -26,6 +28,8 @@ public class SecurityConfig {
 
     @Autowired
     private final JwtAuthFilter jwtAuthFilter;
+    @Autowired
+    private final RateLimitFilter rateLimitFilter;
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
@@ -47,19 +51,30 @@ public class SecurityConfig {
                                     "frame-ancestors 'none';"));
                 })
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/auth/register", "/auth/login", "/category/**", "/product/**", "/order/**")
+                        .requestMatchers("/auth/register", "/auth/login", "/auth/refresh", "/auth/logout", "/category/**", "/product/**", "/order/**")
                         .permitAll()
                         .anyRequest()
                         .authenticated()
                 )
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
-                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+                // anonymous and per-IP limits before any token is parsed, per-account limits once it is
+                .addFilterBefore(rateLimitFilter, JwtAuthFilter.class)
+                .addFilterAfter(rateLimitFilter.userStage(), JwtAuthFilter.class);
 
         return http.build();
     }
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${security.bcrypt.strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
+    }
+
+    // the rate limiter runs inside the security chain only, not again as a plain servlet filter
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration(RateLimitFilter filter) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
     }
 
     @Bean
@@ -49,7 +49,8 @@ public class AddressServiceImpl implements AddressService {
 
         validateAndSanitize(addressDto);
 
-        Address address = user.getAddress();
+        // the login user is a cached snapshot without associations
+        Address address = addressRepo.findByUserId(user.getId()).orElse(null);
 
         boolean preExisting = (address != null);
 
@@ -1,22 +1,26 @@
 package com.example.shopBackend.service;
 
+import com.example.shopBackend.cache.CategorySnapshot;
 import com.example.shopBackend.dto.CategoryDto;
 import com.example.shopBackend.dto.Response;
 import com.example.shopBackend.entity.Category;
+import com.example.shopBackend.entity.Product;
 import com.example.shopBackend.enums.UserRole;
+import com.example.shopBackend.event.CategoryChangedEvent;
+import com.example.shopBackend.event.ProductChangedEvent;
 import com.example.shopBackend.exceptions.NotFoundException;
 import jakarta.validation.ValidationException;
 
-import com.example.shopBackend.mapper.EntityDtoMapper;
 import com.example.shopBackend.repository.CategoryRepo;
+import com.example.shopBackend.repository.ProductRepo;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -25,9 +29,13 @@ public class CategoryServiceImpl implements CategoryService {
     @Autowired
     private final CategoryRepo categoryRepo;
     @Autowired
-    private final EntityDtoMapper entityDtoMapper;
-    @Autowired
     private final UserService userService;
+    @Autowired
+    private final ProductRepo productRepo;
+    @Autowired
+    private final CategorySnapshot categorySnapshot;
+    @Autowired
+    private final ApplicationEventPublisher eventPublisher;
 
     private static final int MAX_NAME_LENGTH = 100;
 
@@ -43,7 +51,8 @@ public class CategoryServiceImpl implements CategoryService {
 
         Category category = new Category();
         category.setName(StringUtils.trimWhitespace(categoryRequest.getName()));
-        categoryRepo.save(category);
+        Category savedCategory = categoryRepo.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(savedCategory.getId()));
         return Response.builder()
                 .status(200)
                 .message("Category created successfully")
@@ -63,6 +72,7 @@ public class CategoryServiceImpl implements CategoryService {
         Category category = categoryRepo.findById(categoryId).orElseThrow(() -> new NotFoundException("Category Not Found"));
         category.setName(StringUtils.trimWhitespace(categoryRequest.getName()));
         categoryRepo.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(categoryId));
         return Response.builder()
                 .status(200)
                 .message("category updated successfully")
@@ -71,21 +81,18 @@ public class CategoryServiceImpl implements CategoryService {
 
     @Override
     public Response getAllCategories() {
-        List<Category> categories = categoryRepo.findAll();
-        List<CategoryDto> categoryDtoList = categories.stream()
-                .map(entityDtoMapper::mapCategoryToDtoBasic)
-                .collect(Collectors.toList());
-
         return Response.builder()
                 .status(200)
-                .categoryList(categoryDtoList)
+                .categoryList(categorySnapshot.getAll())
                 .build();
     }
 
     @Override
     public Response getCategoryById(Long categoryId) {
-        Category category = categoryRepo.findById(categoryId).orElseThrow(() -> new NotFoundException("Category Not Found"));
-        CategoryDto categoryDto = entityDtoMapper.mapCategoryToDtoBasic(category);
+        CategoryDto categoryDto = categorySnapshot.getById(categoryId);
+        if (categoryDto == null) {
+            throw new NotFoundException("Category Not Found");
+        }
         return Response.builder()
                 .status(200)
                 .category(categoryDto)
@@ -101,7 +108,11 @@ public class CategoryServiceImpl implements CategoryService {
         }
 
         Category category = categoryRepo.findById(categoryId).orElseThrow(() -> new NotFoundException("Category Not Found"));
+        // products are removed by cascade, tell the in-memory product views about them too
+        List<Product> products = productRepo.findByCategoryId(categoryId);
         categoryRepo.delete(category);
+        products.forEach(product -> eventPublisher.publishEvent(ProductChangedEvent.deleted(product.getId())));
+        eventPublisher.publishEvent(new CategoryChangedEvent(categoryId));
         return Response.builder()
                 .status(200)
                 .message("Category was deleted successfully")
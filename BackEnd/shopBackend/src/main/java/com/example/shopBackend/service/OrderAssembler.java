@@ -0,0 +1,112 @@
+package com.example.shopBackend.service;
+
+import com.example.shopBackend.dto.OrderItemRequest;
+import com.example.shopBackend.dto.OrderRequest;
+import com.example.shopBackend.entity.Order;
+import com.example.shopBackend.entity.OrderItem;
+import com.example.shopBackend.entity.Product;
+import com.example.shopBackend.entity.User;
+import com.example.shopBackend.enums.OrderStatus;
+import com.example.shopBackend.exceptions.NotFoundException;
+import com.example.shopBackend.repository.ProductRepo;
+import jakarta.validation.ValidationException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Validates order requests and turns them into {@link Order} entities. Shared by the
+ * synchronous order path and the batched ingestion pipeline.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderAssembler {
+    @Autowired
+    private final ProductRepo productRepo;
+
+    private static final int MAX_QUANTITY = 1000; // business rule limit
+    private static final int MAX_ITEMS_PER_ORDER = 100;
+
+    public void validate(OrderRequest orderRequest) {
+        if (orderRequest == null || orderRequest.getItems() == null || orderRequest.getItems().isEmpty()) {
+            throw new ValidationException("Order must contain at least one item");
+        }
+        if (orderRequest.getItems().size() > MAX_ITEMS_PER_ORDER) {
+            throw new ValidationException("Too many items in order");
+        }
+        if (orderRequest.getDeliveryDate() == null) {
+            throw new ValidationException("Delivery date is required");
+        }
+        LocalDate deliveryDate = orderRequest.getDeliveryDate();
+        if (!deliveryDate.isAfter(LocalDate.now())) {
+            throw new ValidationException("Delivery date must be in the future");
+        }
+        if (deliveryDate.getDayOfWeek() == DayOfWeek.SUNDAY) {
+            throw new ValidationException("No deliveries allowed on Sunday");
+        }
+        for (OrderItemRequest orderItemRequest : orderRequest.getItems()) {
+            if (orderItemRequest.getProductId() == null) {
+                throw new ValidationException("Product id is required for every item");
+            }
+            if (orderItemRequest.getQuantity() <= 0 || orderItemRequest.getQuantity() > MAX_QUANTITY) {
+                throw new ValidationException("Invalid quantity for product id: " + orderItemRequest.getProductId());
+            }
+        }
+    }
+
+    // resolve every product of the given orders in one query instead of one findById per line
+    public Map<Long, Product> resolveProducts(Collection<OrderRequest> orderRequests) {
+        Set<Long> productIds = orderRequests.stream()
+                .flatMap(orderRequest -> orderRequest.getItems().stream())
+                .map(OrderItemRequest::getProductId)
+                .collect(Collectors.toSet());
+        return productRepo.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+    }
+
+    public Order assemble(User user, OrderRequest orderRequest, Map<Long, Product> productsById) {
+        List<OrderItem> orderItems = orderRequest.getItems().stream().map(orderItemRequest -> {
+            Product product = productsById.get(orderItemRequest.getProductId());
+            if (product == null) {
+                throw new NotFoundException("Product Not Found");
+            }
+
+            OrderItem orderItem = new OrderItem();
+            orderItem.setProduct(product);
+            orderItem.setQuantity(orderItemRequest.getQuantity());
+            orderItem.setPrice(product.getPrice().multiply(BigDecimal.valueOf(orderItemRequest.getQuantity()))); //set price according to the quantity
+            orderItem.setStatus(OrderStatus.PENDING);
+            orderItem.setUser(user);
+            return orderItem;
+
+        }).collect(Collectors.toList());
+
+        // calculate the total price — trust client only if > 0; otherwise compute server-side
+        BigDecimal totalPrice = orderRequest.getTotalPrice() != null && orderRequest.getTotalPrice().compareTo(BigDecimal.ZERO) > 0
+                ? orderRequest.getTotalPrice()
+                : orderItems.stream().map(OrderItem::getPrice).reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        if (totalPrice.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new ValidationException("Total price must be greater than zero");
+        }
+
+        // create order entity
+        Order order = new Order();
+        order.setOrderItemList(orderItems);
+        order.setTotalPrice(totalPrice);
+
+        // set the order reference in each orderitem
+        orderItems.forEach(orderItem -> orderItem.setOrder(order));
+        return order;
+    }
+}
@@ -0,0 +1,271 @@
+package com.example.shopBackend.service;
+
+import com.example.shopBackend.cache.BoundedTtlCache;
+import com.example.shopBackend.cache.EvictionPolicy;
+import com.example.shopBackend.dto.OrderRequest;
+import com.example.shopBackend.entity.Order;
+import com.example.shopBackend.entity.Product;
+import com.example.shopBackend.entity.User;
+import com.example.shopBackend.enums.OrderIngestionStatus;
+import com.example.shopBackend.exceptions.ConflictException;
+import com.example.shopBackend.exceptions.NotFoundException;
+import com.example.shopBackend.exceptions.TooManyRequestsException;
+import com.example.shopBackend.inventory.StockLedger;
+import com.example.shopBackend.repository.OrderRepo;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ValidationException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Optional asynchronous order intake. Requests are validated on the caller's thread and
+ * parked on a bounded queue; a single writer thread drains it and commits up to
+ * {@code batch-size} orders per transaction, waiting at most {@code linger-ms} for a batch
+ * to fill. A full queue is rejected with 429. On shutdown intake stops first and the
+ * writer drains everything already acknowledged before the context closes.
+ */
+@Component
+@Slf4j
+// draining on shutdown still needs ids, so the allocator's pool must outlive this bean
+@DependsOn("idBlockAllocator")
+public class OrderIngestionPipeline {
+
+    private final OrderAssembler orderAssembler;
+    private final OrderRepo orderRepo;
+    private final StockLedger stockLedger;
+    private final OrderStatusCounters orderStatusCounters;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final long shutdownTimeoutSeconds;
+    private final BlockingQueue<PendingOrder> queue;
+    private final BoundedTtlCache<String, Ticket> tickets;
+
+    // producers hold the read lock while offering, shutdown takes the write lock, so nothing
+    // can be enqueued after the writer has been told to finish
+    private final ReentrantReadWriteLock intakeLock = new ReentrantReadWriteLock();
+    private volatile boolean accepting;
+    private Thread writer;
+
+    public OrderIngestionPipeline(OrderAssembler orderAssembler,
+                                  OrderRepo orderRepo,
+                                  StockLedger stockLedger,
+                                  OrderStatusCounters orderStatusCounters,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${order.ingestion.async-enabled:false}") boolean enabled,
+                                  @Value("${order.ingestion.queue-capacity:10000}") int queueCapacity,
+                                  @Value("${order.ingestion.batch-size:100}") int batchSize,
+                                  @Value("${order.ingestion.linger-ms:20}") long lingerMs,
+                                  @Value("${order.ingestion.status-ttl-seconds:3600}") long statusTtlSeconds,
+                                  @Value("${order.ingestion.shutdown-timeout-seconds:60}") long shutdownTimeoutSeconds) {
+        this.orderAssembler = orderAssembler;
+        this.orderRepo = orderRepo;
+        this.stockLedger = stockLedger;
+        this.orderStatusCounters = orderStatusCounters;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, lingerMs));
+        this.shutdownTimeoutSeconds = shutdownTimeoutSeconds;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        // sized so that every queued order plus a backlog of finished ones stays pollable
+        this.tickets = new BoundedTtlCache<>("order-ingestion", true,
+                Math.max(1, queueCapacity) * 10, statusTtlSeconds, EvictionPolicy.FIFO);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        accepting = true;
+        writer = new Thread(this::runWriter, "order-ingestion-writer");
+        writer.start();
+        log.info("Async order ingestion enabled (batch size {}, linger {} ms)",
+                batchSize, TimeUnit.NANOSECONDS.toMillis(lingerNanos));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues an already validated order and returns its tracking id. {@code onFailure}, if
+     * given, runs on the writer thread when the order cannot be committed.
+     *
+     * @throws TooManyRequestsException when the queue is full or the pipeline is shutting down
+     */
+    public String submit(User user, OrderRequest orderRequest, Runnable onFailure) {
+        String trackingId = UUID.randomUUID().toString();
+        intakeLock.readLock().lock();
+        try {
+            if (!accepting) {
+                throw new TooManyRequestsException("Order intake is shutting down, please retry");
+            }
+            tickets.put(trackingId, new Ticket(user.getId(), OrderIngestionStatus.QUEUED, null, null));
+            if (!queue.offer(new PendingOrder(trackingId, user, orderRequest, onFailure))) {
+                tickets.invalidate(trackingId);
+                throw new TooManyRequestsException("Too many orders in flight, please retry");
+            }
+        } finally {
+            intakeLock.readLock().unlock();
+        }
+        return trackingId;
+    }
+
+    public Ticket findTicket(String trackingId) {
+        return tickets.getIfPresent(trackingId);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        intakeLock.writeLock().lock();
+        try {
+            accepting = false;
+        } finally {
+            intakeLock.writeLock().unlock();
+        }
+        writer.join(TimeUnit.SECONDS.toMillis(shutdownTimeoutSeconds));
+        if (writer.isAlive()) {
+            log.error("Order ingestion writer did not drain within {}s, {} orders still queued",
+                    shutdownTimeoutSeconds, queue.size());
+        }
+    }
+
+    private void runWriter() {
+        List<PendingOrder> batch = new ArrayList<>(batchSize);
+        while (accepting || !queue.isEmpty()) {
+            try {
+                PendingOrder first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - batch.size());
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < batchSize && accepting) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    PendingOrder next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+            } catch (InterruptedException e) {
+                // keep draining: acknowledged orders must not be dropped, including those already taken
+                log.warn("Order ingestion writer interrupted, continuing to drain");
+            }
+            if (batch.isEmpty()) {
+                continue;
+            }
+            try {
+                commit(batch);
+            } catch (RuntimeException e) {
+                log.error("Unexpected failure in order ingestion writer", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<PendingOrder> batch) {
+        try {
+            List<Order> orders = transactionTemplate.execute(status -> persist(batch));
+            for (int i = 0; i < batch.size(); i++) {
+                markCommitted(batch.get(i), orders.get(i));
+            }
+        } catch (RuntimeException batchFailure) {
+            if (batch.size() == 1) {
+                markFailed(batch.get(0), batchFailure);
+                return;
+            }
+            // isolate the bad order(s) so one invalid request cannot fail the whole group
+            log.warn("Group commit of {} orders failed, retrying individually: {}", batch.size(), batchFailure.getMessage());
+            for (PendingOrder pendingOrder : batch) {
+                try {
+                    List<Order> orders = transactionTemplate.execute(status -> persist(List.of(pendingOrder)));
+                    markCommitted(pendingOrder, orders.get(0));
+                } catch (RuntimeException e) {
+                    markFailed(pendingOrder, e);
+                }
+            }
+        }
+    }
+
+    private List<Order> persist(List<PendingOrder> batch) {
+        Map<Long, Product> productsById = orderAssembler.resolveProducts(
+                batch.stream().map(pendingOrder -> pendingOrder.orderRequest).toList());
+        List<Order> orders = batch.stream()
+                .map(pendingOrder -> orderAssembler.assemble(pendingOrder.user, pendingOrder.orderRequest, productsById))
+                .toList();
+        // reservations are released by the ledger if this transaction rolls back
+        orders.forEach(stockLedger::reserve);
+        List<Order> saved = orderRepo.saveAll(orders);
+        orders.forEach(order -> orderStatusCounters.recordCreated(order.getOrderItemList().size()));
+        return saved;
+    }
+
+    private void markCommitted(PendingOrder pendingOrder, Order order) {
+        tickets.put(pendingOrder.trackingId, new Ticket(pendingOrder.user.getId(),
+                OrderIngestionStatus.COMMITTED, order.getId(), null));
+    }
+
+    private void markFailed(PendingOrder pendingOrder, RuntimeException cause) {
+        tickets.put(pendingOrder.trackingId, new Ticket(pendingOrder.user.getId(),
+                OrderIngestionStatus.FAILED, null, failureReason(cause)));
+        if (pendingOrder.onFailure != null) {
+            pendingOrder.onFailure.run();
+        }
+    }
+
+    // only our own validation messages reach the client; anything else may expose SQL or internals
+    static String failureReason(RuntimeException cause) {
+        if (cause instanceof ValidationException || cause instanceof NotFoundException
+                || cause instanceof ConflictException) {
+            return cause.getMessage();
+        }
+        log.warn("Queued order could not be committed", cause);
+        return "Order could not be placed, please try again";
+    }
+
+    @AllArgsConstructor
+    private static class PendingOrder {
+        private final String trackingId;
+        private final User user;
+        private final OrderRequest orderRequest;
+        private final Runnable onFailure;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Ticket {
+        private final Long userId;
+        private final OrderIngestionStatus status;
+        private final Long orderId;
+        private final String failureReason;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.shopBackend.service;
 
+import com.example.shopBackend.dto.OrderItemStatusBulkRequest;
 import com.example.shopBackend.dto.OrderRequest;
 import com.example.shopBackend.dto.Response;
 import com.example.shopBackend.enums.OrderStatus;
@@ -9,7 +10,12 @@ import java.time.LocalDateTime;
 
 public interface OrderItemService {
     Response placeOrder(OrderRequest orderRequest);
-    Response updateOrderItemStatus(Long orderItemId, String status);
+    Response placeOrder(OrderRequest orderRequest, String idempotencyKey);
+    Response getOrderIngestionStatus(String trackingId);
+    Response updateOrderItemStatus(Long orderItemId, String status, Long version);
+    Response bulkUpdateOrderItemStatus(OrderItemStatusBulkRequest request);
     Response filterOrderItems(OrderStatus status, LocalDateTime startDate, LocalDateTime endDate, Long itemId, Pageable pageable);
+    Response filterOrderItems(OrderStatus status, LocalDateTime startDate, LocalDateTime endDate, Long itemId,
+                              int limit, String cursor, boolean includeTotal);
 }
 
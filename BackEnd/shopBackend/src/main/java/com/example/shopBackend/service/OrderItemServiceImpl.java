@@ -1,35 +1,46 @@
 package com.example.shopBackend.service;
 import jakarta.validation.ValidationException;
 import com.example.shopBackend.dto.OrderItemDto;
+import com.example.shopBackend.dto.OrderItemStatusBulkRequest;
 import com.example.shopBackend.dto.OrderRequest;
 import com.example.shopBackend.dto.Response;
 import com.example.shopBackend.entity.Order;
 import com.example.shopBackend.entity.OrderItem;
 import com.example.shopBackend.entity.Product;
 import com.example.shopBackend.entity.User;
+import com.example.shopBackend.enums.OrderIngestionStatus;
 import com.example.shopBackend.enums.OrderStatus;
 import com.example.shopBackend.enums.UserRole;
+import com.example.shopBackend.exceptions.ConflictException;
 import com.example.shopBackend.exceptions.NotFoundException;
+import com.example.shopBackend.idempotency.IdempotencyService;
+import com.example.shopBackend.inventory.FlashSaleGate;
+import com.example.shopBackend.inventory.StockLedger;
+import com.example.shopBackend.inventory.StockReservation;
 import com.example.shopBackend.mapper.EntityDtoMapper;
 import com.example.shopBackend.repository.OrderItemRepo;
 import com.example.shopBackend.repository.OrderRepo;
-import com.example.shopBackend.repository.ProductRepo;
-import com.example.shopBackend.specification.OrderItemSpecification;
+import com.example.shopBackend.util.CursorCodec;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.domain.Specification;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
-import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.support.TransactionTemplate;
 
 
-import java.math.BigDecimal;
-import java.time.DayOfWeek;
-import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -41,108 +52,244 @@ public class OrderItemServiceImpl implements OrderItemService {
     @Autowired
     private final OrderItemRepo orderItemRepo;
     @Autowired
-    private final ProductRepo productRepo;
-    @Autowired
     private final UserService userService;
     @Autowired
     private final EntityDtoMapper entityDtoMapper;
 
-    private static final int MAX_QUANTITY = 1000; // business rule limit
-    private static final int MAX_ITEMS_PER_ORDER = 100;
+    @Autowired
+    private final OrderAssembler orderAssembler;
+    @Autowired
+    private final OrderIngestionPipeline orderIngestionPipeline;
+    @Autowired
+    private final IdempotencyService idempotencyService;
+    @Autowired
+    private final StockLedger stockLedger;
+    @Autowired
+    private final FlashSaleGate flashSaleGate;
+    @Autowired
+    private final TransactionTemplate transactionTemplate;
+    @Autowired
+    private final OrderStatusCounters orderStatusCounters;
+
+    private static final int BULK_CHUNK_SIZE = 500;
+    private static final int MAX_BULK_IDS = 10000;
+    private static final int MAX_FILTER_LIMIT = 1000;
 
     @Override
     public Response placeOrder(OrderRequest orderRequest) {
+        orderAssembler.validate(orderRequest);
+        // flash-sale admission runs before the first query, so sold-out requests never touch the pool
+        FlashSaleGate.Admission admission = flashSaleGate.admit(orderRequest);
+        boolean placed = false;
+        try {
+            Response response = placeAdmittedOrder(orderRequest, admission);
+            placed = true;
+            return response;
+        } finally {
+            admission.finish(placed);
+        }
+    }
+
+    private Response placeAdmittedOrder(OrderRequest orderRequest, FlashSaleGate.Admission admission) {
         User user = userService.getLoginUser();
         if (user == null) {
             throw new NotFoundException("Authenticated user not found");
         }
-        if (orderRequest == null || orderRequest.getItems() == null || orderRequest.getItems().isEmpty()) {
-            throw new ValidationException("Order must contain at least one item");
-        }
-        if (orderRequest.getItems().size() > MAX_ITEMS_PER_ORDER) {
-            throw new ValidationException("Too many items in order");
-        }
-        if (orderRequest.getDeliveryDate() == null) {
-            throw new ValidationException("Delivery date is required");
-        }
-        LocalDate deliveryDate = orderRequest.getDeliveryDate();
-        if (!deliveryDate.isAfter(LocalDate.now())) {
-            throw new ValidationException("Delivery date must be in the future");
-        }
-        if (deliveryDate.getDayOfWeek() == DayOfWeek.SUNDAY) {
-            throw new ValidationException("No deliveries allowed on Sunday");
-        }
 
-        List<OrderItem> orderItems = orderRequest.getItems().stream().map(orderItemRequest -> {
-            if (orderItemRequest.getQuantity() <= 0 || orderItemRequest.getQuantity() > MAX_QUANTITY) {
-                throw new ValidationException("Invalid quantity for product id: " + orderItemRequest.getProductId());
-            }
+        if (orderIngestionPipeline.isEnabled()) {
+            String trackingId = orderIngestionPipeline.submit(user, orderRequest, admission::cancel);
+            return Response.builder()
+                    .status(202)
+                    .message("Order accepted for processing")
+                    .trackingId(trackingId)
+                    .ingestionStatus(OrderIngestionStatus.QUEUED)
+                    .build();
+        }
 
-            Product product = productRepo.findById(orderItemRequest.getProductId())
-                    .orElseThrow(() -> new NotFoundException("Product Not Found"));
+        Map<Long, Product> productsById = orderAssembler.resolveProducts(List.of(orderRequest));
+        Order order = orderAssembler.assemble(user, orderRequest, productsById);
+        StockReservation reservation = stockLedger.reserve(order);
+        try {
+            orderRepo.save(order);
+        } catch (RuntimeException e) {
+            reservation.release();
+            throw e;
+        }
+        orderStatusCounters.recordCreated(order.getOrderItemList().size());
 
-            OrderItem orderItem = new OrderItem();
-            orderItem.setProduct(product);
-            orderItem.setQuantity(orderItemRequest.getQuantity());
-            orderItem.setPrice(product.getPrice().multiply(BigDecimal.valueOf(orderItemRequest.getQuantity()))); //set price according to the quantity
-            orderItem.setStatus(OrderStatus.PENDING);
-            orderItem.setUser(user);
-            return orderItem;
+        return Response.builder()
+                .status(200)
+                .message("Order was successfully placed")
+                .orderId(order.getId())
+                .build();
+    }
 
-        }).collect(Collectors.toList());
+    @Override
+    public Response placeOrder(OrderRequest orderRequest, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return placeOrder(orderRequest);
+        }
+        // scope keys by principal, resolved without a database round trip so replays stay read-free
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication.getName() == null) {
+            throw new NotFoundException("Authenticated user not found");
+        }
+        return idempotencyService.execute(authentication.getName(), idempotencyKey, orderRequest,
+                () -> placeOrder(orderRequest));
+    }
 
-        // calculate the total price — trust client only if > 0; otherwise compute server-side
-        BigDecimal totalPrice = orderRequest.getTotalPrice() != null && orderRequest.getTotalPrice().compareTo(BigDecimal.ZERO) > 0
-                ? orderRequest.getTotalPrice()
-                : orderItems.stream().map(OrderItem::getPrice).reduce(BigDecimal.ZERO, BigDecimal::add);
+    @Override
+    public Response getOrderIngestionStatus(String trackingId) {
+        User user = userService.getLoginUser();
+        if (user == null) {
+            throw new NotFoundException("Authenticated user not found");
+        }
+        OrderIngestionPipeline.Ticket ticket = orderIngestionPipeline.findTicket(trackingId);
+        // other users' tickets are reported as missing rather than forbidden
+        if (ticket == null || (user.getRole() != UserRole.ADMIN && !user.getId().equals(ticket.getUserId()))) {
+            throw new NotFoundException("Order tracking id not found");
+        }
+        return Response.builder()
+                .status(200)
+                .trackingId(trackingId)
+                .ingestionStatus(ticket.getStatus())
+                .orderId(ticket.getOrderId())
+                .message(ticket.getFailureReason())
+                .build();
+    }
 
-        if (totalPrice.compareTo(BigDecimal.ZERO) <= 0) {
-            throw new ValidationException("Total price must be greater than zero");
+    @Override
+    public Response updateOrderItemStatus(Long orderItemId, String status, Long version) {
+        // Only admin should update order item statuses in many systems — enforce RBAC
+        User user = userService.getLoginUser();
+        if (user == null || user.getRole() != UserRole.ADMIN) {
+            throw new ValidationException("Unauthorized: only admins may update order statuses");
         }
 
-        // create order entity
-        Order order = new Order();
-        order.setOrderItemList(orderItems);
-        order.setTotalPrice(totalPrice);
+        OrderStatus newStatus = parseStatus(status);
 
-        // set the order reference in each orderitem
-        orderItems.forEach(orderItem -> orderItem.setOrder(order));
+        // without a client version, compare against the version read now
+        Long expectedVersion = version;
+        OrderStatus expectedStatus = null;
+        if (expectedVersion == null) {
+            OrderItemRepo.StatusVersion current = orderItemRepo.findStatusVersionById(orderItemId)
+                    .orElseThrow(() -> new NotFoundException("Order Item not found"));
+            checkTransition(current.getStatus(), newStatus);
+            expectedVersion = current.getVersion();
+            expectedStatus = current.getStatus();
+        }
 
-        orderRepo.save(order);
+        Long casVersion = expectedVersion;
+        OrderStatus knownStatus = expectedStatus;
+        int updated = transactionTemplate.execute(tx -> {
+            // the status this version had is what the counters move from
+            OrderStatus previousStatus = knownStatus != null ? knownStatus
+                    : orderItemRepo.findStatusVersionById(orderItemId)
+                            .filter(current -> current.getVersion().equals(casVersion))
+                            .map(OrderItemRepo.StatusVersion::getStatus)
+                            .orElse(null);
+            int changed = orderItemRepo.updateStatusIfVersion(orderItemId, casVersion, newStatus, newStatus.allowedPredecessors());
+            if (changed > 0 && previousStatus != null) {
+                orderStatusCounters.recordTransition(previousStatus, newStatus, changed);
+            }
+            return changed;
+        });
+        if (updated == 0) {
+            OrderItemRepo.StatusVersion current = orderItemRepo.findStatusVersionById(orderItemId)
+                    .orElseThrow(() -> new NotFoundException("Order Item not found"));
+            if (!current.getVersion().equals(casVersion)) {
+                throw new ConflictException("Order item was modified by someone else, reload and try again");
+            }
+            checkTransition(current.getStatus(), newStatus);
+            // same version and a legal move, yet nothing was written: never report that as done
+            throw new ConflictException("Order item status could not be updated, reload and try again");
+        }
 
         return Response.builder()
                 .status(200)
-                .message("Order was successfully placed")
+                .message("Order status updated successfully")
                 .build();
     }
 
+    private static void checkTransition(OrderStatus current, OrderStatus next) {
+        if (!current.canTransitionTo(next)) {
+            throw new ConflictException("Order status cannot change from " + current + " to " + next);
+        }
+    }
+
     @Override
-    public Response updateOrderItemStatus(Long orderItemId, String status) {
-        // Only admin should update order item statuses in many systems — enforce RBAC
+    public Response bulkUpdateOrderItemStatus(OrderItemStatusBulkRequest request) {
         User user = userService.getLoginUser();
         if (user == null || user.getRole() != UserRole.ADMIN) {
             throw new ValidationException("Unauthorized: only admins may update order statuses");
         }
+        if (request == null || request.getStatus() == null) {
+            throw new ValidationException("Target status is required");
+        }
+        OrderStatus newStatus = parseStatus(request.getStatus());
 
-        OrderItem orderItem = orderItemRepo.findById(orderItemId)
-                .orElseThrow(() -> new NotFoundException("Order Item not found"));
+        boolean byIds = request.getOrderItemIds() != null && !request.getOrderItemIds().isEmpty();
+        boolean byFilter = request.getCurrentStatus() != null || request.getStartDate() != null || request.getEndDate() != null;
+        if (byIds == byFilter) {
+            throw new ValidationException("Provide either orderItemIds or a status/date filter");
+        }
 
-        // validate and map status
-        OrderStatus newStatus;
-        try {
-            newStatus = OrderStatus.valueOf(status.toUpperCase());
-        } catch (IllegalArgumentException e) {
-            throw new ValidationException("Invalid order status: " + status);
+        int updated = 0;
+        List<Long> missingIds = new ArrayList<>();
+        if (byIds) {
+            List<Long> ids = request.getOrderItemIds().stream().filter(Objects::nonNull).distinct().toList();
+            if (ids.size() > MAX_BULK_IDS) {
+                throw new ValidationException("At most " + MAX_BULK_IDS + " order items can be updated at once");
+            }
+            for (int from = 0; from < ids.size(); from += BULK_CHUNK_SIZE) {
+                List<Long> chunk = ids.subList(from, Math.min(from + BULK_CHUNK_SIZE, ids.size()));
+                updated += transactionTemplate.execute(status -> {
+                    Set<Long> existing = new HashSet<>(orderItemRepo.findExistingIds(chunk));
+                    chunk.stream().filter(id -> !existing.contains(id)).forEach(missingIds::add);
+                    if (existing.isEmpty()) {
+                        return 0;
+                    }
+                    orderStatusCounters.recordTransitions(
+                            orderItemRepo.countByStatusForIds(existing, newStatus.allowedPredecessors()), newStatus);
+                    return orderItemRepo.updateStatusByIds(existing, newStatus, newStatus.allowedPredecessors());
+                });
+            }
+        } else {
+            OrderStatus currentStatus = request.getCurrentStatus() != null ? parseStatus(request.getCurrentStatus()) : null;
+            long afterId = 0;
+            while (true) {
+                long cursor = afterId;
+                List<Long> chunk = orderItemRepo.findIdsForStatusUpdate(cursor, currentStatus,
+                        request.getStartDate(), request.getEndDate(), newStatus.allowedPredecessors(), Limit.of(BULK_CHUNK_SIZE));
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                // one short transaction per chunk keeps row locks brief on large batches
+                updated += transactionTemplate.execute(status -> {
+                    orderStatusCounters.recordTransitions(
+                            orderItemRepo.countByStatusForIds(chunk, newStatus.allowedPredecessors()), newStatus);
+                    return orderItemRepo.updateStatusByIds(chunk, newStatus, newStatus.allowedPredecessors());
+                });
+                afterId = chunk.get(chunk.size() - 1);
+            }
         }
 
-        orderItem.setStatus(newStatus);
-        orderItemRepo.save(orderItem);
         return Response.builder()
                 .status(200)
-                .message("Order status updated successfully")
+                .message("Order statuses updated successfully")
+                .updatedCount(updated)
+                .missingIds(missingIds)
                 .build();
     }
 
+    private static OrderStatus parseStatus(String status) {
+        try {
+            return OrderStatus.valueOf(status.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Invalid order status: " + status);
+        }
+    }
+
     @Override
     public Response filterOrderItems(OrderStatus status, LocalDateTime startDate, LocalDateTime endDate, Long itemId, Pageable pageable) {
         // authorization: allow admin to view all; users only their own results
@@ -151,22 +298,18 @@ public class OrderItemServiceImpl implements OrderItemService {
             throw new NotFoundException("Authenticated user not found");
         }
 
-        Specification<OrderItem> spec = Specification.where(OrderItemSpecification.hasStatus(status))
-                .and(OrderItemSpecification.createdBetween(startDate, endDate))
-                .and(OrderItemSpecification.hasItemId(itemId));
-
         // If user is not admin, restrict to their own items
-        if (user.getRole() != UserRole.ADMIN) {
-            spec = spec.and(OrderItemSpecification.hasUserId(user.getId()));
-        }
+        Long userId = user.getRole() != UserRole.ADMIN ? user.getId() : null;
 
-        Page<OrderItem> orderItemPage = orderItemRepo.findAll(spec, pageable);
+        // one join for the rows plus one count, instead of lazy loads per item
+        Page<OrderItemRepo.OrderItemRow> orderItemPage =
+                orderItemRepo.findRows(status, startDate, endDate, itemId, userId, pageable);
 
         if (orderItemPage.isEmpty()) {
             throw new NotFoundException("No Order Found");
         }
         List<OrderItemDto> orderItemDtos = orderItemPage.getContent().stream()
-                .map(entityDtoMapper::mapOrderItemToDtoPlusProductAndUser)
+                .map(entityDtoMapper::mapOrderItemRowToDto)
                 .collect(Collectors.toList());
 
         return Response.builder()
@@ -176,4 +319,53 @@ public class OrderItemServiceImpl implements OrderItemService {
                 .totalElement(orderItemPage.getTotalElements())
                 .build();
     }
+
+    @Override
+    public Response filterOrderItems(OrderStatus status, LocalDateTime startDate, LocalDateTime endDate, Long itemId,
+                                     int limit, String cursor, boolean includeTotal) {
+        User user = userService.getLoginUser();
+        if (user == null) {
+            throw new NotFoundException("Authenticated user not found");
+        }
+        if (limit <= 0 || limit > MAX_FILTER_LIMIT) {
+            throw new ValidationException("Limit must be between 1 and " + MAX_FILTER_LIMIT);
+        }
+        boolean admin = user.getRole() == UserRole.ADMIN;
+        Long userId = admin ? null : user.getId();
+
+        LocalDateTime afterCreatedAt = null;
+        Long afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] position = CursorCodec.decode(cursor, 2);
+            try {
+                afterCreatedAt = LocalDateTime.parse(position[0]);
+                afterId = Long.parseLong(position[1]);
+            } catch (NumberFormatException | DateTimeParseException e) {
+                throw new ValidationException("Invalid cursor");
+            }
+        }
+
+        // limit + 1 rows on (created_at, id): the extra row tells whether another slice exists, no count query
+        List<OrderItemRepo.OrderItemRow> rows = orderItemRepo.findRowsBefore(status, startDate, endDate, itemId, userId,
+                afterCreatedAt, afterId, Limit.of(limit + 1));
+        if (rows.isEmpty() && afterId == null) {
+            throw new NotFoundException("No Order Found");
+        }
+
+        boolean hasNext = rows.size() > limit;
+        List<OrderItemRepo.OrderItemRow> slice = hasNext ? rows.subList(0, limit) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            OrderItemRepo.OrderItemRow last = slice.get(slice.size() - 1);
+            nextCursor = CursorCodec.encode(last.getCreatedAt().toString(), String.valueOf(last.getId()));
+        }
+
+        return Response.builder()
+                .status(200)
+                .orderItemList(slice.stream().map(entityDtoMapper::mapOrderItemRowToDto).collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                // counters are global and per status only, so the total ignores date and item filters
+                .approximateTotal(includeTotal && admin ? orderStatusCounters.approximateTotal(status) : null)
+                .build();
+    }
 }
@@ -0,0 +1,122 @@
+package com.example.shopBackend.service;
+
+import com.example.shopBackend.enums.OrderStatus;
+import com.example.shopBackend.repository.OrderItemRepo;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Approximate order item counts per status, so listing pages can show a total without a
+ * {@code COUNT(*)} per request. Seeded with one grouped count at startup, kept current by
+ * the write paths after each commit, and re-seeded periodically to absorb drift from other
+ * nodes or out-of-band edits.
+ */
+@Component
+@Slf4j
+public class OrderStatusCounters {
+
+    private final OrderItemRepo orderItemRepo;
+    private final long resyncMinutes;
+    private final Map<OrderStatus, AtomicLong> counts = new EnumMap<>(OrderStatus.class);
+    private volatile boolean seeded;
+    private ScheduledExecutorService resyncer;
+
+    public OrderStatusCounters(OrderItemRepo orderItemRepo,
+                               @Value("${order.status-counters.resync-minutes:10}") long resyncMinutes) {
+        this.orderItemRepo = orderItemRepo;
+        this.resyncMinutes = resyncMinutes;
+        for (OrderStatus status : OrderStatus.values()) {
+            counts.put(status, new AtomicLong());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        resync();
+        if (resyncMinutes > 0) {
+            resyncer = Executors.newSingleThreadScheduledExecutor(runnable -> new Thread(runnable, "order-status-counters"));
+            resyncer.scheduleWithFixedDelay(this::resync, resyncMinutes, resyncMinutes, TimeUnit.MINUTES);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (resyncer != null) {
+            resyncer.shutdownNow();
+        }
+    }
+
+    void resync() {
+        try {
+            Map<OrderStatus, Long> fresh = new EnumMap<>(OrderStatus.class);
+            for (Object[] row : orderItemRepo.countByStatus()) {
+                fresh.put((OrderStatus) row[0], ((Number) row[1]).longValue());
+            }
+            counts.forEach((status, counter) -> counter.set(fresh.getOrDefault(status, 0L)));
+            seeded = true;
+        } catch (RuntimeException e) {
+            log.warn("Could not refresh order status counters: {}", e.getMessage());
+        }
+    }
+
+    /** Approximate number of order items in the status, or in any status when null; null until seeded. */
+    public Long approximateTotal(OrderStatus status) {
+        if (!seeded) {
+            return null;
+        }
+        if (status != null) {
+            return Math.max(0, counts.get(status).get());
+        }
+        return Math.max(0, counts.values().stream().mapToLong(AtomicLong::get).sum());
+    }
+
+    /** New items always start as {@link OrderStatus#PENDING}. */
+    public void recordCreated(int itemCount) {
+        afterCommit(() -> counts.get(OrderStatus.PENDING).addAndGet(itemCount));
+    }
+
+    public void recordTransition(OrderStatus from, OrderStatus to, long itemCount) {
+        if (from == to || itemCount == 0) {
+            return;
+        }
+        afterCommit(() -> {
+            counts.get(from).addAndGet(-itemCount);
+            counts.get(to).addAndGet(itemCount);
+        });
+    }
+
+    /** {@code statusCounts} holds [status, count] rows as returned by the grouped repository queries. */
+    public void recordTransitions(List<Object[]> statusCounts, OrderStatus to) {
+        for (Object[] row : statusCounts) {
+            recordTransition((OrderStatus) row[0], to, ((Number) row[1]).longValue());
+        }
+    }
+
+    // rolled back writes must not move the counters
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -11,6 +11,16 @@ public interface ProductService {
     Response deleteProduct(Long productId);
     Response getProductById(Long productId);
     Response getAllProducts();
+    Response getAllProducts(int limit, String cursor);
     Response getProductsByCategory(Long categoryId);
-    Response searchProduct(String searchValue);
+    Response getProductsByCategory(Long categoryId, int limit, String cursor);
+    Response searchProduct(String searchValue, int page, int size);
+    Response suggestProducts(String prefix, int limit);
+    Response filterProducts(Long categoryId, BigDecimal minPrice, BigDecimal maxPrice, String sort, int limit, String cursor);
+    Response browseProducts(Long categoryId, BigDecimal minPrice, BigDecimal maxPrice, int limit, String cursor);
+    Response getProductCacheStats();
+    Response getProductStock(Long productId);
+    Response updateProductStock(Long productId, Integer stock);
+    Response updateFlashSale(Long productId, boolean enabled, Integer permits);
+    Response getFlashSaleStats();
 }
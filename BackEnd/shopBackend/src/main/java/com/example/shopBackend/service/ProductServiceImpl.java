@@ -1,29 +1,53 @@
 package com.example.shopBackend.service;
 
+import com.example.shopBackend.cache.BoundedTtlCache;
+import com.example.shopBackend.cache.CatalogVersion;
+import com.example.shopBackend.cache.CategorySnapshot;
+import com.example.shopBackend.dto.CategoryDto;
+import com.example.shopBackend.dto.FacetBucketDto;
 import com.example.shopBackend.dto.ProductDto;
 import com.example.shopBackend.dto.Response;
 import com.example.shopBackend.entity.Category;
 import com.example.shopBackend.entity.Product;
+import com.example.shopBackend.enums.ProductSort;
 import com.example.shopBackend.enums.UserRole;
+import com.example.shopBackend.event.ProductChangedEvent;
 import com.example.shopBackend.exceptions.NotFoundException;
+import com.example.shopBackend.inventory.FlashSaleGate;
+import com.example.shopBackend.inventory.StockLedger;
 import com.example.shopBackend.security.XssSanitizer;
+import com.example.shopBackend.specification.ProductSpecification;
+import com.example.shopBackend.util.CursorCodec;
 import jakarta.validation.ValidationException;
 
 import com.example.shopBackend.mapper.EntityDtoMapper;
 import com.example.shopBackend.repository.CategoryRepo;
 import com.example.shopBackend.repository.ProductRepo;
+import com.example.shopBackend.search.ProductFacetIndex;
+import com.example.shopBackend.search.ProductSearchIndex;
+import com.example.shopBackend.search.ProductSuggestIndex;
+import com.example.shopBackend.search.ProductTrigramIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.io.FilenameUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -41,10 +65,33 @@ public class ProductServiceImpl implements ProductService {
     private final UserService userService;
     @Autowired
     private final XssSanitizer xssSanitizer;
+    @Autowired
+    private final ProductSearchIndex productSearchIndex;
+    @Autowired
+    private final ProductTrigramIndex productTrigramIndex;
+    @Autowired
+    private final ProductSuggestIndex productSuggestIndex;
+    @Autowired
+    private final ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private final BoundedTtlCache<Long, ProductDto> productCache;
+    @Autowired
+    private final ProductFacetIndex productFacetIndex;
+    @Autowired
+    private final CategorySnapshot categorySnapshot;
+    @Autowired
+    private final StockLedger stockLedger;
+    @Autowired
+    private final FlashSaleGate flashSaleGate;
 
     private static final long MAX_FILE_SIZE = 5 * 1024 * 1024; // 5MB
     private static final String[] ALLOWED_EXT = {"jpg", "jpeg", "png", "webp"};
     private static final String UPLOAD_DIR = "uploads/images/";
+    private static final int MAX_PAGE_LIMIT = 100;
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+    private static final int MAX_PREFIX_LENGTH = 100;
+    // fixed-width ISO-8601 for NEWEST cursors; LocalDateTime.toString drops zero seconds and nanos
+    private static final DateTimeFormatter CURSOR_TIME = DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm:ss.SSSSSSSSS");
 
     private String saveFileLocally(MultipartFile file) {
         try {
@@ -137,7 +184,8 @@ public class ProductServiceImpl implements ProductService {
         String fileUrl = saveFileLocally(image);
         product.setImageUrl(fileUrl);
 
-        productRepo.save(product);
+        Product savedProduct = productRepo.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.saved(savedProduct));
         return Response.builder()
                 .status(200)
                 .message("Product successfully created")
@@ -179,7 +227,8 @@ public class ProductServiceImpl implements ProductService {
         }
         if (productImageUrl != null) product.setImageUrl(productImageUrl);
 
-        productRepo.save(product);
+        Product savedProduct = productRepo.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.saved(savedProduct));
         return Response.builder()
                 .status(200)
                 .message("Product updated successfully")
@@ -197,6 +246,7 @@ public class ProductServiceImpl implements ProductService {
 
         Product product = productRepo.findById(productId).orElseThrow(() -> new NotFoundException("Product Not Found"));
         productRepo.delete(product);
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(productId));
 
         return Response.builder()
                 .status(200)
@@ -206,8 +256,10 @@ public class ProductServiceImpl implements ProductService {
 
     @Override
     public Response getProductById(Long productId) {
-        Product product = productRepo.findById(productId).orElseThrow(() -> new NotFoundException("Product Not Found"));
-        ProductDto productDto = entityDtoMapper.mapProductToDtoBasic(product);
+        ProductDto productDto = productCache.get(productId, id -> {
+            Product product = productRepo.findById(id).orElseThrow(() -> new NotFoundException("Product Not Found"));
+            return entityDtoMapper.mapProductToDtoBasic(product);
+        });
 
         return Response.builder()
                 .status(200)
@@ -229,6 +281,19 @@ public class ProductServiceImpl implements ProductService {
 
     }
 
+    @Override
+    public Response getAllProducts(int limit, String cursor) {
+        int pageLimit = validatePageLimit(limit);
+        Long lastId = CursorCodec.decodeId(cursor);
+
+        // fetch one extra row to learn whether another page exists without a COUNT(*)
+        List<Product> products = lastId == null
+                ? productRepo.findAllByOrderByIdDesc(Limit.of(pageLimit + 1))
+                : productRepo.findByIdLessThanOrderByIdDesc(lastId, Limit.of(pageLimit + 1));
+
+        return buildProductPage(products, pageLimit);
+    }
+
     @Override
     public Response getProductsByCategory(Long categoryId) {
         List<Product> products = productRepo.findByCategoryId(categoryId);
@@ -247,24 +312,261 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
-    public Response searchProduct(String searchValue) {
+    public Response getProductsByCategory(Long categoryId, int limit, String cursor) {
+        int pageLimit = validatePageLimit(limit);
+        Long lastId = CursorCodec.decodeId(cursor);
+
+        List<Product> products = lastId == null
+                ? productRepo.findByCategoryIdOrderByIdDesc(categoryId, Limit.of(pageLimit + 1))
+                : productRepo.findByCategoryIdAndIdLessThanOrderByIdDesc(categoryId, lastId, Limit.of(pageLimit + 1));
+
+        if (products.isEmpty() && lastId == null) {
+            throw new NotFoundException("No Products found for this category");
+        }
+        return buildProductPage(products, pageLimit);
+    }
+
+    private int validatePageLimit(int limit) {
+        if (limit <= 0 || limit > MAX_PAGE_LIMIT) {
+            throw new ValidationException("Limit must be between 1 and " + MAX_PAGE_LIMIT);
+        }
+        return limit;
+    }
+
+    private Response buildProductPage(List<Product> products, int pageLimit) {
+        boolean hasNext = products.size() > pageLimit;
+        List<Product> page = hasNext ? products.subList(0, pageLimit) : products;
+
+        List<ProductDto> productDtoList = page.stream()
+                .map(entityDtoMapper::mapProductToDtoBasic)
+                .collect(Collectors.toList());
+
+        return Response.builder()
+                .status(200)
+                .productList(productDtoList)
+                .nextCursor(hasNext ? CursorCodec.encodeId(page.get(page.size() - 1).getId()) : null)
+                .build();
+    }
+
+    @Override
+    public Response searchProduct(String searchValue, int page, int size) {
         if (searchValue == null || searchValue.isBlank()) {
             throw new ValidationException("Search value required");
         }
+        if (page < 0 || size <= 0 || size > MAX_SEARCH_PAGE_SIZE) {
+            throw new ValidationException("Invalid page or size");
+        }
         String safeSearch = xssSanitizer.sanitize(searchValue.trim());
-        List<Product> products = productRepo.findByNameContainingOrDescriptionContaining(safeSearch, safeSearch);
+        ProductSearchIndex.SearchPage result = productSearchIndex.search(safeSearch, page, size);
 
-        if (products.isEmpty()) {
-            throw new NotFoundException("No Products Found");
+        if (result.getTotalElements() == 0) {
+            // no exact token match, fall back to typo-tolerant matching on product names
+            ProductTrigramIndex.FuzzyPage fuzzy = productTrigramIndex.search(safeSearch, page, size);
+            if (fuzzy.getTotalElements() == 0) {
+                throw new NotFoundException("No Products Found");
+            }
+            return Response.builder()
+                    .status(200)
+                    .message("No exact matches found")
+                    .suggestion(fuzzy.getSuggestion())
+                    .productList(fuzzy.getProducts())
+                    .totalElement(fuzzy.getTotalElements())
+                    .totalPage((int) ((fuzzy.getTotalElements() + size - 1) / size))
+                    .build();
         }
-        List<ProductDto> productDtoList = products.stream()
-                .map(entityDtoMapper::mapProductToDtoBasic)
-                .collect(Collectors.toList());
 
+        return Response.builder()
+                .status(200)
+                .productList(result.getProducts())
+                .totalElement(result.getTotalElements())
+                .totalPage((int) ((result.getTotalElements() + size - 1) / size))
+                .build();
+    }
+
+    @Override
+    public Response suggestProducts(String prefix, int limit) {
+        if (prefix == null || prefix.isBlank()) {
+            throw new ValidationException("Prefix required");
+        }
+        if (prefix.length() > MAX_PREFIX_LENGTH) {
+            throw new ValidationException("Prefix too long");
+        }
+        if (limit <= 0 || limit > ProductSuggestIndex.MAX_SUGGESTIONS) {
+            throw new ValidationException("Limit must be between 1 and " + ProductSuggestIndex.MAX_SUGGESTIONS);
+        }
+        List<ProductDto> suggestions = productSuggestIndex.suggest(prefix.trim(), limit);
 
         return Response.builder()
                 .status(200)
-                .productList(productDtoList)
+                .productList(suggestions)
+                .build();
+    }
+
+    @Override
+    public Response filterProducts(Long categoryId, BigDecimal minPrice, BigDecimal maxPrice, String sort, int limit, String cursor) {
+        int pageLimit = validatePageLimit(limit);
+        ProductSort productSort;
+        try {
+            productSort = ProductSort.valueOf(sort.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Invalid sort: " + sort);
+        }
+
+        Specification<Product> spec = ProductSpecification.hasCategoryId(categoryId)
+                .and(ProductSpecification.priceBetween(minPrice, maxPrice));
+
+        if (cursor != null && !cursor.isBlank()) {
+            String[] position = CursorCodec.decode(cursor, 2);
+            try {
+                Long lastId = Long.parseLong(position[1]);
+                spec = spec.and(productSort == ProductSort.NEWEST
+                        ? ProductSpecification.createdBefore(LocalDateTime.parse(position[0], CURSOR_TIME), lastId)
+                        : ProductSpecification.afterPrice(new BigDecimal(position[0]), lastId, productSort == ProductSort.PRICE_ASC));
+            } catch (NumberFormatException | DateTimeParseException e) {
+                throw new ValidationException("Invalid cursor");
+            }
+        }
+
+        // limit + 1 rows through the fluent API: keyset on the sort key, no count query
+        List<Product> products = productRepo.findBy(spec, query -> query
+                .sortBy(ProductSpecification.sortFor(productSort))
+                .limit(pageLimit + 1)
+                .all());
+
+        boolean hasNext = products.size() > pageLimit;
+        List<Product> page = hasNext ? products.subList(0, pageLimit) : products;
+        String nextCursor = null;
+        if (hasNext) {
+            Product last = page.get(page.size() - 1);
+            String sortKey = productSort == ProductSort.NEWEST ? CURSOR_TIME.format(last.getCreatedAt()) : last.getPrice().toPlainString();
+            nextCursor = CursorCodec.encode(sortKey, String.valueOf(last.getId()));
+        }
+
+        return Response.builder()
+                .status(200)
+                .productList(page.stream().map(entityDtoMapper::mapProductToDtoBasic).collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    @Override
+    public Response browseProducts(Long categoryId, BigDecimal minPrice, BigDecimal maxPrice, int limit, String cursor) {
+        int pageLimit = validatePageLimit(limit);
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            throw new ValidationException("Min price must not exceed max price");
+        }
+        ProductFacetIndex.BrowseResult result = productFacetIndex.browse(
+                categoryId,
+                minPrice == null ? null : ProductFacetIndex.toCents(minPrice),
+                maxPrice == null ? null : ProductFacetIndex.toCents(maxPrice),
+                CursorCodec.decodeId(cursor),
+                pageLimit);
+
+        List<FacetBucketDto> categoryFacets = new ArrayList<>();
+        result.getCategoryCounts().forEach((id, count) -> {
+            CategoryDto category = categorySnapshot.getById(id);
+            categoryFacets.add(new FacetBucketDto(id, category != null ? category.getName() : null, null, null, count));
+        });
+
+        List<FacetBucketDto> priceFacets = new ArrayList<>();
+        long[] floors = ProductFacetIndex.PRICE_BUCKET_FLOORS;
+        for (int i = 0; i < floors.length; i++) {
+            BigDecimal min = BigDecimal.valueOf(floors[i], 2);
+            BigDecimal max = i + 1 < floors.length ? BigDecimal.valueOf(floors[i + 1], 2) : null;
+            priceFacets.add(new FacetBucketDto(null, null, min, max, result.getPriceBucketCounts()[i]));
+        }
+
+        return Response.builder()
+                .status(200)
+                .productList(result.getProducts())
+                .nextCursor(CursorCodec.encodeId(result.getNextCursor()))
+                .categoryFacets(categoryFacets)
+                .priceFacets(priceFacets)
+                .build();
+    }
+
+    @Order(CatalogVersion.READ_MODEL_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void evictCachedProduct(ProductChangedEvent event) {
+        productCache.invalidate(event.getProductId());
+    }
+
+    @Override
+    public Response getProductCacheStats() {
+        return Response.builder()
+                .status(200)
+                .cacheStats(productCache.stats())
+                .build();
+    }
+
+    @Override
+    public Response getProductStock(Long productId) {
+        if (!productRepo.existsById(productId)) {
+            throw new NotFoundException("Product Not Found");
+        }
+        ProductDto productDto = new ProductDto();
+        productDto.setId(productId);
+        productDto.setStock(stockLedger.available(productId));
+        return Response.builder()
+                .status(200)
+                .product(productDto)
+                .build();
+    }
+
+    @Override
+    public Response updateProductStock(Long productId, Integer stock) {
+        var user = userService.getLoginUser();
+        if (user == null || user.getRole() != UserRole.ADMIN) {
+            throw new ValidationException("Unauthorized");
+        }
+        if (stock != null && stock < 0) {
+            throw new ValidationException("Stock must be >= 0");
+        }
+        Product product = productRepo.findById(productId).orElseThrow(() -> new NotFoundException("Product Not Found"));
+        stockLedger.setStock(productId, stock);
+        // a restock during a flash sale puts the new units on sale
+        if (flashSaleGate.isOpen(productId) && stock != null) {
+            flashSaleGate.open(productId, stock);
+        }
+        eventPublisher.publishEvent(ProductChangedEvent.saved(product));
+        return Response.builder()
+                .status(200)
+                .message("Product stock updated successfully")
+                .build();
+    }
+
+    @Override
+    public Response updateFlashSale(Long productId, boolean enabled, Integer permits) {
+        var user = userService.getLoginUser();
+        if (user == null || user.getRole() != UserRole.ADMIN) {
+            throw new ValidationException("Unauthorized");
+        }
+        Product product = productRepo.findById(productId).orElseThrow(() -> new NotFoundException("Product Not Found"));
+
+        if (enabled) {
+            // default to the live stock so the gate never admits more than can be sold
+            Integer saleUnits = permits != null ? permits : stockLedger.available(productId);
+            if (saleUnits == null || saleUnits < 0) {
+                throw new ValidationException("Flash sale needs tracked stock or a permit count");
+            }
+            flashSaleGate.open(productId, saleUnits);
+        } else {
+            flashSaleGate.close(productId);
+        }
+        product.setFlashSale(enabled);
+        Product savedProduct = productRepo.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.saved(savedProduct));
+        return Response.builder()
+                .status(200)
+                .message(enabled ? "Flash sale enabled" : "Flash sale disabled")
+                .build();
+    }
+
+    @Override
+    public Response getFlashSaleStats() {
+        return Response.builder()
+                .status(200)
+                .flashSaleStats(flashSaleGate.stats())
                 .build();
     }
 }
@@ -1,6 +1,7 @@
 package com.example.shopBackend.service;
 
 import com.example.shopBackend.dto.LoginRequest;
+import com.example.shopBackend.dto.RefreshTokenRequest;
 import com.example.shopBackend.dto.UserDto;
 import com.example.shopBackend.entity.User;
 import com.example.shopBackend.dto.Response;
@@ -9,7 +10,12 @@ import com.example.shopBackend.entity.User;
 public interface UserService {
     Response registerUser(UserDto registrationRequest);
   Response loginUser(LoginRequest loginRequest);
+    Response refreshToken(RefreshTokenRequest refreshTokenRequest);
+    Response logout(RefreshTokenRequest refreshTokenRequest);
+    Response revokeUserSessions(Long userId);
+    Response updateUserRole(Long userId, String role);
     Response getAllUsers();
     User getLoginUser();
     Response getUserInfoAndOrderHistory();
+    Response getPrincipalStats();
 }
@@ -1,24 +1,31 @@
 package com.example.shopBackend.service;
 
 import com.example.shopBackend.dto.LoginRequest;
+import com.example.shopBackend.dto.RefreshTokenRequest;
 import com.example.shopBackend.dto.Response;
 import com.example.shopBackend.dto.UserDto;
 import com.example.shopBackend.entity.User;
 import com.example.shopBackend.enums.UserRole;
 import com.example.shopBackend.exceptions.InvalidCredentialsException;
 import com.example.shopBackend.exceptions.NotFoundException;
+import com.example.shopBackend.exceptions.TooManyRequestsException;
 import com.example.shopBackend.security.XssSanitizer;
 import jakarta.validation.ValidationException;
 
+import com.example.shopBackend.event.UserChangedEvent;
 import com.example.shopBackend.mapper.EntityDtoMapper;
 import com.example.shopBackend.repository.UserRepo;
+import com.example.shopBackend.security.AuthUser;
 import com.example.shopBackend.security.JwtUtils;
+import com.example.shopBackend.security.PasswordHasher;
+import com.example.shopBackend.security.PrincipalCache;
+import com.example.shopBackend.security.RefreshTokenService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
@@ -32,11 +39,17 @@ public class UserServiceImpl implements UserService {
     @Autowired
     private EntityDtoMapper entityDtoMapper;
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHasher passwordHasher;
     @Autowired
     private JwtUtils jwtUtils;
     @Autowired
     private XssSanitizer xssSanitizer;
+    @Autowired
+    private PrincipalCache principalCache;
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     private static final int MAX_NAME_LENGTH = 100;
     private static final int MAX_EMAIL_LENGTH = 254;
@@ -89,12 +102,13 @@ public class UserServiceImpl implements UserService {
         User user = User.builder()
                 .name(safeName)
                 .email(safeEmail)
-                .password(passwordEncoder.encode(registrationRequest.getPassword()))
+                .password(passwordHasher.encode(registrationRequest.getPassword()))
                 .phoneNumber(registrationRequest.getPhoneNumber() != null ? xssSanitizer.sanitize(registrationRequest.getPhoneNumber()) : null)
                 .role(role)
                 .build();
 
         User savedUser = userRepo.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(savedUser.getEmail()));
         log.debug("Registered user id: {}", savedUser.getId());
 
         UserDto userDto = entityDtoMapper.mapUserToDtoBasic(savedUser);
@@ -125,10 +139,15 @@ public class UserServiceImpl implements UserService {
         if (authentication == null || authentication.getName() == null) {
             throw new UsernameNotFoundException("User Not found");
         }
-        String email = authentication.getName();
-        log.info("User Email is: " + email);
-        return userRepo.findByEmail(email)
-                .orElseThrow(() -> new UsernameNotFoundException("User Not found"));
+        // the filter already resolved the user for this request
+        if (authentication.getPrincipal() instanceof AuthUser authUser) {
+            return authUser.getUser();
+        }
+        User user = principalCache.load(authentication.getName());
+        if (user == null) {
+            throw new UsernameNotFoundException("User Not found");
+        }
+        return user;
     }
 
     @Override
@@ -138,24 +157,94 @@ public class UserServiceImpl implements UserService {
         }
 
         User user = userRepo.findByEmail(loginRequest.getEmail().trim().toLowerCase()).orElseThrow(() -> new NotFoundException("Email not found"));
-        if (!passwordEncoder.matches(loginRequest.getPassword(), user.getPassword())) {
+        if (!passwordHasher.matches(loginRequest.getPassword(), user.getPassword())) {
             throw new InvalidCredentialsException("Password does not match");
         }
-        String token = jwtUtils.generateToken(user);
+        rehashIfNeeded(user, loginRequest.getPassword());
+        RefreshTokenService.IssuedTokens tokens = refreshTokenService.issue(user);
 
         return Response.builder()
                 .status(200)
                 .message("User Successfully Logged In")
-                .token(token)
-                .expirationTime("6 Month")
+                .token(tokens.getAccessToken())
+                .refreshToken(tokens.getRefreshToken())
+                .expirationTime(jwtUtils.getAccessTokenMinutes() + " Minutes")
                 .role(user.getRole().name())
                 .build();
     }
 
+    @Override
+    public Response refreshToken(RefreshTokenRequest refreshTokenRequest) {
+        if (refreshTokenRequest == null || !StringUtils.hasText(refreshTokenRequest.getRefreshToken())) {
+            throw new ValidationException("Refresh token required");
+        }
+        RefreshTokenService.IssuedTokens tokens = refreshTokenService.refresh(refreshTokenRequest.getRefreshToken());
+
+        return Response.builder()
+                .status(200)
+                .message("Token refreshed")
+                .token(tokens.getAccessToken())
+                .refreshToken(tokens.getRefreshToken())
+                .expirationTime(jwtUtils.getAccessTokenMinutes() + " Minutes")
+                .build();
+    }
+
+    @Override
+    public Response logout(RefreshTokenRequest refreshTokenRequest) {
+        if (refreshTokenRequest == null || !StringUtils.hasText(refreshTokenRequest.getRefreshToken())) {
+            throw new ValidationException("Refresh token required");
+        }
+        refreshTokenService.logout(refreshTokenRequest.getRefreshToken());
+
+        return Response.builder()
+                .status(200)
+                .message("User Successfully Logged Out")
+                .build();
+    }
+
+    @Override
+    public Response revokeUserSessions(Long userId) {
+        User user = userRepo.findById(userId).orElseThrow(() -> new NotFoundException("User Not found"));
+        int revoked = refreshTokenService.revokeAllSessions(userId);
+        // sessions are usually revoked after an account was edited, the next login must see the edit
+        eventPublisher.publishEvent(new UserChangedEvent(user.getEmail()));
+
+        return Response.builder()
+                .status(200)
+                .message("Revoked " + revoked + " session(s)")
+                .build();
+    }
+
+    @Override
+    public Response updateUserRole(Long userId, String role) {
+        if (!StringUtils.hasText(role)) {
+            throw new ValidationException("Role is required");
+        }
+        UserRole newRole;
+        try {
+            newRole = UserRole.valueOf(role.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Invalid role: " + role);
+        }
+        User user = userRepo.findById(userId).orElseThrow(() -> new NotFoundException("User Not found"));
+        user.setRole(newRole);
+        userRepo.save(user);
+        // authorities come from the cached principal, so the new role applies from the next request
+        eventPublisher.publishEvent(new UserChangedEvent(user.getEmail()));
+
+        return Response.builder()
+                .status(200)
+                .message("User role updated")
+                .user(entityDtoMapper.mapUserToDtoBasic(user))
+                .build();
+    }
+
     @Override
     public Response getUserInfoAndOrderHistory() {
 
-        User user = getLoginUser();
+        // the principal is a detached snapshot, the address and history need the entity
+        User user = userRepo.findById(getLoginUser().getId())
+                .orElseThrow(() -> new UsernameNotFoundException("User Not found"));
         UserDto userDto = entityDtoMapper.mapUserToDtoPlusAddressAndOrderHistory(user);
 
         return Response.builder()
@@ -164,4 +253,27 @@ public class UserServiceImpl implements UserService {
                 .build();
 
     }
+
+    // migrates the stored hash to the configured BCrypt cost while the raw password is at hand
+    private void rehashIfNeeded(User user, String rawPassword) {
+        if (!passwordHasher.needsRehash(user.getPassword())) {
+            return;
+        }
+        try {
+            user.setPassword(passwordHasher.encode(rawPassword));
+            userRepo.save(user);
+            eventPublisher.publishEvent(new UserChangedEvent(user.getEmail()));
+        } catch (TooManyRequestsException e) {
+            // best effort, the next login tries again
+            log.debug("Skipped password rehash for user id {} under load", user.getId());
+        }
+    }
+
+    @Override
+    public Response getPrincipalStats() {
+        return Response.builder()
+                .status(200)
+                .principalStats(principalCache.stats())
+                .build();
+    }
 }
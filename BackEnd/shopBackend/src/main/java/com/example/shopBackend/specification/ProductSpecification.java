@@ -0,0 +1,63 @@
+package com.example.shopBackend.specification;
+
+import com.example.shopBackend.entity.Product;
+import com.example.shopBackend.enums.ProductSort;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public class ProductSpecification {
+
+    public static Specification<Product> hasCategoryId(Long categoryId) {
+        return (root, query, cb) -> categoryId == null ? null : cb.equal(root.get("category").get("id"), categoryId);
+    }
+
+    public static Specification<Product> priceBetween(BigDecimal minPrice, BigDecimal maxPrice) {
+        return (root, query, cb) -> {
+            if (minPrice != null && maxPrice != null) {
+                return cb.between(root.get("price"), minPrice, maxPrice);
+            } else if (minPrice != null) {
+                return cb.greaterThanOrEqualTo(root.get("price"), minPrice);
+            } else if (maxPrice != null) {
+                return cb.lessThanOrEqualTo(root.get("price"), maxPrice);
+            }
+            return null;
+        };
+    }
+
+    // keyset predicate: rows strictly after (price, id) in the requested direction
+    public static Specification<Product> afterPrice(BigDecimal price, Long id, boolean ascending) {
+        return (root, query, cb) -> {
+            if (price == null || id == null) {
+                return null;
+            }
+            if (ascending) {
+                return cb.or(cb.greaterThan(root.get("price"), price),
+                        cb.and(cb.equal(root.get("price"), price), cb.greaterThan(root.get("id"), id)));
+            }
+            return cb.or(cb.lessThan(root.get("price"), price),
+                    cb.and(cb.equal(root.get("price"), price), cb.lessThan(root.get("id"), id)));
+        };
+    }
+
+    // keyset predicate: rows older than (createdAt, id)
+    public static Specification<Product> createdBefore(LocalDateTime createdAt, Long id) {
+        return (root, query, cb) -> {
+            if (createdAt == null || id == null) {
+                return null;
+            }
+            return cb.or(cb.lessThan(root.get("createdAt"), createdAt),
+                    cb.and(cb.equal(root.get("createdAt"), createdAt), cb.lessThan(root.get("id"), id)));
+        };
+    }
+
+    public static Sort sortFor(ProductSort sort) {
+        return switch (sort) {
+            case PRICE_ASC -> Sort.by(Sort.Direction.ASC, "price", "id");
+            case PRICE_DESC -> Sort.by(Sort.Direction.DESC, "price", "id");
+            case NEWEST -> Sort.by(Sort.Direction.DESC, "createdAt", "id");
+        };
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.shopBackend.util;
+
+import jakarta.validation.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes keyset pagination positions as opaque, URL-safe cursor strings so clients
+ * never depend on the underlying column values.
+ */
+public final class CursorCodec {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    private static final String SEPARATOR = "|";
+
+    private CursorCodec() {
+    }
+
+    public static String encodeId(Long id) {
+        return id == null ? null : encode(String.valueOf(id));
+    }
+
+    public static Long decodeId(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(decode(cursor, 1)[0]);
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Invalid cursor");
+        }
+    }
+
+    // composite cursors, e.g. (sort key, id)
+    public static String encode(String... parts) {
+        return ENCODER.encodeToString(String.join(SEPARATOR, parts).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String[] decode(String cursor, int expectedParts) {
+        try {
+            String[] parts = new String(DECODER.decode(cursor), StandardCharsets.UTF_8).split("\\|", -1);
+            if (parts.length != expectedParts) {
+                throw new ValidationException("Invalid cursor");
+            }
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.shopBackend.web;
+
+import com.example.shopBackend.dto.Response;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Captures successful catalog responses that missed {@link CatalogBodyCacheInterceptor}.
+ * The body is serialized once: the bytes are stored for the next request and written
+ * to the response directly, and returning null tells Spring there is nothing left to
+ * convert.
+ */
+@ControllerAdvice
+@Slf4j
+@RequiredArgsConstructor
+public class CatalogBodyCacheAdvice implements ResponseBodyAdvice<Object> {
+    @Autowired
+    private final CatalogBodyCacheInterceptor catalogBodyCacheInterceptor;
+    @Autowired
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (!(body instanceof Response catalogResponse) || catalogResponse.getStatus() != 200
+                || !(request instanceof ServletServerHttpRequest servletRequest)
+                || !(response instanceof ServletServerHttpResponse servletResponse)
+                || !HttpStatusCode.valueOf(servletResponse.getServletResponse().getStatus()).is2xxSuccessful()) {
+            return body;
+        }
+        Object key = servletRequest.getServletRequest().getAttribute(CatalogBodyCacheInterceptor.CACHE_KEY_ATTRIBUTE);
+        if (key == null) {
+            return body;
+        }
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            log.warn("Could not pre-serialize catalog response for {}", key, e);
+            return body;
+        }
+        try {
+            catalogBodyCacheInterceptor.write(servletRequest.getServletRequest(), servletResponse.getServletResponse(),
+                    catalogBodyCacheInterceptor.store((String) key, json));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.shopBackend.web;
+
+import com.example.shopBackend.cache.BoundedTtlCache;
+import com.example.shopBackend.cache.CatalogVersion;
+import com.example.shopBackend.cache.EvictionPolicy;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serves hot catalog responses from pre-serialized JSON bytes, optionally pre-gzipped.
+ * Entries are keyed by catalog version and URL, so a catalog change simply makes the old
+ * entries unreachable. Misses fall through to the controller and are captured by
+ * {@link CatalogBodyCacheAdvice}. The gzip variant is a different representation and
+ * gets its own ETag from {@link CatalogETagInterceptor}.
+ */
+@Component
+public class CatalogBodyCacheInterceptor implements HandlerInterceptor {
+
+    static final String CACHE_KEY_ATTRIBUTE = CatalogBodyCacheInterceptor.class.getName() + ".key";
+    static final String[] PATHS = {"/product/get-all", "/product/get-by-category-id/**"};
+
+    private final CatalogVersion catalogVersion;
+    private final boolean enabled;
+    private final boolean gzip;
+    private final BoundedTtlCache<String, SerializedBody> bodies;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public CatalogBodyCacheInterceptor(CatalogVersion catalogVersion,
+                                       @Value("${catalog.body-cache.enabled:false}") boolean enabled,
+                                       @Value("${catalog.body-cache.gzip:true}") boolean gzip,
+                                       @Value("${catalog.body-cache.capacity:256}") int capacity,
+                                       @Value("${catalog.body-cache.ttl-seconds:600}") long ttlSeconds) {
+        this.catalogVersion = catalogVersion;
+        this.enabled = enabled;
+        this.gzip = gzip;
+        this.bodies = new BoundedTtlCache<>("catalog-body", enabled, capacity, ttlSeconds, EvictionPolicy.LRU);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        if (!enabled || !"GET".equals(request.getMethod())) {
+            return true;
+        }
+        String key = catalogVersion.current() + ":" + request.getRequestURI()
+                + (request.getQueryString() != null ? "?" + request.getQueryString() : "");
+        SerializedBody body = bodies.getIfPresent(key);
+        if (body == null) {
+            request.setAttribute(CACHE_KEY_ATTRIBUTE, key);
+            return true;
+        }
+        response.setStatus(HttpServletResponse.SC_OK);
+        write(request, response, body);
+        return false;
+    }
+
+    /** True when responses for this request may come gzipped, whatever the client accepts. */
+    boolean variesByEncoding(HttpServletRequest request) {
+        if (!enabled || !gzip) {
+            return false;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (String pattern : PATHS) {
+            if (pathMatcher.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** True when this request will be answered with the gzip representation. */
+    boolean servesGzip(HttpServletRequest request) {
+        return variesByEncoding(request) && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+    }
+
+    SerializedBody store(String key, byte[] json) {
+        SerializedBody body = new SerializedBody(json, gzip ? gzip(json) : null);
+        bodies.put(key, body);
+        return body;
+    }
+
+    void write(HttpServletRequest request, HttpServletResponse response, SerializedBody body) throws IOException {
+        boolean sendGzip = body.gzipped != null && servesGzip(request);
+        byte[] bytes = sendGzip ? body.gzipped : body.json;
+
+        CatalogETagInterceptor.applyHeaders(request, response);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        if (sendGzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setContentLength(bytes.length);
+        response.getOutputStream().write(bytes);
+    }
+
+    // "gzip" or "gzip;q=..." with a non-zero weight
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            if (!parts[0].trim().equalsIgnoreCase("gzip")) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=") && param.substring(2).trim().matches("0(\\.0*)?")) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzipOut = new GZIPOutputStream(out)) {
+            gzipOut.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    @AllArgsConstructor
+    static class SerializedBody {
+        private final byte[] json;
+        private final byte[] gzipped;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.shopBackend.web;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Adds the catalog ETag and Cache-Control recorded by {@link CatalogETagInterceptor} to
+ * 2xx responses only. The status is final by the time the body is written, which
+ * postHandle would be too late for.
+ */
+@ControllerAdvice
+public class CatalogETagAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servletRequest
+                && response instanceof ServletServerHttpResponse servletResponse
+                && HttpStatusCode.valueOf(servletResponse.getServletResponse().getStatus()).is2xxSuccessful()) {
+            CatalogETagInterceptor.applyHeaders(servletRequest.getServletRequest(), servletResponse.getServletResponse());
+        }
+        return body;
+    }
+}
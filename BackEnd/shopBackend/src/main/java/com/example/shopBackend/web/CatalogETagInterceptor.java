@@ -0,0 +1,83 @@
+package com.example.shopBackend.web;
+
+import com.example.shopBackend.cache.CatalogVersion;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Conditional GET for catalog reads. The ETag is the catalog version, so a matching
+ * If-None-Match is answered with 304 before the controller, repositories or Jackson run.
+ * Otherwise the validators are only recorded here; {@link CatalogETagAdvice} adds them
+ * once the handler has produced a successful response, so errors are never cacheable.
+ * The pre-gzipped body is a separate representation with its own {@code -gzip} ETag.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogETagInterceptor implements HandlerInterceptor {
+
+    private static final String HEADERS_ATTRIBUTE = CatalogETagInterceptor.class.getName() + ".headers";
+
+    @Autowired
+    private final CatalogVersion catalogVersion;
+    @Autowired
+    private final CatalogBodyCacheInterceptor catalogBodyCacheInterceptor;
+
+    @Value("${catalog.http-cache.shared-max-age-seconds:30}")
+    private long sharedMaxAgeSeconds;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!"GET".equals(request.getMethod())) {
+            return true;
+        }
+        String etag = "\"catalog-" + catalogVersion.current()
+                + (catalogBodyCacheInterceptor.servesGzip(request) ? "-gzip" : "") + "\"";
+        boolean anonymous = !StringUtils.hasText(request.getHeader(HttpHeaders.AUTHORIZATION));
+        request.setAttribute(HEADERS_ATTRIBUTE, new CatalogHeaders(etag,
+                catalogBodyCacheInterceptor.variesByEncoding(request)
+                        ? HttpHeaders.AUTHORIZATION + ", " + HttpHeaders.ACCEPT_ENCODING
+                        : HttpHeaders.AUTHORIZATION,
+                anonymous
+                        ? "public, max-age=0, s-maxage=" + sharedMaxAgeSeconds + ", must-revalidate"
+                        : "private, no-cache"));
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            applyHeaders(request, response);
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return false;
+        }
+        return true;
+    }
+
+    /** Adds the validators recorded in preHandle; call only for successful responses. */
+    static void applyHeaders(HttpServletRequest request, HttpServletResponse response) {
+        if (request.getAttribute(HEADERS_ATTRIBUTE) instanceof CatalogHeaders headers) {
+            response.setHeader(HttpHeaders.ETAG, headers.etag());
+            response.setHeader(HttpHeaders.VARY, headers.vary());
+            response.setHeader(HttpHeaders.CACHE_CONTROL, headers.cacheControl());
+        }
+    }
+
+    private boolean matches(String ifNoneMatch, String etag) {
+        if (!StringUtils.hasText(ifNoneMatch)) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record CatalogHeaders(String etag, String vary, String cacheControl) {
+    }
+}
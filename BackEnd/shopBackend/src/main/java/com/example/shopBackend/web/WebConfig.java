@@ -0,0 +1,33 @@
+package com.example.shopBackend.web;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+    @Autowired
+    private final CatalogETagInterceptor catalogETagInterceptor;
+    @Autowired
+    private final CatalogBodyCacheInterceptor catalogBodyCacheInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(catalogETagInterceptor)
+                .addPathPatterns(
+                        "/product/get-all",
+                        "/product/get-by-category-id/**",
+                        "/product/get-by-product-id/**",
+                        "/product/search",
+                        "/product/suggest",
+                        "/product/filter",
+                        "/product/browse",
+                        "/category/get-category-by-id/**");
+        // runs after the ETag check so 304s never touch the body cache
+        registry.addInterceptor(catalogBodyCacheInterceptor)
+                .addPathPatterns(CatalogBodyCacheInterceptor.PATHS);
+    }
+}
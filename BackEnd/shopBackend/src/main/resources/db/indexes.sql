@@ -0,0 +1,23 @@
+-- Indexes declared on the entities (@Table indexes on OrderItem and Product), for databases
+-- whose schema is not managed by Hibernate. With ddl-auto=update the schema migrator adds any
+-- of these that are missing on startup; with none or validate (Spring Boot's default outside
+-- embedded databases) run this once by hand. MySQL 8 syntax, and CREATE INDEX fails on an
+-- index that already exists, so skip the statements for those.
+
+-- status filter and keyset order: WHERE status = ? ORDER BY created_at DESC, id DESC
+CREATE INDEX idx_order_items_status_created_at_id ON order_items (status, created_at, id);
+
+-- unfiltered keyset order and date-range scans
+CREATE INDEX idx_order_items_created_at_id ON order_items (created_at, id);
+
+-- a user's own order history, newest first
+CREATE INDEX idx_order_items_user_created_at ON order_items (user_id, created_at);
+
+-- popularity and per-product lookups
+CREATE INDEX idx_order_items_product ON order_items (product_id);
+
+-- category filter with price sort and the price keyset
+CREATE INDEX idx_products_category_price_id ON products (category_id, price, id);
+
+-- NEWEST sort and its (created_at, id) keyset
+CREATE INDEX idx_products_created_at_id ON products (created_at, id);
@@ -0,0 +1,78 @@
+package com.example.shopBackend.benchmark;
+
+import com.example.shopBackend.dto.ProductDto;
+import com.example.shopBackend.dto.Response;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A catalog page built and serialized per request, as without the body cache, against
+ * writing the cached bytes. SampleTime reports p99; add {@code -prof gc} to the JMH
+ * arguments for the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CatalogBodyBenchmark {
+
+    @Param({"20", "200"})
+    public int products;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private List<ProductDto> productList;
+    private byte[] cachedJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        productList = new ArrayList<>(products);
+        for (long id = 1; id <= products; id++) {
+            ProductDto dto = new ProductDto();
+            dto.setId(id);
+            dto.setName("Product " + id);
+            dto.setDescription("A reasonably descriptive sentence about product " + id + " for the catalog page.");
+            dto.setPrice(BigDecimal.valueOf(1999 + id, 2));
+            dto.setImageUrl("/files/" + id + "_image.jpg");
+            productList.add(dto);
+        }
+        cachedJson = objectMapper.writeValueAsBytes(buildResponse());
+    }
+
+    @Benchmark
+    public void serializePerRequest() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), buildResponse());
+    }
+
+    @Benchmark
+    public void writeCachedBytes() throws IOException {
+        OutputStream.nullOutputStream().write(cachedJson);
+    }
+
+    private Response buildResponse() {
+        return Response.builder()
+                .status(200)
+                .productList(productList)
+                .nextCursor("MTIz")
+                .build();
+    }
+}
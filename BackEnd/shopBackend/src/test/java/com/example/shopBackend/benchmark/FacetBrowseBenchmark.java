@@ -0,0 +1,74 @@
+package com.example.shopBackend.benchmark;
+
+import com.example.shopBackend.entity.Category;
+import com.example.shopBackend.entity.Product;
+import com.example.shopBackend.mapper.EntityDtoMapper;
+import com.example.shopBackend.repository.ProductRepo;
+import com.example.shopBackend.search.ProductFacetIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/** Facet computation for /product/browse over a synthetic catalog of 50 categories. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class FacetBrowseBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int size;
+
+    private ProductFacetIndex index;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(7);
+        Category[] categories = new Category[50];
+        for (int i = 0; i < categories.length; i++) {
+            categories[i] = new Category();
+            categories[i].setId((long) i + 1);
+        }
+        List<Product> products = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            Product product = new Product();
+            product.setId(id);
+            product.setCategory(categories[random.nextInt(categories.length)]);
+            product.setPrice(BigDecimal.valueOf(100 + random.nextInt(50_000), 2));
+            products.add(product);
+        }
+        ProductRepo productRepo = mock(ProductRepo.class);
+        when(productRepo.findAll()).thenReturn(products);
+        index = new ProductFacetIndex(productRepo, new EntityDtoMapper());
+        index.buildIndex();
+    }
+
+    @Benchmark
+    public ProductFacetIndex.BrowseResult unfiltered() {
+        return index.browse(null, null, null, null, 20);
+    }
+
+    @Benchmark
+    public ProductFacetIndex.BrowseResult categoryAndPriceFilter() {
+        return index.browse(7L, 1_000L, 5_000L, null, 20);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.shopBackend.benchmark;
+
+import com.example.shopBackend.security.JwtUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of JwtUtils.verify per request with the verified-token cache on and off, eight
+ * threads presenting a pool of live access tokens as concurrent sessions would. With the
+ * cache on, a repeat token costs a SHA-256 and a lookup instead of a parse and HMAC check.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class JwtVerifyBenchmark {
+
+    private static final int SESSIONS = 1_000;
+
+    @Param({"true", "false"})
+    public boolean cached;
+
+    private JwtUtils jwtUtils;
+    private String[] tokens;
+
+    @Setup
+    public void setUp() {
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "secreteJwtString", "benchmark-secret-benchmark-secret-0123456789");
+        ReflectionTestUtils.setField(jwtUtils, "accessTokenMinutes", 15L);
+        ReflectionTestUtils.setField(jwtUtils, "verifiedCacheEnabled", cached);
+        ReflectionTestUtils.setField(jwtUtils, "verifiedCacheCapacity", 10_000);
+        ReflectionTestUtils.setField(jwtUtils, "verifiedCacheTtlSeconds", 300L);
+        ReflectionTestUtils.invokeMethod(jwtUtils, "init");
+
+        tokens = new String[SESSIONS];
+        for (int i = 0; i < SESSIONS; i++) {
+            tokens[i] = jwtUtils.generateAccessToken("user" + i + "@example.com", "session-" + i);
+        }
+    }
+
+    @Benchmark
+    public JwtUtils.VerifiedToken verify() {
+        return jwtUtils.verify(tokens[ThreadLocalRandom.current().nextInt(SESSIONS)]);
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.shopBackend.benchmark;
+
+import com.example.shopBackend.dto.ProductDto;
+import com.example.shopBackend.dto.Response;
+import com.example.shopBackend.exceptions.TooManyRequestsException;
+import com.example.shopBackend.security.PasswordHasher;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Catalog latency during a login burst. Two threads serialize a 20-product catalog page
+ * while eight threads check BCrypt (cost 10) passwords. With {@code pooled} the logins go
+ * through PasswordHasher capped at one hashing thread and a 16-slot queue, anything beyond
+ * that shed with 429; without it every login thread hashes on its own, as request threads
+ * did before the pool. The {@code alone} group serves the same page from two threads with
+ * no logins running. Compare the p0.99 of {@code burst:catalog} across both settings
+ * against {@code alone}.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class LoginBurstBenchmark {
+
+    private static final String PASSWORD = "correct horse battery staple";
+
+    @Param({"true", "false"})
+    public boolean pooled;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(10);
+    private List<ProductDto> productList;
+    private String storedHash;
+    private PasswordHasher hasher;
+
+    @Setup
+    public void setUp() {
+        productList = new ArrayList<>();
+        for (long id = 1; id <= 20; id++) {
+            ProductDto dto = new ProductDto();
+            dto.setId(id);
+            dto.setName("Product " + id);
+            dto.setDescription("A reasonably descriptive sentence about product " + id + " for the catalog page.");
+            dto.setPrice(BigDecimal.valueOf(1999 + id, 2));
+            dto.setImageUrl("/files/" + id + "_image.jpg");
+            productList.add(dto);
+        }
+        storedHash = encoder.encode(PASSWORD);
+        hasher = new PasswordHasher(encoder, 10, 1, 16, 2_000);
+    }
+
+    @Benchmark
+    @Group("burst")
+    @GroupThreads(2)
+    public void catalog() throws IOException {
+        serializePage();
+    }
+
+    @Benchmark
+    @Group("burst")
+    @GroupThreads(8)
+    public boolean login() {
+        if (!pooled) {
+            return encoder.matches(PASSWORD, storedHash);
+        }
+        try {
+            return hasher.matches(PASSWORD, storedHash);
+        } catch (TooManyRequestsException e) {
+            return false;
+        }
+    }
+
+    @Benchmark
+    @Group("alone")
+    @GroupThreads(2)
+    public void catalogAlone() throws IOException {
+        serializePage();
+    }
+
+    private void serializePage() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), Response.builder()
+                .status(200)
+                .productList(productList)
+                .nextCursor("MTIz")
+                .build());
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.shopBackend.benchmark;
+
+import com.example.shopBackend.repository.IdBlockAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Orders per second the id allocator can number: one order id plus one id per item, for
+ * 1-, 10- and 100-item orders, against an in-memory H2 database. Compare block sizes to
+ * see how much of the cost is the round trip that reserves each block.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class OrderIdAllocationBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int items;
+
+    @Param({"1", "50"})
+    public int blockSize;
+
+    private JdbcTemplate jdbcTemplate;
+    private IdBlockAllocator allocator;
+
+    @Setup
+    public void setUp() {
+        String url = "jdbc:h2:mem:order-ids;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(url, "sa", ""));
+        jdbcTemplate.execute("CREATE TABLE orders (id BIGINT PRIMARY KEY)");
+        jdbcTemplate.execute("CREATE TABLE order_items (id BIGINT PRIMARY KEY)");
+
+        DataSourceProperties properties = new DataSourceProperties();
+        properties.setUrl(url);
+        properties.setUsername("sa");
+        allocator = new IdBlockAllocator(properties, new StandardEnvironment(), blockSize);
+        allocator.register("orders", "orders");
+        allocator.register("order_items", "order_items");
+    }
+
+    @TearDown
+    public void tearDown() {
+        allocator.close();
+        jdbcTemplate.execute("SHUTDOWN");
+    }
+
+    @Benchmark
+    public void numberOrder(Blackhole blackhole) {
+        blackhole.consume(allocator.next("orders"));
+        for (int i = 0; i < items; i++) {
+            blackhole.consume(allocator.next("order_items"));
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.shopBackend.benchmark;
+
+import com.example.shopBackend.cache.BoundedTtlCache;
+import com.example.shopBackend.cache.EvictionPolicy;
+import com.example.shopBackend.dto.ProductDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of getProductById's cache layer with the cache on and off, eight threads
+ * reading a skewed hot set. The loader stands in for findById plus mapping with a fixed
+ * amount of CPU work, so the "off" numbers are a floor, not a real database round trip.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class ProductCacheBenchmark {
+
+    private static final int PRODUCTS = 50_000;
+
+    @Param({"true", "false"})
+    public boolean enabled;
+
+    @Param({"LRU", "FIFO"})
+    public EvictionPolicy policy;
+
+    private BoundedTtlCache<Long, ProductDto> cache;
+
+    @Setup
+    public void setUp() {
+        cache = new BoundedTtlCache<>("product", enabled, 10_000, 300, policy);
+    }
+
+    @Benchmark
+    public ProductDto getProductById() {
+        // 90% of reads go to the first 5% of products
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long id = random.nextInt(10) < 9 ? random.nextInt(PRODUCTS / 20) : random.nextInt(PRODUCTS);
+        return cache.get(id, ProductCacheBenchmark::load);
+    }
+
+    private static ProductDto load(Long id) {
+        Blackhole.consumeCPU(5_000);
+        ProductDto dto = new ProductDto();
+        dto.setId(id);
+        dto.setName("Product " + id);
+        dto.setPrice(BigDecimal.TEN);
+        return dto;
+    }
+}
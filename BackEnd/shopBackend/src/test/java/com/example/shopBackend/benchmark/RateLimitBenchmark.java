@@ -0,0 +1,130 @@
+package com.example.shopBackend.benchmark;
+
+import com.example.shopBackend.security.RateLimitFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of RateLimitFilter's first stage, the one in front of JwtAuthFilter,
+ * for anonymous requests and for requests carrying a bearer token. Quotas are set high
+ * enough that nothing is rejected, so this is the admit path. {@code maxBuckets} of 16
+ * keeps the map full, sending almost every client to the overflow bucket and the
+ * sweeper; pass {@code -t 8} to add contention. {@code passThrough} is an empty
+ * OncePerRequestFilter over the same requests, the floor the admit path sits on. The
+ * requests answer the URI, address and Authorization header from fields, since
+ * MockHttpServletRequest's header lookup alone costs more than the limiter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RateLimitBenchmark {
+
+    private static final int CLIENTS = 4_096;
+
+    @Param({"100000", "16"})
+    public int maxBuckets;
+
+    @Param({"false", "true"})
+    public boolean bearer;
+
+    private RateLimitFilter filter;
+    private final OncePerRequestFilter emptyFilter = new OncePerRequestFilter() {
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+            filterChain.doFilter(request, response);
+        }
+    };
+    private HttpServletRequest[] requests;
+    // nothing is written to it on the admit path, so every call can share it
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+    private final FilterChain chain = (request, response) -> {
+    };
+
+    @Setup
+    public void setUp() throws ServletException, IOException {
+        filter = new RateLimitFilter(new ObjectMapper(), true, maxBuckets, "1000000000:1000000000", "1000000000:1000000000",
+                "/product/get-all=1000000000:1000000000,/product/search=1000000000:1000000000");
+        requests = new HttpServletRequest[CLIENTS];
+        for (int i = 0; i < CLIENTS; i++) {
+            requests[i] = new StubRequest(i % 2 == 0 ? "/product/get-all" : "/order/filter",
+                    "10.0." + (i >> 8) + "." + (i & 0xff), bearer ? "Bearer token-" + i : null);
+            filter.doFilter(requests[i], response, chain);
+        }
+    }
+
+    @Benchmark
+    public int admit() throws ServletException, IOException {
+        filter.doFilter(requests[ThreadLocalRandom.current().nextInt(CLIENTS)], response, chain);
+        return response.getStatus();
+    }
+
+    @Benchmark
+    public int passThrough() throws ServletException, IOException {
+        emptyFilter.doFilter(requests[ThreadLocalRandom.current().nextInt(CLIENTS)], response, chain);
+        return response.getStatus();
+    }
+
+    private static final class StubRequest extends HttpServletRequestWrapper {
+        private final String uri;
+        private final String remoteAddr;
+        private final String authorization;
+
+        StubRequest(String uri, String remoteAddr, String authorization) {
+            super(new MockHttpServletRequest("GET", uri));
+            this.uri = uri;
+            this.remoteAddr = remoteAddr;
+            this.authorization = authorization;
+        }
+
+        @Override
+        public String getRequestURI() {
+            return uri;
+        }
+
+        @Override
+        public String getContextPath() {
+            return "";
+        }
+
+        @Override
+        public String getRemoteAddr() {
+            return remoteAddr;
+        }
+
+        @Override
+        public String getMethod() {
+            return "GET";
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return HttpHeaders.AUTHORIZATION.equalsIgnoreCase(name) ? authorization : null;
+        }
+    }
+}
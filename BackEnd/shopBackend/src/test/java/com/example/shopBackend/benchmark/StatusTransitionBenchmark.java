@@ -0,0 +1,124 @@
+package com.example.shopBackend.benchmark;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-item status updates under contention on H2: the version compare-and-set the
+ * service issues against a pessimistic baseline that locks the row with SELECT ... FOR
+ * UPDATE before writing. {@code items} is how many rows the eight threads spread over,
+ * so 1 is every admin on the same item. The optimistic score counts attempts, lost
+ * races included, since those end in a 409 without waiting.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class StatusTransitionBenchmark {
+
+    @Param({"1", "100"})
+    public int items;
+
+    private HikariDataSource dataSource;
+
+    @Setup
+    public void setUp() throws SQLException {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:transitions;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000");
+        dataSource.setUsername("sa");
+        dataSource.setMaximumPoolSize(8);
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE order_items (id BIGINT PRIMARY KEY, status SMALLINT, version BIGINT NOT NULL)");
+            for (int id = 1; id <= items; id++) {
+                statement.execute("INSERT INTO order_items VALUES (" + id + ", 0, 0)");
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE order_items");
+        }
+        dataSource.close();
+    }
+
+    @Benchmark
+    public boolean optimisticCompareAndSet() throws SQLException {
+        long id = 1 + ThreadLocalRandom.current().nextInt(items);
+        try (Connection connection = dataSource.getConnection()) {
+            int status;
+            long version;
+            try (PreparedStatement read = connection.prepareStatement("SELECT status, version FROM order_items WHERE id = ?")) {
+                read.setLong(1, id);
+                try (ResultSet resultSet = read.executeQuery()) {
+                    resultSet.next();
+                    status = resultSet.getInt(1);
+                    version = resultSet.getLong(2);
+                }
+            }
+            try (PreparedStatement update = connection.prepareStatement(
+                    "UPDATE order_items SET status = ?, version = version + 1 WHERE id = ? AND version = ? AND status = ?")) {
+                update.setInt(1, 1 - status);
+                update.setLong(2, id);
+                update.setLong(3, version);
+                update.setInt(4, status);
+                return update.executeUpdate() == 1;
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean pessimisticRowLock() throws SQLException {
+        long id = 1 + ThreadLocalRandom.current().nextInt(items);
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                int status;
+                try (PreparedStatement lock = connection.prepareStatement("SELECT status FROM order_items WHERE id = ? FOR UPDATE")) {
+                    lock.setLong(1, id);
+                    try (ResultSet resultSet = lock.executeQuery()) {
+                        resultSet.next();
+                        status = resultSet.getInt(1);
+                    }
+                }
+                try (PreparedStatement update = connection.prepareStatement(
+                        "UPDATE order_items SET status = ?, version = version + 1 WHERE id = ?")) {
+                    update.setInt(1, 1 - status);
+                    update.setLong(2, id);
+                    update.executeUpdate();
+                }
+                connection.commit();
+                return true;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.shopBackend.benchmark;
+
+import com.example.shopBackend.entity.Product;
+import com.example.shopBackend.mapper.EntityDtoMapper;
+import com.example.shopBackend.repository.ProductRepo;
+import com.example.shopBackend.search.ProductTrigramIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Fuzzy search latency over synthetic product names. The heap retained by the index is
+ * printed once per size during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class TrigramSearchBenchmark {
+
+    private static final String[] WORDS = {"organic", "fresh", "green", "apple", "banana", "tomato", "cherry",
+            "avocado", "mango", "bread", "cheese", "yogurt", "honey", "almond", "walnut", "spinach", "carrot",
+            "pepper", "lemon", "orange", "grape", "melon", "olive", "basil", "garlic", "onion", "potato"};
+
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    private ProductTrigramIndex index;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<Product> products = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            Product product = new Product();
+            product.setId(id);
+            product.setName(WORDS[random.nextInt(WORDS.length)] + ' ' + WORDS[random.nextInt(WORDS.length)]
+                    + ' ' + WORDS[random.nextInt(WORDS.length)] + ' ' + id);
+            products.add(product);
+        }
+        ProductRepo productRepo = mock(ProductRepo.class);
+        when(productRepo.findAll()).thenReturn(products);
+
+        long before = usedHeap();
+        index = new ProductTrigramIndex(productRepo, new EntityDtoMapper());
+        index.buildIndex();
+        products.clear();
+        System.out.printf("%n[size=%d] trigram index retains ~%d MB%n", size, (usedHeap() - before) >> 20);
+    }
+
+    @Benchmark
+    public ProductTrigramIndex.FuzzyPage misspelledTwoWords() {
+        return index.search("avocdo chery", 0, 20);
+    }
+
+    @Benchmark
+    public ProductTrigramIndex.FuzzyPage misspelledSingleWord() {
+        return index.search("spinnach", 0, 20);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
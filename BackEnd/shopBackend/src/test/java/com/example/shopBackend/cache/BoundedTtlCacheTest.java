@@ -0,0 +1,131 @@
+package com.example.shopBackend.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedTtlCacheTest {
+
+    @Test
+    void loadsOnceAndServesHitsAfterwards() {
+        BoundedTtlCache<Integer, String> cache = new BoundedTtlCache<>("test", true, 100, 60, EvictionPolicy.LRU);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1, key -> "v" + loads.incrementAndGet());
+        String second = cache.get(1, key -> "v" + loads.incrementAndGet());
+
+        assertThat(second).isEqualTo("v1");
+        assertThat(loads).hasValue(1);
+        assertThat(cache.stats().getHits()).isEqualTo(1);
+    }
+
+    @Test
+    void invalidateDuringLoadDiscardsTheLoadedValue() {
+        BoundedTtlCache<Integer, String> cache = new BoundedTtlCache<>("test", true, 100, 60, EvictionPolicy.LRU);
+
+        // the product is updated while the stale row is being mapped
+        String returned = cache.get(1, key -> {
+            cache.invalidate(key);
+            return "stale";
+        });
+
+        assertThat(returned).isEqualTo("stale");
+        assertThat(cache.getIfPresent(1)).isNull();
+        assertThat(cache.get(1, key -> "fresh")).isEqualTo("fresh");
+        assertThat(cache.getIfPresent(1)).isEqualTo("fresh");
+    }
+
+    @Test
+    void invalidateAllDuringLoadDiscardsTheLoadedValue() {
+        BoundedTtlCache<Integer, String> cache = new BoundedTtlCache<>("test", true, 100, 60, EvictionPolicy.LRU);
+
+        cache.get(1, key -> {
+            cache.invalidateAll();
+            return "stale";
+        });
+
+        assertThat(cache.getIfPresent(1)).isNull();
+    }
+
+    @Test
+    void writeDuringLoadWinsOverTheLoadedValue() {
+        BoundedTtlCache<Integer, String> cache = new BoundedTtlCache<>("test", true, 100, 60, EvictionPolicy.LRU);
+
+        cache.get(1, key -> {
+            cache.put(key, "newer");
+            return "older";
+        });
+
+        assertThat(cache.getIfPresent(1)).isEqualTo("newer");
+    }
+
+    @Test
+    void failedLoadLeavesNothingBehind() {
+        BoundedTtlCache<Integer, String> cache = new BoundedTtlCache<>("test", true, 100, 60, EvictionPolicy.LRU);
+
+        assertThatThrownBy(() -> cache.get(1, key -> {
+            throw new IllegalStateException("db down");
+        })).isInstanceOf(IllegalStateException.class);
+
+        cache.get(1, key -> "loaded");
+        assertThat(cache.getIfPresent(1)).isEqualTo("loaded");
+    }
+
+    @Test
+    void lruKeepsRecentlyReadEntries() {
+        // 16 segments of 2; keys 0, 16 and 32 share segment 0
+        BoundedTtlCache<Integer, String> cache = new BoundedTtlCache<>("test", true, 32, 60, EvictionPolicy.LRU);
+        cache.put(0, "a");
+        cache.put(16, "b");
+        cache.getIfPresent(0);
+        cache.put(32, "c");
+
+        assertThat(cache.getIfPresent(0)).isEqualTo("a");
+        assertThat(cache.getIfPresent(16)).isNull();
+        assertThat(cache.stats().getEvictions()).isEqualTo(1);
+    }
+
+    @Test
+    void fifoEvictsInInsertionOrderRegardlessOfReads() {
+        BoundedTtlCache<Integer, String> cache = new BoundedTtlCache<>("test", true, 32, 60, EvictionPolicy.FIFO);
+        cache.put(0, "a");
+        cache.put(16, "b");
+        cache.getIfPresent(0);
+        cache.put(32, "c");
+
+        assertThat(cache.getIfPresent(0)).isNull();
+        assertThat(cache.getIfPresent(16)).isEqualTo("b");
+    }
+
+    @Test
+    void expiredEntriesAreReloaded() {
+        BoundedTtlCache<Integer, String> cache = new BoundedTtlCache<>("test", true, 100, 0, EvictionPolicy.LRU);
+        cache.put(1, "old");
+
+        assertThat(cache.getIfPresent(1)).isNull();
+        assertThat(cache.get(1, key -> "new")).isEqualTo("new");
+    }
+
+    @Test
+    void putIfAbsentReturnsTheLiveValue() {
+        BoundedTtlCache<Integer, String> cache = new BoundedTtlCache<>("test", true, 100, 60, EvictionPolicy.FIFO);
+
+        assertThat(cache.putIfAbsent(1, "first")).isNull();
+        assertThat(cache.putIfAbsent(1, "second")).isEqualTo("first");
+    }
+
+    @Test
+    void disabledCacheAlwaysLoads() {
+        BoundedTtlCache<Integer, String> cache = new BoundedTtlCache<>("test", false, 100, 60, EvictionPolicy.LRU);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1, key -> "v" + loads.incrementAndGet());
+        cache.get(1, key -> "v" + loads.incrementAndGet());
+
+        assertThat(loads).hasValue(2);
+        assertThat(cache.stats().getSize()).isZero();
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.shopBackend.cache;
+
+import com.example.shopBackend.dto.CategoryDto;
+import com.example.shopBackend.entity.Category;
+import com.example.shopBackend.event.ProductChangedEvent;
+import com.example.shopBackend.mapper.EntityDtoMapper;
+import com.example.shopBackend.repository.CategoryRepo;
+import com.example.shopBackend.repository.ProductRepo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CategorySnapshotTest {
+
+    private final CategoryRepo categoryRepo = mock(CategoryRepo.class);
+    private final ProductRepo productRepo = mock(ProductRepo.class);
+    private final CategorySnapshot snapshot = new CategorySnapshot(categoryRepo, productRepo, new EntityDtoMapper(), new CatalogVersion());
+
+    @BeforeEach
+    void setUp() {
+        Category fruit = new Category();
+        fruit.setId(1L);
+        fruit.setName("Fruit");
+        when(categoryRepo.findAll()).thenReturn(List.of(fruit));
+        when(productRepo.countProductsByCategory()).thenReturn(List.<Object[]>of(new Object[]{1L, 3L}));
+        snapshot.reload();
+        // one mock per call: two different repo types would make Mockito's varargs a generic array
+        clearInvocations(categoryRepo);
+        clearInvocations(productRepo);
+    }
+
+    @AfterEach
+    void tearDown() {
+        snapshot.stop();
+    }
+
+    @Test
+    void readsNeverWaitForAReload() throws InterruptedException {
+        CountDownLatch databaseSlow = new CountDownLatch(1);
+        when(productRepo.countProductsByCategory()).thenAnswer(invocation -> {
+            databaseSlow.await();
+            return List.<Object[]>of(new Object[]{1L, 2L});
+        });
+
+        snapshot.onProductChanged(ProductChangedEvent.deleted(1L));
+        verify(productRepo, timeout(5_000)).countProductsByCategory();
+
+        // the reload is stuck in the database; readers keep getting the last snapshot
+        assertThat(snapshot.getById(1L).getProductCount()).isEqualTo(3L);
+        assertThat(snapshot.getAll()).hasSize(1);
+
+        databaseSlow.countDown();
+        verify(categoryRepo, timeout(5_000)).findAll();
+    }
+
+    @Test
+    void productChangesAreFoldedIntoOneBackgroundReload() throws InterruptedException {
+        when(productRepo.countProductsByCategory()).thenReturn(List.<Object[]>of(new Object[]{1L, 1L}));
+
+        for (long id = 1; id <= 50; id++) {
+            snapshot.onProductChanged(ProductChangedEvent.deleted(id));
+        }
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (snapshot.getById(1L).getProductCount() != 1L && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(snapshot.getById(1L).getProductCount()).isEqualTo(1L);
+        verify(productRepo).countProductsByCategory();
+    }
+
+    @Test
+    void readsShareTheSnapshotWithoutCopying() {
+        assertThat(snapshot.getById(1L)).isSameAs(snapshot.getById(1L)).isSameAs(snapshot.getAll().get(0));
+        assertThat(snapshot.getAll()).isSameAs(snapshot.getAll());
+    }
+
+    @Test
+    void callersCannotAlterTheSnapshot() {
+        CategoryDto byId = snapshot.getById(1L);
+
+        assertThatThrownBy(() -> byId.setName("Changed")).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> byId.setProductCount(99L)).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> snapshot.getAll().add(new CategoryDto())).isInstanceOf(UnsupportedOperationException.class);
+        assertThat(snapshot.getById(1L).getName()).isEqualTo("Fruit");
+        assertThat(snapshot.getById(1L).getProductCount()).isEqualTo(3L);
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.shopBackend.idempotency;
+
+import com.example.shopBackend.repository.IdempotencyKeyRepo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JdbcIdempotencyStoreTest {
+
+    private final IdempotencyKeyRepo repo = mock(IdempotencyKeyRepo.class);
+    private JdbcIdempotencyStore store;
+
+    @BeforeEach
+    void setUp() {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        store = new JdbcIdempotencyStore(repo, new ObjectMapper(), transactionManager, 86400, 60);
+    }
+
+    @Test
+    void persistentInsertFailureWithoutARowIsRethrownAfterOneRetry() {
+        when(repo.insert(anyString(), anyString(), any(), any()))
+                .thenThrow(new DataIntegrityViolationException("value too long"));
+        when(repo.findState("u@x:k")).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> store.claim("u@x:k", "fp"))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        verify(repo, times(2)).insert(anyString(), anyString(), any(), any());
+    }
+
+    @Test
+    void keyLongerThanTheColumnIsRejectedBeforeTouchingTheDatabase() {
+        assertThatThrownBy(() -> store.claim("u@x:" + "k".repeat(IdempotencyStore.MAX_KEY_LENGTH), "fp"))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(repo, never()).insert(anyString(), anyString(), any(), any());
+    }
+
+    @Test
+    void liveInFlightClaimIsReturnedToTheDuplicate() {
+        when(repo.insert(anyString(), anyString(), any(), any()))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"));
+        when(repo.findState("u@x:k")).thenReturn(Optional.of(state("fp", LocalDateTime.now().plusSeconds(30))));
+
+        IdempotencyRecord existing = store.claim("u@x:k", "fp");
+
+        assertThat(existing.getFingerprint()).isEqualTo("fp");
+        assertThat(existing.getResponse()).isNull();
+        verify(repo, never()).takeOver(anyString(), anyString(), any(), any());
+    }
+
+    @Test
+    void expiredLeaseOfADeadOwnerIsTakenOver() {
+        when(repo.insert(anyString(), anyString(), any(), any()))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"));
+        when(repo.findState("u@x:k")).thenReturn(Optional.of(state("fp", LocalDateTime.now().minusSeconds(1))));
+        when(repo.takeOver(eq("u@x:k"), eq("fp"), any(), any())).thenReturn(1);
+
+        assertThat(store.claim("u@x:k", "fp")).isNull();
+    }
+
+    @Test
+    void expiredLeaseCountsAsReleasedWhileWaiting() throws InterruptedException {
+        when(repo.findState("u@x:k")).thenReturn(Optional.of(state("fp", LocalDateTime.now().minusSeconds(1))));
+
+        assertThat(store.await("u@x:k", 1000)).isNull();
+    }
+
+    private static IdempotencyKeyRepo.KeyState state(String fingerprint, LocalDateTime expiresAt) {
+        return new IdempotencyKeyRepo.KeyState() {
+            @Override
+            public String getFingerprint() {
+                return fingerprint;
+            }
+
+            @Override
+            public String getResponseJson() {
+                return null;
+            }
+
+            @Override
+            public LocalDateTime getExpiresAt() {
+                return expiresAt;
+            }
+        };
+    }
+}
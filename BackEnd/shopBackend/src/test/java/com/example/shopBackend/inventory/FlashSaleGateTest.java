@@ -0,0 +1,82 @@
+package com.example.shopBackend.inventory;
+
+import com.example.shopBackend.dto.FlashSaleStatsDto;
+import com.example.shopBackend.dto.OrderItemRequest;
+import com.example.shopBackend.dto.OrderRequest;
+import com.example.shopBackend.exceptions.ConflictException;
+import com.example.shopBackend.repository.ProductRepo;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class FlashSaleGateTest {
+
+    private static final long PRODUCT_ID = 5L;
+
+    private final FlashSaleGate gate = new FlashSaleGate(mock(ProductRepo.class), mock(StockLedger.class), 8, 100);
+
+    @Test
+    void restockDuringASaleKeepsInFlightOrdersOnTheSameSale() {
+        gate.open(PRODUCT_ID, 5);
+        FlashSaleGate.Admission admission = gate.admit(order(2));
+        assertThat(stats().getRemainingPermits()).isEqualTo(3);
+
+        // ten unsold units, the two held by the order in flight among them
+        gate.open(PRODUCT_ID, 10);
+        assertThat(stats().getRemainingPermits()).isEqualTo(8);
+
+        admission.finish(false);
+        assertThat(stats().getRemainingPermits()).isEqualTo(10);
+        assertThat(stats().getAdmitted()).isEqualTo(1);
+    }
+
+    @Test
+    void shrinkingBelowHeldUnitsTurnsBuyersAwayUntilTheyComeBack() {
+        gate.open(PRODUCT_ID, 5);
+        FlashSaleGate.Admission admission = gate.admit(order(4));
+
+        gate.open(PRODUCT_ID, 2);
+        assertThat(stats().getRemainingPermits()).isZero();
+        assertThatThrownBy(() -> gate.admit(order(1))).isInstanceOf(ConflictException.class);
+
+        admission.finish(false);
+        assertThat(stats().getRemainingPermits()).isEqualTo(2);
+    }
+
+    @Test
+    void placedOrdersAreNoLongerCountedAsUnsold() {
+        gate.open(PRODUCT_ID, 5);
+        gate.admit(order(2)).finish(true);
+
+        gate.open(PRODUCT_ID, 3);
+        assertThat(stats().getRemainingPermits()).isEqualTo(3);
+    }
+
+    @Test
+    void handedOffOrderThatFailsAfterFinishReturnsItsUnits() {
+        gate.open(PRODUCT_ID, 5);
+        FlashSaleGate.Admission admission = gate.admit(order(2));
+        admission.finish(true);
+
+        admission.cancel();
+        gate.open(PRODUCT_ID, 5);
+        assertThat(stats().getRemainingPermits()).isEqualTo(5);
+    }
+
+    private FlashSaleStatsDto stats() {
+        return gate.stats().get(0);
+    }
+
+    private static OrderRequest order(int quantity) {
+        OrderItemRequest item = new OrderItemRequest();
+        item.setProductId(PRODUCT_ID);
+        item.setQuantity(quantity);
+        OrderRequest orderRequest = new OrderRequest();
+        orderRequest.setItems(List.of(item));
+        return orderRequest;
+    }
+}
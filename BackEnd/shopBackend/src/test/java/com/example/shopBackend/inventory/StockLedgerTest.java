@@ -0,0 +1,207 @@
+package com.example.shopBackend.inventory;
+
+import com.example.shopBackend.entity.Order;
+import com.example.shopBackend.entity.OrderItem;
+import com.example.shopBackend.entity.Product;
+import com.example.shopBackend.exceptions.ConflictException;
+import com.example.shopBackend.repository.ProductRepo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StockLedgerTest {
+
+    private static final long PRODUCT_ID = 1L;
+
+    private final ProductRepo productRepo = mock(ProductRepo.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    // the products row: its stock column and its row lock
+    private final ReentrantLock rowLock = new ReentrantLock();
+    private Integer storedStock;
+    private StockLedger stockLedger;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        doAnswer(invocation -> releaseRow()).when(transactionManager).commit(any());
+        doAnswer(invocation -> releaseRow()).when(transactionManager).rollback(any());
+
+        when(productRepo.findStockById(anyLong())).thenAnswer(invocation -> onRow(() -> storedStock));
+        when(productRepo.findStockForUpdate(anyLong())).thenAnswer(invocation -> {
+            rowLock.lock();
+            return storedStock;
+        });
+        when(productRepo.setStock(anyLong(), any())).thenAnswer(invocation -> onRow(() -> {
+            storedStock = invocation.getArgument(1);
+            return 1;
+        }));
+        when(productRepo.incrementStock(anyLong(), anyInt())).thenAnswer(invocation -> onRow(() -> {
+            storedStock += (int) invocation.getArgument(1);
+            return 1;
+        }));
+        when(productRepo.decrementStock(anyLong(), anyInt())).thenAnswer(invocation -> onRow(() -> {
+            int quantity = invocation.getArgument(1);
+            if (storedStock < quantity) {
+                return 0;
+            }
+            storedStock -= quantity;
+            return 1;
+        }));
+
+        storedStock = 100;
+        stockLedger = new StockLedger(productRepo, transactionManager, 1);
+        stockLedger.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        stockLedger.stop();
+    }
+
+    @Test
+    void restockWhileAnOrderIsInFlightDoesNotInflateStockWhenItRollsBack() {
+        StockReservation reservation = inTransaction(() -> stockLedger.reserve(order(10)));
+        assertThat(stockLedger.available(PRODUCT_ID)).isEqualTo(90);
+
+        // the admin counted 50 units on the shelf, the 10 held ones among them
+        stockLedger.setStock(PRODUCT_ID, 50);
+        assertThat(stockLedger.available(PRODUCT_ID)).isEqualTo(40);
+
+        reservation.release();
+        stockLedger.flush();
+        assertThat(stockLedger.available(PRODUCT_ID)).isEqualTo(50);
+        assertThat(storedStock).isEqualTo(50);
+    }
+
+    @Test
+    void unwrittenSalesStillComeOffARestock() {
+        stockLedger.reserve(order(10));
+
+        stockLedger.setStock(PRODUCT_ID, 50);
+        stockLedger.flush();
+
+        assertThat(stockLedger.available(PRODUCT_ID)).isEqualTo(40);
+        assertThat(storedStock).isEqualTo(40);
+    }
+
+    @Test
+    void abandonedOrdersDuringConcurrentRestocksLeaveExactlyTheLastRestock() throws Exception {
+        int lastStock = hammer(false);
+
+        assertThat(stockLedger.available(PRODUCT_ID)).isEqualTo(lastStock);
+        assertThat(storedStock).isEqualTo(lastStock);
+    }
+
+    @Test
+    void committedAndAbandonedOrdersDuringConcurrentRestocksKeepCounterAndColumnInStep() throws Exception {
+        hammer(true);
+
+        assertThat(stockLedger.available(PRODUCT_ID)).isNotNegative();
+        assertThat(storedStock).isEqualTo(stockLedger.available(PRODUCT_ID));
+    }
+
+    // buyers place and commit or roll back orders while an admin restocks and the write-behind runs
+    private int hammer(boolean commitSome) throws Exception {
+        int buyers = 8;
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(buyers);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < buyers; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                while (running.get()) {
+                    TransactionSynchronizationManager.initSynchronization();
+                    try {
+                        stockLedger.reserve(order(1 + ThreadLocalRandom.current().nextInt(3)));
+                        int outcome = commitSome && ThreadLocalRandom.current().nextBoolean()
+                                ? TransactionSynchronization.STATUS_COMMITTED
+                                : TransactionSynchronization.STATUS_ROLLED_BACK;
+                        TransactionSynchronizationManager.getSynchronizations()
+                                .forEach(synchronization -> synchronization.afterCompletion(outcome));
+                    } catch (ConflictException e) {
+                        // sold out for the moment
+                    } finally {
+                        TransactionSynchronizationManager.clearSynchronization();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        int lastStock = 0;
+        for (int round = 0; round < 500; round++) {
+            lastStock = 20 + ThreadLocalRandom.current().nextInt(200);
+            stockLedger.setStock(PRODUCT_ID, lastStock);
+        }
+        running.set(false);
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        stockLedger.flush();
+        return lastStock;
+    }
+
+    private static <T> T inTransaction(Supplier<T> work) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            return work.get();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private Object releaseRow() {
+        while (rowLock.isHeldByCurrentThread()) {
+            rowLock.unlock();
+        }
+        return null;
+    }
+
+    private <T> T onRow(Supplier<T> statement) {
+        rowLock.lock();
+        try {
+            return statement.get();
+        } finally {
+            rowLock.unlock();
+        }
+    }
+
+    private static Order order(int quantity) {
+        Product product = new Product();
+        product.setId(PRODUCT_ID);
+        product.setStock(100);
+        OrderItem orderItem = new OrderItem();
+        orderItem.setProduct(product);
+        orderItem.setQuantity(quantity);
+        Order order = new Order();
+        order.setOrderItemList(List.of(orderItem));
+        return order;
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.shopBackend.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdBlockAllocatorTest {
+
+    private DataSourceProperties properties;
+    private JdbcTemplate jdbcTemplate;
+    private final List<IdBlockAllocator> allocators = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        // a database of its own, without id_sequences, like a schema that never had it
+        String url = "jdbc:h2:mem:ids-" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+        properties = new DataSourceProperties();
+        properties.setUrl(url);
+        properties.setUsername("sa");
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(url, "sa", ""));
+        jdbcTemplate.execute("CREATE TABLE orders (id BIGINT PRIMARY KEY)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        allocators.forEach(IdBlockAllocator::close);
+        jdbcTemplate.execute("SHUTDOWN");
+    }
+
+    @Test
+    void firstUseCreatesTheSequencePastExistingIds() {
+        jdbcTemplate.update("INSERT INTO orders (id) VALUES (3), (7)");
+        IdBlockAllocator allocator = allocator(10);
+
+        assertThat(allocator.next("orders")).isEqualTo(8);
+        assertThat(allocator.next("orders")).isEqualTo(9);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT next_val FROM id_sequences WHERE sequence_name = 'orders'", Long.class)).isEqualTo(17);
+    }
+
+    @Test
+    void existingSequenceBehindTheTableIsMovedForward() {
+        jdbcTemplate.execute("CREATE TABLE id_sequences (sequence_name VARCHAR(255) NOT NULL PRIMARY KEY, next_val BIGINT)");
+        jdbcTemplate.update("INSERT INTO id_sequences VALUES ('orders', 2)");
+        jdbcTemplate.update("INSERT INTO orders (id) VALUES (40)");
+
+        assertThat(allocator(10).next("orders")).isEqualTo(41);
+    }
+
+    @Test
+    void unregisteredSequenceIsRejected() {
+        assertThatThrownBy(() -> allocator(10).next("order_items"))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void nodesStartingTogetherNeverHandOutTheSameId() throws Exception {
+        jdbcTemplate.update("INSERT INTO orders (id) VALUES (100)");
+        // two allocators stand in for two nodes seeding the same fresh sequence at once
+        List<IdBlockAllocator> nodes = List.of(allocator(5), allocator(5));
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        int threadsPerNode = 4;
+        int idsPerThread = 500;
+
+        ExecutorService executor = Executors.newFixedThreadPool(nodes.size() * threadsPerNode);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (IdBlockAllocator node : nodes) {
+            for (int t = 0; t < threadsPerNode; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < idsPerThread; i++) {
+                        assertThat(ids.add(node.next("orders"))).isTrue();
+                    }
+                    return null;
+                }));
+            }
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertThat(ids).hasSize(nodes.size() * threadsPerNode * idsPerThread);
+        assertThat(ids.stream().mapToLong(Long::longValue).min().getAsLong()).isGreaterThan(100);
+    }
+
+    @Test
+    void poolTakesMainHikariSettingsButKeepsItsOwnSize() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("spring.datasource.hikari.connection-timeout", "1234")
+                .withProperty("spring.datasource.hikari.maximum-pool-size", "40")
+                .withProperty("spring.datasource.hikari.pool-name", "main");
+        IdBlockAllocator allocator = new IdBlockAllocator(properties, environment, 50);
+        allocators.add(allocator);
+
+        assertThat(allocator.poolConfig().getConnectionTimeout()).isEqualTo(1234);
+        assertThat(allocator.poolConfig().getMaximumPoolSize()).isEqualTo(2);
+        assertThat(allocator.poolConfig().getPoolName()).isEqualTo("id-allocator");
+
+        IdBlockAllocator resized = new IdBlockAllocator(properties,
+                environment.withProperty("persistence.id-pool.maximum-pool-size", "4"), 50);
+        allocators.add(resized);
+        assertThat(resized.poolConfig().getMaximumPoolSize()).isEqualTo(4);
+    }
+
+    private IdBlockAllocator allocator(int blockSize) {
+        IdBlockAllocator allocator = new IdBlockAllocator(properties, new MockEnvironment(), blockSize);
+        allocator.register("orders", "orders");
+        allocators.add(allocator);
+        return allocator;
+    }
+}
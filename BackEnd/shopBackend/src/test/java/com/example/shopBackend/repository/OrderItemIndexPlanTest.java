@@ -0,0 +1,187 @@
+package com.example.shopBackend.repository;
+
+import com.example.shopBackend.enums.OrderStatus;
+import com.example.shopBackend.enums.UserRole;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static com.example.shopBackend.repository.QueryPlans.explain;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The order item listing must reach order_items through an index led by the column of its most
+ * selective filter. The SQL explained is what Hibernate generates for findRows and findRowsBefore,
+ * captured with a statement inspector, so a change to the Criteria code is covered too. Plans
+ * are checked by the index's leading column because H2 adds its own single-column index per
+ * foreign key and may prefer it to the composite one.
+ */
+@SpringBootTest
+@Transactional
+class OrderItemIndexPlanTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 1, 0, 0);
+    // which index the order_items scan of a plan went through: "order_items" "oi1_0" /* public.idx_x: ... */
+    private static final Pattern ORDER_ITEMS_ACCESS = Pattern.compile("\"order_items\" \"\\w+\"\\s*/\\* public\\.(\\w+)");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void seed() {
+        for (int i = 1; i <= 4; i++) {
+            jdbcTemplate.update("insert into users (id, name, email, password, phone_number, role, created_at) " +
+                    "values (?, 'plan', ?, 'x', '555', ?, current_timestamp)", 970_000 + i, "plan" + i + "@example.com", UserRole.USER.ordinal());
+            jdbcTemplate.update("insert into products (id, name, price, created_at) values (?, 'plan', 1.00, current_timestamp)",
+                    970_000 + i);
+        }
+        List<Object[]> rows = new ArrayList<>();
+        OrderStatus[] statuses = OrderStatus.values();
+        for (int i = 0; i < 5_000; i++) {
+            rows.add(new Object[]{970_000 + i, statuses[i % statuses.length].ordinal(), 970_001 + i % 4, 970_001 + i % 4,
+                    Timestamp.valueOf(START.plusMinutes(i))});
+        }
+        jdbcTemplate.batchUpdate("insert into order_items (id, quantity, price, status, version, user_id, product_id, created_at) " +
+                "values (?, 1, 1.00, ?, 0, ?, ?, ?)", rows);
+    }
+
+    // every combination of status, date range, user and cursor being set
+    static Stream<Filters> filterCombinations() {
+        return IntStream.range(0, 16).mapToObj(bits -> new Filters(
+                (bits & 1) != 0, (bits & 2) != 0, (bits & 4) != 0, (bits & 8) != 0));
+    }
+
+    @ParameterizedTest
+    @MethodSource("filterCombinations")
+    void keysetSliceUsesTheIndexForItsFilters(Filters filters) {
+        List<String> statements = capture(queries -> queries.findRowsBefore(filters.status(), filters.startDate(),
+                filters.endDate(), null, filters.userId(), filters.afterCreatedAt(), filters.afterId(), Limit.of(21)));
+
+        assertThat(statements).hasSize(1);
+        String plan = explain(jdbcTemplate, statements.get(0));
+        assertThat(leadingColumn(plan)).isIn(filters.expectedLeadingColumns());
+        if (!filters.byStatus() && !filters.byUser()) {
+            // read in (created_at, id) order, no sort step
+            assertThat(plan).contains("index sorted");
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("filterCombinations")
+    void offsetPageAndCountUseTheIndexForTheirFilters(Filters filters) {
+        // a second, empty page: the count cannot be skipped
+        List<String> statements = capture(queries -> queries.findRows(filters.status(), filters.startDate(),
+                filters.endDate(), null, filters.userId(), PageRequest.of(1, 20, Sort.by(Sort.Direction.DESC, "id"))));
+
+        assertThat(statements).hasSize(2);
+        assertThat(leadingColumn(explain(jdbcTemplate, statements.get(0)))).isIn(filters.expectedPageLeadingColumns());
+        // an unfiltered count reads every row, through whichever index is smallest
+        if (filters.byStatus() || filters.byDate() || filters.byUser()) {
+            assertThat(leadingColumn(explain(jdbcTemplate, statements.get(1)))).isIn(filters.expectedPageLeadingColumns());
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("filterCombinations")
+    void itemIdLookupIsAPrimaryKeyHit(Filters filters) {
+        List<String> statements = capture(queries -> queries.findRowsBefore(filters.status(), filters.startDate(),
+                filters.endDate(), 972_000L, filters.userId(), filters.afterCreatedAt(), filters.afterId(), Limit.of(21)));
+
+        assertThat(leadingColumn(explain(jdbcTemplate, statements.get(0)))).isEqualTo("id");
+    }
+
+    private List<String> capture(Consumer<OrderItemRowQueries> call) {
+        List<String> statements = new ArrayList<>();
+        try (Session session = entityManagerFactory.unwrap(SessionFactory.class).withOptions()
+                .statementInspector(sql -> {
+                    statements.add(sql);
+                    return sql;
+                })
+                .openSession()) {
+            call.accept(new OrderItemRowQueriesImpl(session));
+        }
+        return statements;
+    }
+
+    // first column of the index the plan scans order_items through
+    private String leadingColumn(String plan) {
+        Matcher matcher = ORDER_ITEMS_ACCESS.matcher(plan);
+        assertThat(matcher.find()).as(plan).isTrue();
+        return jdbcTemplate.queryForObject("select lower(column_name) from information_schema.index_columns " +
+                "where lower(table_name) = 'order_items' and lower(index_name) = lower(?) and ordinal_position = 1",
+                String.class, matcher.group(1));
+    }
+
+    record Filters(boolean byStatus, boolean byDate, boolean byUser, boolean byCursor) {
+
+        OrderStatus status() {
+            return byStatus ? OrderStatus.SHIPPED : null;
+        }
+
+        LocalDateTime startDate() {
+            return byDate ? START.plusDays(1) : null;
+        }
+
+        LocalDateTime endDate() {
+            return byDate ? START.plusDays(2) : null;
+        }
+
+        Long userId() {
+            return byUser ? 970_002L : null;
+        }
+
+        LocalDateTime afterCreatedAt() {
+            return byCursor ? START.plusDays(3) : null;
+        }
+
+        Long afterId() {
+            return byCursor ? 974_320L : null;
+        }
+
+        // the keyset order is (created_at, id), so with no equality filter the created_at index serves it
+        List<String> expectedLeadingColumns() {
+            List<String> columns = new ArrayList<>();
+            if (byUser) columns.add("user_id");
+            if (byStatus) columns.add("status");
+            if (columns.isEmpty()) columns.add("created_at");
+            return columns;
+        }
+
+        // offset pages sort by id, so with nothing to narrow the rows the primary key order is the plan
+        List<String> expectedPageLeadingColumns() {
+            List<String> columns = new ArrayList<>();
+            if (byUser) columns.add("user_id");
+            if (byStatus) columns.add("status");
+            if (byDate) columns.add("created_at");
+            if (columns.isEmpty()) columns.add("id");
+            return columns;
+        }
+
+        @Override
+        public String toString() {
+            return "status=" + byStatus + ", date=" + byDate + ", user=" + byUser + ", cursor=" + byCursor;
+        }
+    }
+}
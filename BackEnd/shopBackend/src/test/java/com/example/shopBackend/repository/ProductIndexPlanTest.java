@@ -0,0 +1,61 @@
+package com.example.shopBackend.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.shopBackend.repository.QueryPlans.explain;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** The filterProducts query shapes must keep using the composite product indexes. */
+@SpringBootTest
+@Transactional
+class ProductIndexPlanTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("insert into categories (id, name, created_at) values (9001, 'plan-a', current_timestamp), (9002, 'plan-b', current_timestamp)");
+        List<Object[]> rows = new ArrayList<>();
+        LocalDateTime start = LocalDateTime.of(2026, 1, 1, 0, 0);
+        for (int i = 0; i < 5_000; i++) {
+            rows.add(new Object[]{9001 + i % 2, BigDecimal.valueOf(100 + i % 997, 2), Timestamp.valueOf(start.plusMinutes(i))});
+        }
+        jdbcTemplate.batchUpdate("insert into products (category_id, price, created_at, name) values (?, ?, ?, 'seeded')", rows);
+    }
+
+    @Test
+    void categoryPriceRangeUsesCategoryPriceIndex() {
+        String plan = explain(jdbcTemplate, """
+                select * from products
+                where category_id = 9001 and price between 2.00 and 5.00
+                  and (price > 3.00 or (price = 3.00 and id > 10))
+                order by price, id
+                fetch first 21 rows only""");
+
+        assertThat(plan).contains("idx_products_category_price_id");
+    }
+
+    @Test
+    void newestFirstIsServedInIndexOrder() {
+        String plan = explain(jdbcTemplate, """
+                select * from products
+                where created_at < timestamp '2026-01-02 00:00:00'
+                   or (created_at = timestamp '2026-01-02 00:00:00' and id < 100)
+                order by created_at desc, id desc
+                fetch first 21 rows only""");
+
+        assertThat(plan).contains("idx_products_created_at_id").contains("index sorted");
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.shopBackend.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * EXPLAIN helper for the plan-regression tests. The tests run on H2, whose optimizer is
+ * not MySQL's, so they check that each hot query shape can be served by its intended
+ * index rather than predicting MySQL's exact plan.
+ */
+final class QueryPlans {
+
+    private QueryPlans() {
+    }
+
+    // prepared, so statements captured from Hibernate can be explained with their ? parameters unbound
+    static String explain(JdbcTemplate jdbcTemplate, String sql) {
+        return String.join("\n", jdbcTemplate.query(connection -> connection.prepareStatement("EXPLAIN " + sql),
+                (row, rowNum) -> row.getString(1)));
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.shopBackend.search;
+
+import com.example.shopBackend.dto.ProductDto;
+import com.example.shopBackend.entity.Category;
+import com.example.shopBackend.entity.Product;
+import com.example.shopBackend.event.ProductChangedEvent;
+import com.example.shopBackend.mapper.EntityDtoMapper;
+import com.example.shopBackend.repository.ProductRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductFacetIndexTest {
+
+    private final ProductRepo productRepo = mock(ProductRepo.class);
+    private final ProductFacetIndex index = new ProductFacetIndex(productRepo, new EntityDtoMapper());
+
+    @BeforeEach
+    void setUp() {
+        // prices land in buckets 0 (<10), 1 (10-25), 2 (25-50) and 5 (250+)
+        when(productRepo.findAll()).thenReturn(new ArrayList<>(List.of(
+                product(1L, 10L, "5.00"),
+                product(2L, 10L, "12.00"),
+                product(3L, 20L, "30.00"),
+                product(4L, 20L, "300.00"),
+                product(5L, 10L, "24.99"))));
+        index.buildIndex();
+    }
+
+    @Test
+    void unfilteredBrowseCountsEveryFacetNewestFirst() {
+        ProductFacetIndex.BrowseResult result = index.browse(null, null, null, null, 10);
+
+        assertThat(ids(result.getProducts())).containsExactly(5L, 4L, 3L, 2L, 1L);
+        assertThat(result.getCategoryCounts()).containsEntry(10L, 3L).containsEntry(20L, 2L);
+        assertThat(result.getPriceBucketCounts()).containsExactly(1, 2, 1, 0, 0, 1);
+        assertThat(result.getNextCursor()).isNull();
+    }
+
+    @Test
+    void eachFacetIgnoresItsOwnFilter() {
+        ProductFacetIndex.BrowseResult result = index.browse(10L, 1_000L, 2_500L, null, 10);
+
+        assertThat(ids(result.getProducts())).containsExactly(5L, 2L);
+        // category counts apply the price filter only
+        assertThat(result.getCategoryCounts()).containsEntry(10L, 2L).doesNotContainKey(20L);
+        // bucket counts apply the category filter only
+        assertThat(result.getPriceBucketCounts()).containsExactly(1, 2, 0, 0, 0, 0);
+    }
+
+    @Test
+    void cursorContinuesBelowTheLastId() {
+        ProductFacetIndex.BrowseResult first = index.browse(null, null, null, null, 2);
+        ProductFacetIndex.BrowseResult second = index.browse(null, null, null, first.getNextCursor(), 2);
+
+        assertThat(ids(first.getProducts())).containsExactly(5L, 4L);
+        assertThat(first.getNextCursor()).isEqualTo(4L);
+        assertThat(ids(second.getProducts())).containsExactly(3L, 2L);
+    }
+
+    @Test
+    void productEventsPatchTheColumns() {
+        index.onProductChanged(ProductChangedEvent.saved(product(6L, 20L, "8.00")));
+        index.onProductChanged(ProductChangedEvent.saved(product(1L, 20L, "60.00")));
+        index.onProductChanged(ProductChangedEvent.deleted(4L));
+
+        ProductFacetIndex.BrowseResult result = index.browse(20L, null, null, null, 10);
+
+        assertThat(ids(result.getProducts())).containsExactly(6L, 3L, 1L);
+        assertThat(result.getCategoryCounts()).containsEntry(10L, 2L).containsEntry(20L, 3L);
+        assertThat(result.getPriceBucketCounts()).containsExactly(1, 0, 1, 1, 0, 0);
+    }
+
+    @Test
+    void unknownCategoryMatchesNothing() {
+        ProductFacetIndex.BrowseResult result = index.browse(99L, null, null, null, 10);
+
+        assertThat(result.getProducts()).isEmpty();
+        assertThat(result.getPriceBucketCounts()).containsOnly(0L);
+    }
+
+    static Product product(Long id, Long categoryId, String price) {
+        Category category = new Category();
+        category.setId(categoryId);
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Product " + id);
+        product.setCategory(category);
+        product.setPrice(new BigDecimal(price));
+        return product;
+    }
+
+    private static List<Long> ids(List<ProductDto> products) {
+        return products.stream().map(ProductDto::getId).toList();
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.shopBackend.search;
+
+import com.example.shopBackend.dto.ProductDto;
+import com.example.shopBackend.entity.Product;
+import com.example.shopBackend.event.ProductChangedEvent;
+import com.example.shopBackend.mapper.EntityDtoMapper;
+import com.example.shopBackend.repository.ProductRepo;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductSearchIndexTest {
+
+    private final ProductRepo productRepo = mock(ProductRepo.class);
+    private final ProductSearchIndex index = new ProductSearchIndex(productRepo, new EntityDtoMapper());
+
+    @Test
+    void nameHitOutranksDescriptionHit() {
+        build(product(1L, "Fresh Bread", "goes well with avocado"),
+                product(2L, "Organic Avocado", "ripe and ready"),
+                product(3L, "Banana", "yellow"));
+
+        List<Long> ids = ids(index.search("avocado", 0, 10).getProducts());
+
+        assertThat(ids).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void rarerTermWeighsMoreThanACommonOne() {
+        build(product(1L, "Green Apple", null),
+                product(2L, "Green Pear", null),
+                product(3L, "Green Kiwi", null),
+                product(4L, "Red Apple", null));
+
+        List<Long> ids = ids(index.search("green apple", 0, 10).getProducts());
+
+        // both terms first, then the rarer "apple" ahead of the three "green" only matches
+        assertThat(ids.subList(0, 2)).containsExactly(1L, 4L);
+        assertThat(ids.subList(2, 4)).containsExactlyInAnyOrder(2L, 3L);
+    }
+
+    @Test
+    void lastTokenMatchesAsPrefix() {
+        build(product(1L, "Strawberry Jam", null), product(2L, "Straw Hat", null), product(3L, "Honey", null));
+
+        assertThat(ids(index.search("stra", 0, 10).getProducts())).containsExactlyInAnyOrder(1L, 2L);
+        // only the last token expands: "stra" before "jam" must match a whole term
+        assertThat(ids(index.search("stra jam", 0, 10).getProducts())).containsExactly(1L);
+        assertThat(ids(index.search("straw honey", 0, 10).getProducts())).containsExactlyInAnyOrder(2L, 3L);
+    }
+
+    @Test
+    void prefixExpansionStopsAtFiftyTerms() {
+        List<Product> products = new ArrayList<>();
+        for (long id = 0; id < 60; id++) {
+            products.add(product(id, String.format("item%02d", id), null));
+        }
+        build(products.toArray(Product[]::new));
+
+        ProductSearchIndex.SearchPage page = index.search("item", 0, 100);
+
+        // terms expand in sorted order, so item00..item49 are scored and the rest are not
+        assertThat(page.getTotalElements()).isEqualTo(50);
+        assertThat(ids(page.getProducts())).allMatch(id -> id < 50);
+        assertThat(ids(index.search("item55", 0, 10).getProducts())).containsExactly(55L);
+    }
+
+    @Test
+    void pagesSliceTheRankedMatches() {
+        build(product(1L, "Tea", null), product(2L, "Tea Tea", null), product(3L, "Green Tea", null));
+
+        List<Long> first = ids(index.search("tea", 0, 2).getProducts());
+        List<Long> second = ids(index.search("tea", 1, 2).getProducts());
+
+        assertThat(first).hasSize(2);
+        assertThat(second).hasSize(1).doesNotContainAnyElementsOf(first);
+        assertThat(index.search("tea", 0, 2).getTotalElements()).isEqualTo(3);
+    }
+
+    @Test
+    void updateAndDeleteEventsChangeResults() {
+        build(product(1L, "Organic Avocado", null), product(2L, "Banana Bread", null));
+
+        index.onProductChanged(ProductChangedEvent.saved(product(1L, "Ripe Mango", null)));
+        index.onProductChanged(ProductChangedEvent.deleted(2L));
+        index.onProductChanged(ProductChangedEvent.saved(product(3L, "Mango Juice", null)));
+
+        assertThat(index.search("avocado", 0, 10).getTotalElements()).isZero();
+        assertThat(index.search("banana", 0, 10).getTotalElements()).isZero();
+        assertThat(ids(index.search("mango", 0, 10).getProducts())).containsExactlyInAnyOrder(1L, 3L);
+    }
+
+    @Test
+    void changesArrivingDuringBuildSurviveTheSwap() {
+        // the build read the old rows; these events commit while it is still reading
+        when(productRepo.findAll()).thenAnswer(invocation -> {
+            index.onProductChanged(ProductChangedEvent.saved(product(1L, "Ripe Mango", null)));
+            index.onProductChanged(ProductChangedEvent.deleted(2L));
+            index.onProductChanged(ProductChangedEvent.saved(product(3L, "Cherry Tomatoes", null)));
+            return List.of(product(1L, "Organic Avocado", null), product(2L, "Banana Bread", null));
+        });
+
+        index.buildIndex();
+
+        assertThat(index.search("avocado", 0, 10).getTotalElements()).isZero();
+        assertThat(index.search("banana", 0, 10).getTotalElements()).isZero();
+        assertThat(ids(index.search("mango", 0, 10).getProducts())).containsExactly(1L);
+        assertThat(ids(index.search("cherry", 0, 10).getProducts())).containsExactly(3L);
+    }
+
+    @Test
+    void eventsAfterBuildAreNotReplayedByTheNextBuild() {
+        build(product(1L, "Organic Avocado", null));
+        index.onProductChanged(ProductChangedEvent.saved(product(2L, "Banana", null)));
+
+        // the next build sees the catalog without product 2: nothing from before it may come back
+        build(product(1L, "Organic Avocado", null));
+
+        assertThat(index.search("banana", 0, 10).getTotalElements()).isZero();
+    }
+
+    private void build(Product... products) {
+        when(productRepo.findAll()).thenReturn(List.of(products));
+        index.buildIndex();
+    }
+
+    private static Product product(Long id, String name, String description) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setDescription(description);
+        return product;
+    }
+
+    private static List<Long> ids(List<ProductDto> products) {
+        return products.stream().map(ProductDto::getId).toList();
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.shopBackend.search;
+
+import com.example.shopBackend.cache.CatalogVersion;
+import com.example.shopBackend.dto.ProductDto;
+import com.example.shopBackend.entity.Product;
+import com.example.shopBackend.event.ProductChangedEvent;
+import com.example.shopBackend.repository.OrderItemRepo;
+import com.example.shopBackend.repository.ProductRepo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static com.example.shopBackend.search.ProductTrigramIndexTest.product;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductSuggestIndexTest {
+
+    private final ProductRepo productRepo = mock(ProductRepo.class);
+    private final OrderItemRepo orderItemRepo = mock(OrderItemRepo.class);
+    private final ProductSuggestIndex index = new ProductSuggestIndex(productRepo, orderItemRepo, new CatalogVersion());
+
+    @AfterEach
+    void tearDown() {
+        index.stop();
+    }
+
+    @Test
+    void completesEveryWordStartByPopularity() {
+        when(orderItemRepo.sumQuantityByProduct()).thenReturn(List.<Object[]>of(new Object[]{2L, 50L}));
+        when(productRepo.findAll()).thenReturn(List.of(product(1L, "Office Chair"), product(2L, "Chair Cushion")));
+        index.buildIndex();
+
+        assertThat(ids(index.suggest("chai", 10))).containsExactly(2L, 1L);
+        assertThat(ids(index.suggest("off", 10))).containsExactly(1L);
+    }
+
+    @Test
+    void changesAreAppliedInTheBackground() throws InterruptedException {
+        when(productRepo.findAll()).thenReturn(List.of(product(1L, "Office Chair")));
+        index.buildIndex();
+
+        index.onProductChanged(ProductChangedEvent.saved(product(1L, "Desk Lamp")));
+
+        awaitTrue(() -> index.rebuildCount() == 1);
+        assertThat(index.suggest("chair", 10)).isEmpty();
+        assertThat(ids(index.suggest("lamp", 10))).containsExactly(1L);
+    }
+
+    @Test
+    void burstOfChangesIsFoldedIntoFewRebuilds() throws InterruptedException {
+        List<Product> products = new ArrayList<>();
+        for (long id = 1; id <= 500; id++) {
+            products.add(product(id, "Garden Tool " + id));
+        }
+        when(productRepo.findAll()).thenReturn(products);
+        index.buildIndex();
+
+        // what deleting a category with 500 products publishes
+        for (long id = 1; id <= 500; id++) {
+            index.onProductChanged(ProductChangedEvent.deleted(id));
+        }
+
+        awaitTrue(() -> index.suggest("garden", 10).isEmpty());
+        assertThat(index.rebuildCount()).isLessThanOrEqualTo(2);
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("condition not met in time").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private static List<Long> ids(List<ProductDto> products) {
+        return products.stream().map(ProductDto::getId).toList();
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.shopBackend.search;
+
+import com.example.shopBackend.dto.ProductDto;
+import com.example.shopBackend.entity.Product;
+import com.example.shopBackend.event.ProductChangedEvent;
+import com.example.shopBackend.mapper.EntityDtoMapper;
+import com.example.shopBackend.repository.ProductRepo;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductTrigramIndexTest {
+
+    private final ProductRepo productRepo = mock(ProductRepo.class);
+    private final ProductTrigramIndex index = new ProductTrigramIndex(productRepo, new EntityDtoMapper());
+
+    @Test
+    void misspelledQueryFindsProductAndSuggestsItsName() {
+        build(product(1L, "Organic Avocado"), product(2L, "Banana Bread"), product(3L, "Cherry Tomatoes"));
+
+        ProductTrigramIndex.FuzzyPage page = index.search("avocdo", 0, 10);
+
+        assertThat(ids(page.getProducts())).containsExactly(1L);
+        assertThat(page.getSuggestion()).isEqualTo("Organic Avocado");
+    }
+
+    @Test
+    void closerSpellingRanksFirst() {
+        build(product(1L, "Tomato Sauce"), product(2L, "Tomatillo"), product(3L, "Potato"));
+
+        ProductTrigramIndex.FuzzyPage page = index.search("tomatos", 0, 10);
+
+        assertThat(ids(page.getProducts()).get(0)).isEqualTo(1L);
+    }
+
+    @Test
+    void unrelatedQueryReturnsNothing() {
+        build(product(1L, "Organic Avocado"));
+
+        ProductTrigramIndex.FuzzyPage page = index.search("xyzzy", 0, 10);
+
+        assertThat(page.getTotalElements()).isZero();
+        assertThat(page.getSuggestion()).isNull();
+    }
+
+    @Test
+    void pagesSliceTheRankedMatches() {
+        build(product(1L, "Green Apple"), product(2L, "Green Apples"), product(3L, "Green Apple Juice"));
+
+        ProductTrigramIndex.FuzzyPage first = index.search("green aple", 0, 2);
+        ProductTrigramIndex.FuzzyPage second = index.search("green aple", 1, 2);
+
+        assertThat(first.getTotalElements()).isEqualTo(3);
+        assertThat(first.getProducts()).hasSize(2);
+        assertThat(second.getProducts()).hasSize(1);
+        assertThat(ids(second.getProducts())).doesNotContainAnyElementsOf(ids(first.getProducts()));
+    }
+
+    @Test
+    void renameAndDeleteTombstoneTheOldEntry() {
+        build(product(1L, "Organic Avocado"), product(2L, "Banana Bread"));
+
+        index.onProductChanged(ProductChangedEvent.saved(product(1L, "Ripe Mango")));
+        index.onProductChanged(ProductChangedEvent.deleted(2L));
+
+        assertThat(index.search("avocado", 0, 10).getTotalElements()).isZero();
+        assertThat(index.search("banana", 0, 10).getTotalElements()).isZero();
+        assertThat(ids(index.search("mangoo", 0, 10).getProducts())).containsExactly(1L);
+    }
+
+    @Test
+    void compactionKeepsLiveProductsSearchable() {
+        List<Product> products = new ArrayList<>();
+        for (long id = 1; id <= 3000; id++) {
+            products.add(product(id, "Item " + id));
+        }
+        products.add(product(5000L, "Zucchini"));
+        build(products.toArray(Product[]::new));
+
+        // enough deletions to push tombstones past the live entries
+        for (long id = 1; id <= 2500; id++) {
+            index.onProductChanged(ProductChangedEvent.deleted(id));
+        }
+
+        assertThat(ids(index.search("zuchini", 0, 10).getProducts())).containsExactly(5000L);
+        assertThat(index.search("item 2999", 0, 1).getProducts().get(0).getId()).isEqualTo(2999L);
+    }
+
+    private void build(Product... products) {
+        when(productRepo.findAll()).thenReturn(List.of(products));
+        index.buildIndex();
+    }
+
+    static Product product(Long id, String name) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        return product;
+    }
+
+    private static List<Long> ids(List<ProductDto> products) {
+        return products.stream().map(ProductDto::getId).toList();
+    }
+}
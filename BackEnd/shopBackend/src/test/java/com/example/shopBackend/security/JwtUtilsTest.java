@@ -0,0 +1,90 @@
+package com.example.shopBackend.security;
+
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Every check runs with the verified-token cache on and off; the cache must not change any answer. */
+class JwtUtilsTest {
+
+    private static final String SECRET = "test-secret-test-secret-test-secret-0123456789";
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void issuedTokenVerifiesToItsSubjectAndSession(boolean cached) {
+        JwtUtils jwtUtils = jwtUtils(cached);
+        String token = jwtUtils.generateAccessToken("alice@example.com", "session-1");
+
+        for (int i = 0; i < 2; i++) {
+            JwtUtils.VerifiedToken verified = jwtUtils.verify(token);
+            assertThat(verified).isNotNull();
+            assertThat(verified.getSubject()).isEqualTo("alice@example.com");
+            assertThat(verified.getSessionId()).isEqualTo("session-1");
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void tamperedTokenIsRejectedEvenAfterTheGenuineOneWasCached(boolean cached) {
+        JwtUtils jwtUtils = jwtUtils(cached);
+        String token = jwtUtils.generateAccessToken("alice@example.com", "session-1");
+        assertThat(jwtUtils.verify(token)).isNotNull();
+
+        String[] parts = token.split("\\.");
+        String forgedPayload = Jwts.builder().subject("admin@example.com").claim("sid", "session-1")
+                .expiration(new Date(System.currentTimeMillis() + 60_000)).signWith(key("another-secret-another-secret-another-secret"))
+                .compact().split("\\.")[1];
+
+        assertThat(jwtUtils.verify(parts[0] + "." + forgedPayload + "." + parts[2])).isNull();
+        assertThat(jwtUtils.verify(token.substring(0, token.length() - 2) + "xx")).isNull();
+        assertThat(jwtUtils.verify("not-a-jwt")).isNull();
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void tokenWithoutSessionIsRejected(boolean cached) {
+        JwtUtils jwtUtils = jwtUtils(cached);
+        String token = Jwts.builder().subject("alice@example.com")
+                .expiration(new Date(System.currentTimeMillis() + 60_000)).signWith(key(SECRET)).compact();
+
+        assertThat(jwtUtils.verify(token)).isNull();
+        assertThat(jwtUtils.verify(token)).isNull();
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void cachedTokenStopsVerifyingOnceItExpires(boolean cached) throws InterruptedException {
+        JwtUtils jwtUtils = jwtUtils(cached);
+        String token = Jwts.builder().subject("alice@example.com").claim("sid", "session-1")
+                .expiration(new Date(System.currentTimeMillis() + 1_000)).signWith(key(SECRET)).compact();
+        assertThat(jwtUtils.verify(token)).isNotNull();
+
+        // exp has whole-second precision
+        Thread.sleep(1_100);
+
+        assertThat(jwtUtils.verify(token)).isNull();
+        assertThat(jwtUtils.getUsernameFromToken(token)).isNull();
+    }
+
+    static JwtUtils jwtUtils(boolean cached) {
+        JwtUtils jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "secreteJwtString", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "accessTokenMinutes", 15L);
+        ReflectionTestUtils.setField(jwtUtils, "verifiedCacheEnabled", cached);
+        ReflectionTestUtils.setField(jwtUtils, "verifiedCacheCapacity", 10_000);
+        ReflectionTestUtils.setField(jwtUtils, "verifiedCacheTtlSeconds", 300L);
+        ReflectionTestUtils.invokeMethod(jwtUtils, "init");
+        return jwtUtils;
+    }
+
+    private static SecretKeySpec key(String secret) {
+        return new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.shopBackend.security;
+
+import com.example.shopBackend.exceptions.TooManyRequestsException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordHasherTest {
+
+    private final GatedEncoder encoder = new GatedEncoder();
+    private PasswordHasher hasher;
+
+    @AfterEach
+    void tearDown() {
+        encoder.release();
+        hasher.stop();
+    }
+
+    @Test
+    void fullQueueIsShedRightAway() throws Exception {
+        hasher = new PasswordHasher(encoder, 10, 1, 1, 60_000);
+        // one hash running, one waiting in the single queue slot
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> hasher.matches("running", "hash"));
+        assertThat(encoder.started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> hasher.matches("queued", "hash"));
+        awaitQueued(1);
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> hasher.matches("shed", "hash")).isInstanceOf(TooManyRequestsException.class);
+        // rejected on submit, not after the minute-long queue timeout
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(5_000);
+
+        encoder.release();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(encoder.hashed).containsExactly("running", "queued");
+    }
+
+    @Test
+    void queueTimeoutRemovesTheWaitingHash() throws Exception {
+        hasher = new PasswordHasher(encoder, 10, 1, 4, 100);
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> hasher.matches("running", "hash"));
+        assertThat(encoder.started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> hasher.encode("timed-out")).isInstanceOf(TooManyRequestsException.class);
+        // dropped from the queue, so the freed worker never spends a hash on it
+        assertThat(hasher.queuedTasks()).isZero();
+
+        encoder.release();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(hasher.encode("after")).isEqualTo("hashed:after");
+        assertThat(encoder.hashed).containsExactly("running", "after");
+    }
+
+    @Test
+    void hashAlreadyRunningAtTheTimeoutIsAwaited() {
+        hasher = new PasswordHasher(encoder, 10, 1, 4, 50);
+        encoder.delayMillis = 300;
+        encoder.release();
+
+        // started before the timeout, so the caller waits for the result instead of a 429
+        assertThat(hasher.encode("slow")).isEqualTo("hashed:slow");
+    }
+
+    @Test
+    void needsRehashComparesTheStoredCost() {
+        hasher = new PasswordHasher(encoder, 12, 1, 1, 100);
+
+        assertThat(hasher.needsRehash("$2a$10$abcdefghijklmnopqrstuv")).isTrue();
+        assertThat(hasher.needsRehash("$2a$12$abcdefghijklmnopqrstuv")).isFalse();
+        assertThat(hasher.needsRehash(null)).isFalse();
+    }
+
+    private void awaitQueued(int size) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (hasher.queuedTasks() < size) {
+            assertThat(System.currentTimeMillis()).as("task never queued").isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    /** Blocks every hash until released, recording which passwords actually got hashed. */
+    private static class GatedEncoder implements PasswordEncoder {
+
+        final CountDownLatch started = new CountDownLatch(1);
+        final List<String> hashed = new CopyOnWriteArrayList<>();
+        private final CountDownLatch gate = new CountDownLatch(1);
+        volatile long delayMillis;
+
+        void release() {
+            gate.countDown();
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            await(rawPassword);
+            return "hashed:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            await(rawPassword);
+            return true;
+        }
+
+        private void await(CharSequence rawPassword) {
+            started.countDown();
+            try {
+                gate.await();
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            hashed.add(rawPassword.toString());
+        }
+    }
+}
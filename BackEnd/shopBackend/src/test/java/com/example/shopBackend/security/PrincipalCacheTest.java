@@ -0,0 +1,73 @@
+package com.example.shopBackend.security;
+
+import com.example.shopBackend.entity.User;
+import com.example.shopBackend.enums.UserRole;
+import com.example.shopBackend.event.UserChangedEvent;
+import com.example.shopBackend.repository.UserRepo;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PrincipalCacheTest {
+
+    private static final String EMAIL = "cached@example.com";
+
+    private final UserRepo userRepo = mock(UserRepo.class);
+    private final PrincipalCache cache = new PrincipalCache(userRepo, true, 100, 60);
+
+    @Test
+    void secondLoadIsServedFromTheCache() {
+        when(userRepo.findByEmail(EMAIL)).thenReturn(Optional.of(user(UserRole.USER)));
+
+        User first = cache.load(EMAIL);
+        User second = cache.load(EMAIL);
+
+        assertThat(second).isSameAs(first);
+        verify(userRepo, times(1)).findByEmail(EMAIL);
+        assertThat(cache.stats().getPrincipalLoads()).isEqualTo(2);
+        assertThat(cache.stats().getUserLookupQueries()).isEqualTo(1);
+    }
+
+    @Test
+    void cachedPrincipalIsADetachedSnapshot() {
+        User entity = user(UserRole.USER);
+        when(userRepo.findByEmail(EMAIL)).thenReturn(Optional.of(entity));
+
+        User cached = cache.load(EMAIL);
+
+        assertThat(cached).isNotSameAs(entity);
+        assertThat(cached.getRole()).isEqualTo(UserRole.USER);
+        assertThat(cached.getAddress()).isNull();
+        assertThat(cached.getOrderItemList()).isNull();
+    }
+
+    @Test
+    void userChangedEventDropsTheCachedPrincipal() {
+        when(userRepo.findByEmail(EMAIL)).thenReturn(Optional.of(user(UserRole.USER)), Optional.of(user(UserRole.ADMIN)));
+        cache.load(EMAIL);
+
+        cache.evict(new UserChangedEvent(EMAIL));
+
+        assertThat(cache.load(EMAIL).getRole()).isEqualTo(UserRole.ADMIN);
+        verify(userRepo, times(2)).findByEmail(EMAIL);
+    }
+
+    @Test
+    void unknownEmailsAreNotCached() {
+        when(userRepo.findByEmail(EMAIL)).thenReturn(Optional.empty(), Optional.of(user(UserRole.USER)));
+
+        assertThat(cache.load(EMAIL)).isNull();
+        // a user registering right after a miss must be found
+        assertThat(cache.load(EMAIL)).isNotNull();
+    }
+
+    private static User user(UserRole role) {
+        return User.builder().id(1L).name("cached").email(EMAIL).password("hash").role(role).build();
+    }
+}
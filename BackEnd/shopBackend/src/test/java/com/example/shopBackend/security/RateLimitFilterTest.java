@@ -0,0 +1,149 @@
+package com.example.shopBackend.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitFilterTest {
+
+    private static final String SLOW = "2:0.001";
+
+    private RateLimitFilter filter;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        if (filter != null) {
+            filter.stop();
+        }
+    }
+
+    @Test
+    void anonymousFloodIsTurnedAwayBeforeTokenParsing() throws Exception {
+        filter = filter(100, SLOW, "100:0.001");
+
+        assertThat(send("10.0.0.1", null, null).getStatus()).isEqualTo(200);
+        assertThat(send("10.0.0.1", null, null).getStatus()).isEqualTo(200);
+
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request("10.0.0.1", null), response, chain);
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isNotNull();
+        // the JWT filter and everything after it never ran
+        assertThat(chain.getRequest()).isNull();
+    }
+
+    @Test
+    void bearerRequestsAreChargedToTheirAccount() throws Exception {
+        filter = filter(100, SLOW, "100:0.001");
+
+        for (int i = 0; i < 2; i++) {
+            assertThat(send("10.0.0.1", "token-a", "alice@example.com").getStatus()).isEqualTo(200);
+        }
+        assertThat(send("10.0.0.1", "token-a", "alice@example.com").getStatus()).isEqualTo(429);
+        // same address, different account
+        assertThat(send("10.0.0.1", "token-b", "bob@example.com").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void bearerTokenThatDoesNotResolveIsChargedToTheAddress() throws Exception {
+        filter = filter(100, SLOW, "100:0.001");
+
+        assertThat(send("10.0.0.1", "forged", null).getStatus()).isEqualTo(200);
+        assertThat(send("10.0.0.1", "forged", null).getStatus()).isEqualTo(200);
+        assertThat(send("10.0.0.1", null, null).getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void perAddressCeilingStopsTokenSprayingBeforeVerification() throws Exception {
+        filter = filter(100, "100:0.001", "3:0.001");
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(send("10.0.0.1", "token-" + i, null).getStatus()).isEqualTo(200);
+        }
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request("10.0.0.1", "token-3"), response, chain);
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(chain.getRequest()).isNull();
+    }
+
+    @Test
+    void newClientsShareTheOverflowBucketOnceTheMapIsFull() throws Exception {
+        filter = filter(2, SLOW, "100:0.001");
+        send("10.0.0.1", null, null);
+        send("10.0.0.2", null, null);
+
+        assertThat(send("10.0.0.3", null, null).getStatus()).isEqualTo(200);
+        assertThat(send("10.0.0.4", null, null).getStatus()).isEqualTo(200);
+        assertThat(send("10.0.0.5", null, null).getStatus()).isEqualTo(429);
+        // the existing clients keep their own allowance
+        assertThat(send("10.0.0.1", null, null).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void fullMapIsSweptInTheBackground() throws Exception {
+        filter = filter(2, "1:1000", "100:1000");
+        send("10.0.0.1", null, null);
+        send("10.0.0.2", null, null);
+        // both buckets refill within a millisecond and are idle from then on
+        Thread.sleep(5);
+
+        assertThat(send("10.0.0.3", null, null).getStatus()).isEqualTo(200);
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (filter.bucketCount() > 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(filter.bucketCount()).isLessThanOrEqualTo(1);
+    }
+
+    // runs both stages the way the security chain does, with the account JwtAuthFilter would resolve
+    private MockHttpServletResponse send(String address, String token, String account) throws ServletException, IOException {
+        MockHttpServletRequest request = request(address, token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        // the last filter ends the chain in place of a controller
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+        }, (req, res, next) -> {
+            if (account != null) {
+                SecurityContextHolder.getContext().setAuthentication(
+                        new UsernamePasswordAuthenticationToken(account, null, AuthorityUtils.NO_AUTHORITIES));
+            }
+            next.doFilter(req, res);
+        }, filter.userStage(), (req, res, next) -> {
+        });
+        try {
+            filter.doFilter(request, response, chain);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String address, String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/product/get-all");
+        request.setRemoteAddr(address);
+        if (token != null) {
+            request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        }
+        return request;
+    }
+
+    private static RateLimitFilter filter(int maxBuckets, String defaultQuota, String ipQuota) {
+        return new RateLimitFilter(new ObjectMapper().findAndRegisterModules(), true, maxBuckets, defaultQuota, ipQuota, "");
+    }
+}
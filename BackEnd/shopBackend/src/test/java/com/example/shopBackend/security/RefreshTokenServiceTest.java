@@ -0,0 +1,141 @@
+package com.example.shopBackend.security;
+
+import com.example.shopBackend.entity.User;
+import com.example.shopBackend.exceptions.InvalidCredentialsException;
+import com.example.shopBackend.repository.RefreshTokenRepo;
+import com.example.shopBackend.repository.UserRepo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Refresh token rotation and reuse detection against the real tables. Not transactional:
+ * the service commits its own transactions and the filter reads what they committed.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class RefreshTokenServiceTest {
+
+    private static final long USER_ID = 966_000L;
+    private static final String EMAIL = "refresh@example.com";
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+    @Autowired
+    private RefreshTokenRepo refreshTokenRepo;
+    @Autowired
+    private UserRepo userRepo;
+    @Autowired
+    private JwtUtils jwtUtils;
+    @Autowired
+    private RevocationList revocationList;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private MockMvc mockMvc;
+
+    private User user;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("insert into users (id, name, email, password, phone_number, role, created_at) " +
+                "values (?, 'refresh', ?, 'x', '555', 1, current_timestamp)", USER_ID, EMAIL);
+        user = userRepo.findById(USER_ID).orElseThrow();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from refresh_tokens where user_id = ?", USER_ID);
+        jdbcTemplate.update("delete from users where id = ?", USER_ID);
+    }
+
+    @Test
+    void refreshIssuesANewPairInTheSameSession() {
+        RefreshTokenService.IssuedTokens first = refreshTokenService.issue(user);
+
+        RefreshTokenService.IssuedTokens second = refreshTokenService.refresh(first.getRefreshToken());
+
+        assertThat(second.getRefreshToken()).isNotEqualTo(first.getRefreshToken());
+        JwtUtils.VerifiedToken access = jwtUtils.verify(second.getAccessToken());
+        assertThat(access.getSubject()).isEqualTo(EMAIL);
+        assertThat(access.getSessionId()).isEqualTo(jwtUtils.verify(first.getAccessToken()).getSessionId());
+        assertThat(revocationList.isRevoked(access.getSessionId())).isFalse();
+    }
+
+    @Test
+    void exchangingATokenTwiceRevokesTheSession() {
+        RefreshTokenService.IssuedTokens first = refreshTokenService.issue(user);
+        RefreshTokenService.IssuedTokens second = refreshTokenService.refresh(first.getRefreshToken());
+        String sessionId = jwtUtils.verify(first.getAccessToken()).getSessionId();
+
+        assertThatThrownBy(() -> refreshTokenService.refresh(first.getRefreshToken()))
+                .isInstanceOf(InvalidCredentialsException.class);
+
+        // the thief may hold the newer token too, so it dies with the session
+        assertThatThrownBy(() -> refreshTokenService.refresh(second.getRefreshToken()))
+                .isInstanceOf(InvalidCredentialsException.class);
+        assertThat(revocationList.isRevoked(sessionId)).isTrue();
+        assertThat(openTokens()).isZero();
+    }
+
+    @Test
+    void replayLosingTheExchangeRaceRevokesTheSession() {
+        RefreshTokenService.IssuedTokens first = refreshTokenService.issue(user);
+        String sessionId = jwtUtils.verify(first.getAccessToken()).getSessionId();
+        // the other request exchanges the token right after this one read it as unused
+        RefreshTokenRepo racingRepo = mock(RefreshTokenRepo.class, delegatesTo(refreshTokenRepo));
+        doAnswer(invocation -> {
+            Object state = refreshTokenRepo.findStateByTokenHash(invocation.getArgument(0));
+            jdbcTemplate.update("update refresh_tokens set used_at = current_timestamp where session_id = ?", sessionId);
+            return state;
+        }).when(racingRepo).findStateByTokenHash(anyString());
+        RefreshTokenService racingService = new RefreshTokenService(racingRepo, userRepo, jwtUtils, revocationList,
+                transactionManager, 30);
+
+        assertThatThrownBy(() -> racingService.refresh(first.getRefreshToken()))
+                .isInstanceOf(InvalidCredentialsException.class);
+
+        assertThat(revocationList.isRevoked(sessionId)).isTrue();
+        assertThat(openTokens()).isZero();
+    }
+
+    @Test
+    void accessTokenOfARevokedSessionIsRejectedByTheFilter() throws Exception {
+        RefreshTokenService.IssuedTokens tokens = refreshTokenService.issue(user);
+        String bearer = "Bearer " + tokens.getAccessToken();
+        assertThat(status(bearer)).isEqualTo(200);
+
+        refreshTokenService.logout(tokens.getRefreshToken());
+
+        // the access token is still unexpired and correctly signed
+        assertThat(jwtUtils.verify(tokens.getAccessToken())).isNotNull();
+        assertThat(status(bearer)).isEqualTo(403);
+    }
+
+    private int status(String bearer) throws Exception {
+        return mockMvc.perform(get("/user/my-info").header(HttpHeaders.AUTHORIZATION, bearer))
+                .andReturn().getResponse().getStatus();
+    }
+
+    private int openTokens() {
+        return jdbcTemplate.queryForObject("select count(*) from refresh_tokens where user_id = ? and revoked_at is null",
+                Integer.class, USER_ID);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.shopBackend.security;
+
+import com.example.shopBackend.repository.RefreshTokenRepo;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RevocationListTest {
+
+    private final RefreshTokenRepo refreshTokenRepo = mock(RefreshTokenRepo.class);
+    private final RevocationList revocationList = new RevocationList(refreshTokenRepo, 15, 5);
+
+    @Test
+    void sessionRevokedWhileTheSnapshotIsReadStaysRevoked() {
+        // the revocation commits after the query read its rows, so the snapshot misses it
+        when(refreshTokenRepo.findSessionIdsRevokedSince(any(LocalDateTime.class))).thenAnswer(invocation -> {
+            revocationList.add("during");
+            return List.of("older");
+        });
+
+        revocationList.rebuild();
+
+        assertThat(revocationList.isRevoked("during")).isTrue();
+        assertThat(revocationList.isRevoked("older")).isTrue();
+    }
+
+    @Test
+    void localEntriesAreDroppedOnceASnapshotCoversThem() throws InterruptedException {
+        revocationList.add("local");
+        // added strictly before the rebuild starts
+        Thread.sleep(2);
+        when(refreshTokenRepo.findSessionIdsRevokedSince(any(LocalDateTime.class)))
+                .thenReturn(List.of("local"), List.of());
+
+        revocationList.rebuild();
+        assertThat(revocationList.isRevoked("local")).isTrue();
+
+        // out of the window in the database, and no longer held locally either
+        revocationList.rebuild();
+        assertThat(revocationList.isRevoked("local")).isFalse();
+    }
+
+    @Test
+    void failedRebuildKeepsWhatWasRevoked() {
+        when(refreshTokenRepo.findSessionIdsRevokedSince(any(LocalDateTime.class)))
+                .thenReturn(List.of("snapshot"))
+                .thenThrow(new IllegalStateException("database down"));
+        revocationList.rebuild();
+        revocationList.add("local");
+
+        revocationList.rebuild();
+
+        assertThat(revocationList.isRevoked("snapshot")).isTrue();
+        assertThat(revocationList.isRevoked("local")).isTrue();
+        assertThat(revocationList.isRevoked(null)).isFalse();
+    }
+}
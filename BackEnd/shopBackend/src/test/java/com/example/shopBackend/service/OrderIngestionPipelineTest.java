@@ -0,0 +1,94 @@
+package com.example.shopBackend.service;
+
+import com.example.shopBackend.dto.OrderRequest;
+import com.example.shopBackend.entity.Order;
+import com.example.shopBackend.entity.User;
+import com.example.shopBackend.enums.OrderIngestionStatus;
+import com.example.shopBackend.exceptions.ConflictException;
+import com.example.shopBackend.inventory.StockLedger;
+import com.example.shopBackend.repository.OrderRepo;
+import jakarta.validation.ValidationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderIngestionPipelineTest {
+
+    private final OrderAssembler orderAssembler = mock(OrderAssembler.class);
+    private final OrderRepo orderRepo = mock(OrderRepo.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private OrderIngestionPipeline pipeline;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (pipeline != null) {
+            pipeline.shutdown();
+        }
+    }
+
+    @Test
+    void interruptDuringLingerStillCommitsTheOrdersAlreadyTaken() throws Exception {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(orderAssembler.resolveProducts(anyList())).thenReturn(Map.of());
+        when(orderAssembler.assemble(any(), any(), any())).thenAnswer(invocation -> {
+            Order order = new Order();
+            order.setId(42L);
+            order.setOrderItemList(new ArrayList<>());
+            return order;
+        });
+        when(orderRepo.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // a linger long enough that the writer is parked in it when interrupted
+        pipeline = new OrderIngestionPipeline(orderAssembler, orderRepo, mock(StockLedger.class),
+                mock(OrderStatusCounters.class), transactionManager, true, 100, 10, 60_000, 3600, 10);
+        pipeline.start();
+        User user = new User();
+        user.setId(7L);
+        String trackingId = pipeline.submit(user, new OrderRequest(), null);
+
+        // the first poll waits at most 100 ms, after which the order sits in the lingering batch
+        Thread.sleep(300);
+        writerThread().interrupt();
+
+        verify(orderRepo, timeout(5000)).saveAll(anyList());
+        long deadline = System.currentTimeMillis() + 5000;
+        while (pipeline.findTicket(trackingId).getStatus() == OrderIngestionStatus.QUEUED
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(pipeline.findTicket(trackingId).getStatus()).isEqualTo(OrderIngestionStatus.COMMITTED);
+        assertThat(pipeline.findTicket(trackingId).getOrderId()).isEqualTo(42L);
+    }
+
+    @Test
+    void failureReasonKeepsValidationMessagesAndHidesInternals() {
+        assertThat(OrderIngestionPipeline.failureReason(new ValidationException("Delivery date is required")))
+                .isEqualTo("Delivery date is required");
+        assertThat(OrderIngestionPipeline.failureReason(new ConflictException("Insufficient stock for product id: 3")))
+                .isEqualTo("Insufficient stock for product id: 3");
+        assertThat(OrderIngestionPipeline.failureReason(
+                new DataIntegrityViolationException("could not execute statement [insert into orders ...]")))
+                .doesNotContain("insert")
+                .isEqualTo("Order could not be placed, please try again");
+    }
+
+    private static Thread writerThread() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().equals("order-ingestion-writer"))
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.shopBackend.service;
+
+import com.example.shopBackend.dto.OrderItemStatusBulkRequest;
+import com.example.shopBackend.dto.Response;
+import com.example.shopBackend.entity.User;
+import com.example.shopBackend.enums.OrderStatus;
+import com.example.shopBackend.enums.UserRole;
+import com.example.shopBackend.security.AuthUser;
+import jakarta.validation.ValidationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Bulk status updates run in 500-id chunks, each in its own transaction. Not transactional
+ * itself, so every chunk commits and the status counters move as they would in production.
+ */
+@SpringBootTest
+class OrderItemBulkStatusTest {
+
+    private static final long FIRST_ID = 993_000L;
+    // spans three chunks: 500 + 500 + 203
+    private static final int ITEMS = 1_203;
+    // every tenth item is already cancelled, a final state no bulk update may leave
+    private static final int CANCELLED_EVERY = 10;
+    private static final LocalDateTime CREATED = LocalDateTime.of(2031, 3, 1, 12, 0);
+
+    @Autowired
+    private OrderItemService orderItemService;
+    @Autowired
+    private OrderStatusCounters orderStatusCounters;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            OrderStatus status = i % CANCELLED_EVERY == 0 ? OrderStatus.CANCELLED : OrderStatus.PENDING;
+            rows.add(new Object[]{FIRST_ID + i, status.ordinal(), CREATED});
+        }
+        jdbcTemplate.batchUpdate("insert into order_items (id, quantity, price, status, version, created_at) " +
+                "values (?, 1, 9.99, ?, 0, ?)", rows);
+        // rows written behind the service's back: count them the way startup would
+        orderStatusCounters.resync();
+
+        User admin = new User();
+        admin.setId(1L);
+        admin.setEmail("admin@example.com");
+        admin.setRole(UserRole.ADMIN);
+        AuthUser principal = AuthUser.builder().user(admin).build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        jdbcTemplate.update("delete from order_items where id between ? and ?", FIRST_ID, FIRST_ID + ITEMS);
+        orderStatusCounters.resync();
+    }
+
+    @Test
+    void idsAcrossChunkBoundariesAreUpdatedAndUnknownIdsReported() {
+        long pendingBefore = orderStatusCounters.approximateTotal(OrderStatus.PENDING);
+        long confirmedBefore = orderStatusCounters.approximateTotal(OrderStatus.CONFIRMED);
+
+        List<Long> ids = new ArrayList<>(LongStream.range(FIRST_ID, FIRST_ID + ITEMS).boxed().toList());
+        // unknown ids land in every chunk, duplicates and nulls are ignored
+        List<Long> missing = List.of(994_500L, 994_501L, 994_502L);
+        ids.add(10, missing.get(0));
+        ids.add(600, missing.get(1));
+        ids.add(missing.get(2));
+        ids.add(FIRST_ID + 1);
+        ids.add(null);
+
+        Response response = orderItemService.bulkUpdateOrderItemStatus(request(OrderStatus.CONFIRMED, ids));
+
+        int cancelled = (ITEMS + CANCELLED_EVERY - 1) / CANCELLED_EVERY;
+        int moved = ITEMS - cancelled;
+        assertThat(response.getUpdatedCount()).isEqualTo(moved);
+        assertThat(response.getMissingIds()).containsExactlyElementsOf(missing);
+        assertThat(countWithStatus(OrderStatus.CONFIRMED)).isEqualTo(moved);
+        assertThat(countWithStatus(OrderStatus.CANCELLED)).isEqualTo(cancelled);
+        // items on either side of each 500-id boundary
+        for (long id : new long[]{FIRST_ID + 498, FIRST_ID + 499, FIRST_ID + 501, FIRST_ID + 999, FIRST_ID + 1001}) {
+            assertThat(statusOf(id)).as("item %d", id).isEqualTo(OrderStatus.CONFIRMED);
+        }
+        assertThat(orderStatusCounters.approximateTotal(OrderStatus.PENDING)).isEqualTo(pendingBefore - moved);
+        assertThat(orderStatusCounters.approximateTotal(OrderStatus.CONFIRMED)).isEqualTo(confirmedBefore + moved);
+    }
+
+    @Test
+    void illegalTransitionsAreSkippedAndLeaveCountersAlone() {
+        long cancelledBefore = orderStatusCounters.approximateTotal(OrderStatus.CANCELLED);
+        long shippedBefore = orderStatusCounters.approximateTotal(OrderStatus.SHIPPED);
+
+        // neither PENDING nor CANCELLED may move straight to SHIPPED
+        Response response = orderItemService.bulkUpdateOrderItemStatus(request(OrderStatus.SHIPPED,
+                LongStream.range(FIRST_ID, FIRST_ID + ITEMS).boxed().toList()));
+
+        assertThat(response.getUpdatedCount()).isZero();
+        assertThat(response.getMissingIds()).isEmpty();
+        assertThat(countWithStatus(OrderStatus.SHIPPED)).isZero();
+        assertThat(orderStatusCounters.approximateTotal(OrderStatus.SHIPPED)).isEqualTo(shippedBefore);
+        assertThat(orderStatusCounters.approximateTotal(OrderStatus.CANCELLED)).isEqualTo(cancelledBefore);
+    }
+
+    @Test
+    void filterWalksEveryMatchingChunk() {
+        long pendingBefore = orderStatusCounters.approximateTotal(OrderStatus.PENDING);
+
+        OrderItemStatusBulkRequest request = new OrderItemStatusBulkRequest();
+        request.setStatus(OrderStatus.CANCELLED.name());
+        request.setCurrentStatus(OrderStatus.PENDING.name());
+        request.setStartDate(CREATED.minusMinutes(1));
+        request.setEndDate(CREATED.plusMinutes(1));
+        Response response = orderItemService.bulkUpdateOrderItemStatus(request);
+
+        int pending = ITEMS - (ITEMS + CANCELLED_EVERY - 1) / CANCELLED_EVERY;
+        assertThat(response.getUpdatedCount()).isEqualTo(pending);
+        assertThat(countWithStatus(OrderStatus.CANCELLED)).isEqualTo(ITEMS);
+        assertThat(orderStatusCounters.approximateTotal(OrderStatus.PENDING)).isEqualTo(pendingBefore - pending);
+    }
+
+    @Test
+    void requestsNeedExactlyOneSelectorAndAtMostTenThousandIds() {
+        OrderItemStatusBulkRequest both = request(OrderStatus.CONFIRMED, List.of(FIRST_ID));
+        both.setCurrentStatus(OrderStatus.PENDING.name());
+        assertThatThrownBy(() -> orderItemService.bulkUpdateOrderItemStatus(both)).isInstanceOf(ValidationException.class);
+
+        OrderItemStatusBulkRequest neither = request(OrderStatus.CONFIRMED, null);
+        assertThatThrownBy(() -> orderItemService.bulkUpdateOrderItemStatus(neither)).isInstanceOf(ValidationException.class);
+
+        OrderItemStatusBulkRequest tooMany = request(OrderStatus.CONFIRMED, LongStream.range(0, 10_001).boxed().toList());
+        assertThatThrownBy(() -> orderItemService.bulkUpdateOrderItemStatus(tooMany)).isInstanceOf(ValidationException.class);
+        assertThat(countWithStatus(OrderStatus.CONFIRMED)).isZero();
+    }
+
+    private static OrderItemStatusBulkRequest request(OrderStatus target, List<Long> ids) {
+        OrderItemStatusBulkRequest request = new OrderItemStatusBulkRequest();
+        request.setStatus(target.name());
+        request.setOrderItemIds(ids);
+        return request;
+    }
+
+    private int countWithStatus(OrderStatus status) {
+        return jdbcTemplate.queryForObject("select count(*) from order_items where id between ? and ? and status = ?",
+                Integer.class, FIRST_ID, FIRST_ID + ITEMS, status.ordinal());
+    }
+
+    private OrderStatus statusOf(long id) {
+        return OrderStatus.values()[jdbcTemplate.queryForObject("select status from order_items where id = ?", Integer.class, id)];
+    }
+}
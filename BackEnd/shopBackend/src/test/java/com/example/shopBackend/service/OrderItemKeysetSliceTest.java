@@ -0,0 +1,180 @@
+package com.example.shopBackend.service;
+
+import com.example.shopBackend.dto.OrderItemDto;
+import com.example.shopBackend.dto.Response;
+import com.example.shopBackend.entity.User;
+import com.example.shopBackend.enums.OrderStatus;
+import com.example.shopBackend.enums.UserRole;
+import com.example.shopBackend.exceptions.NotFoundException;
+import com.example.shopBackend.security.AuthUser;
+import com.example.shopBackend.util.CursorCodec;
+import jakarta.validation.ValidationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Keyset slices of the order item listing, newest first on (created_at, id). Not transactional,
+ * so the status counters can be re-seeded from committed rows and the approximate total checked.
+ */
+@SpringBootTest
+class OrderItemKeysetSliceTest {
+
+    private static final long FIRST_ID = 964_000L;
+    private static final long CUSTOMER_ID = 964_500L;
+    private static final int ITEMS = 23;
+    // five items share each timestamp, so slices of four keep ending inside a tie
+    private static final int PER_TIMESTAMP = 5;
+    private static final int LIMIT = 4;
+    private static final LocalDateTime FIRST_CREATED = LocalDateTime.of(2033, 5, 1, 9, 0);
+    private static final LocalDateTime FROM = FIRST_CREATED.minusDays(1);
+    private static final LocalDateTime TO = FIRST_CREATED.plusDays(1);
+
+    @Autowired
+    private OrderItemService orderItemService;
+    @Autowired
+    private OrderStatusCounters orderStatusCounters;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> newestFirst = new ArrayList<>();
+    private final List<Long> customerNewestFirst = new ArrayList<>();
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("insert into users (id, name, email, password, phone_number, role, created_at) " +
+                "values (?, 'slices', 'slices@example.com', 'x', '555', ?, current_timestamp)", CUSTOMER_ID, UserRole.USER.ordinal());
+        List<Object[]> rows = new ArrayList<>();
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            long id = FIRST_ID + i;
+            // ids do not follow time: later ids land on earlier timestamps
+            LocalDateTime createdAt = FIRST_CREATED.minusMinutes(i / PER_TIMESTAMP);
+            Long userId = i % 3 == 0 ? CUSTOMER_ID : null;
+            rows.add(new Object[]{id, OrderStatus.SHIPPED.ordinal(), userId, createdAt});
+            items.add(new Item(id, createdAt, userId));
+        }
+        jdbcTemplate.batchUpdate("insert into order_items (id, quantity, price, status, version, user_id, created_at) " +
+                "values (?, 1, 9.99, ?, 0, ?, ?)", rows);
+        orderStatusCounters.resync();
+
+        items.sort(Comparator.comparing(Item::createdAt).thenComparing(Item::id).reversed());
+        for (Item item : items) {
+            newestFirst.add(item.id());
+            if (item.userId() != null) customerNewestFirst.add(item.id());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        jdbcTemplate.update("delete from order_items where id between ? and ?", FIRST_ID, FIRST_ID + ITEMS);
+        jdbcTemplate.update("delete from users where id = ?", CUSTOMER_ID);
+        orderStatusCounters.resync();
+    }
+
+    @Test
+    void walkingEverySliceReturnsEachItemOnceAcrossTies() {
+        login(1L, UserRole.ADMIN);
+
+        List<Long> ids = new ArrayList<>();
+        List<Integer> sliceSizes = new ArrayList<>();
+        String cursor = null;
+        do {
+            Response slice = orderItemService.filterOrderItems(OrderStatus.SHIPPED, FROM, TO, null, LIMIT, cursor, false);
+            List<OrderItemDto> items = slice.getOrderItemList();
+            sliceSizes.add(items.size());
+            items.forEach(item -> ids.add(item.getId()));
+            cursor = slice.getNextCursor();
+            if (cursor != null) {
+                // the cursor is the last row handed out, so the next slice starts right after it
+                OrderItemDto last = items.get(items.size() - 1);
+                String[] position = CursorCodec.decode(cursor, 2);
+                assertThat(LocalDateTime.parse(position[0])).isEqualTo(last.getCreatedAt());
+                assertThat(Long.parseLong(position[1])).isEqualTo(last.getId());
+            }
+        } while (cursor != null);
+
+        assertThat(ids).containsExactlyElementsOf(newestFirst);
+        assertThat(sliceSizes).containsExactly(4, 4, 4, 4, 4, 3);
+    }
+
+    @Test
+    void customersWalkOnlyTheirOwnItems() {
+        login(CUSTOMER_ID, UserRole.USER);
+
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            Response slice = orderItemService.filterOrderItems(OrderStatus.SHIPPED, FROM, TO, null, 2, cursor, true);
+            slice.getOrderItemList().forEach(item -> ids.add(item.getId()));
+            // the counters are global, so they are never shown to customers
+            assertThat(slice.getApproximateTotal()).isNull();
+            cursor = slice.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(ids).containsExactlyElementsOf(customerNewestFirst);
+    }
+
+    @Test
+    void approximateTotalComesFromTheCountersOnlyWhenAsked() {
+        login(1L, UserRole.ADMIN);
+
+        Response withTotal = orderItemService.filterOrderItems(OrderStatus.SHIPPED, FROM, TO, null, LIMIT, null, true);
+        Response withoutTotal = orderItemService.filterOrderItems(OrderStatus.SHIPPED, FROM, TO, null, LIMIT, null, false);
+
+        // per status and unaffected by the date filter
+        assertThat(withTotal.getApproximateTotal())
+                .isEqualTo(orderStatusCounters.approximateTotal(OrderStatus.SHIPPED))
+                .isGreaterThanOrEqualTo(ITEMS);
+        assertThat(withoutTotal.getApproximateTotal()).isNull();
+        assertThat(withTotal.getOrderItemList()).extracting(OrderItemDto::getId)
+                .containsExactlyElementsOf(newestFirst.subList(0, LIMIT));
+    }
+
+    @Test
+    void exhaustedAndMalformedCursors() {
+        login(1L, UserRole.ADMIN);
+        Long oldest = newestFirst.get(ITEMS - 1);
+        LocalDateTime oldestCreated = FIRST_CREATED.minusMinutes((ITEMS - 1) / PER_TIMESTAMP);
+
+        // past the last row is an empty slice, only a first slice with nothing in it is a 404
+        Response past = orderItemService.filterOrderItems(OrderStatus.SHIPPED, FROM, TO, null, LIMIT,
+                CursorCodec.encode(oldestCreated.toString(), String.valueOf(oldest)), false);
+        assertThat(past.getOrderItemList()).isEmpty();
+        assertThat(past.getNextCursor()).isNull();
+
+        assertThatThrownBy(() -> orderItemService.filterOrderItems(OrderStatus.SHIPPED, TO.plusDays(1), null, null,
+                LIMIT, null, false)).isInstanceOf(NotFoundException.class);
+        assertThatThrownBy(() -> orderItemService.filterOrderItems(OrderStatus.SHIPPED, FROM, TO, null, LIMIT,
+                CursorCodec.encode("yesterday", "1"), false)).isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> orderItemService.filterOrderItems(OrderStatus.SHIPPED, FROM, TO, null, 0, null, false))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    private static void login(Long id, UserRole role) {
+        User user = new User();
+        user.setId(id);
+        user.setEmail(role == UserRole.ADMIN ? "admin@example.com" : "slices@example.com");
+        user.setRole(role);
+        AuthUser principal = AuthUser.builder().user(user).build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    private record Item(long id, LocalDateTime createdAt, Long userId) {
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.shopBackend.service;
+
+import com.example.shopBackend.dto.OrderItemDto;
+import com.example.shopBackend.dto.Response;
+import com.example.shopBackend.entity.User;
+import com.example.shopBackend.enums.OrderStatus;
+import com.example.shopBackend.enums.UserRole;
+import com.example.shopBackend.security.AuthUser;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Admin order listings must not fall back to loading product, user or address per row. */
+@SpringBootTest
+@Transactional
+class OrderItemListingStatementCountTest {
+
+    private static final int USERS = 5;
+    private static final int PRODUCTS = 10;
+    private static final int ITEMS = 60;
+
+    @Autowired
+    private OrderItemService orderItemService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void seed() {
+        for (int i = 1; i <= USERS; i++) {
+            jdbcTemplate.update("insert into users (id, name, email, password, phone_number, role, created_at) " +
+                    "values (?, 'listing', ?, 'x', '555', ?, current_timestamp)", 980_000 + i, "listing" + i + "@example.com",
+                    UserRole.USER.ordinal());
+            jdbcTemplate.update("insert into addresses (id, street, city, state, zip_code, country, user_id, created_at) " +
+                    "values (?, 'Main', 'Town', 'ST', '00000', 'NL', ?, current_timestamp)", 980_000 + i, 980_000 + i);
+        }
+        for (int i = 1; i <= PRODUCTS; i++) {
+            jdbcTemplate.update("insert into products (id, name, price, created_at) values (?, 'listing', 9.99, current_timestamp)",
+                    980_000 + i);
+        }
+        List<Object[]> items = new ArrayList<>();
+        for (int i = 1; i <= ITEMS; i++) {
+            items.add(new Object[]{980_000 + i, OrderStatus.PENDING.ordinal(), 980_001 + i % USERS, 980_001 + i % PRODUCTS});
+        }
+        jdbcTemplate.batchUpdate("insert into order_items (id, quantity, price, status, version, user_id, product_id, created_at) " +
+                "values (?, 1, 9.99, ?, 0, ?, ?, current_timestamp)", items);
+
+        User admin = new User();
+        admin.setId(1L);
+        admin.setEmail("admin@example.com");
+        admin.setRole(UserRole.ADMIN);
+        AuthUser principal = AuthUser.builder().user(admin).build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        statistics.setStatisticsEnabled(false);
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void offsetPageIsOneJoinAndOneCount() {
+        Response response = orderItemService.filterOrderItems(OrderStatus.PENDING, null, null, null, PageRequest.of(0, 1000));
+
+        assertThat(response.getOrderItemList()).hasSizeGreaterThanOrEqualTo(ITEMS);
+        assertFullyMapped(response.getOrderItemList());
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void keysetSliceIsOneJoin() {
+        Response response = orderItemService.filterOrderItems(OrderStatus.PENDING, null, null, null, 1000, null, false);
+
+        assertThat(response.getOrderItemList()).hasSizeGreaterThanOrEqualTo(ITEMS);
+        assertFullyMapped(response.getOrderItemList());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    private static void assertFullyMapped(List<OrderItemDto> items) {
+        assertThat(items)
+                .filteredOn(item -> item.getId() > 980_000)
+                .hasSize(ITEMS)
+                .allSatisfy(item -> {
+                    assertThat(item.getProduct().getName()).isEqualTo("listing");
+                    assertThat(item.getUser().getEmail()).startsWith("listing");
+                    assertThat(item.getUser().getAddress().getCity()).isEqualTo("Town");
+                });
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.shopBackend.service;
+
+import com.example.shopBackend.entity.User;
+import com.example.shopBackend.enums.OrderStatus;
+import com.example.shopBackend.enums.UserRole;
+import com.example.shopBackend.exceptions.ConflictException;
+import com.example.shopBackend.security.AuthUser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Two admins moving the same item out of the same state: exactly one of them wins. */
+@SpringBootTest
+class OrderStatusTransitionTest {
+
+    private static final long ITEM_ID = 990_001L;
+
+    @Autowired
+    private OrderItemService orderItemService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("delete from order_items where id = ?", ITEM_ID);
+    }
+
+    @Test
+    void concurrentTransitionsFromTheSameStateLetExactlyOneThrough() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 20; round++) {
+                jdbcTemplate.update("delete from order_items where id = ?", ITEM_ID);
+                jdbcTemplate.update("insert into order_items (id, quantity, price, status, version, created_at) " +
+                        "values (?, 1, 9.99, ?, 0, current_timestamp)", ITEM_ID, OrderStatus.PENDING.ordinal());
+
+                CyclicBarrier barrier = new CyclicBarrier(2);
+                List<Future<Boolean>> outcomes = new ArrayList<>();
+                outcomes.add(executor.submit(transition(barrier, OrderStatus.CONFIRMED)));
+                outcomes.add(executor.submit(transition(barrier, OrderStatus.CANCELLED)));
+
+                int succeeded = 0;
+                for (Future<Boolean> outcome : outcomes) {
+                    if (outcome.get(30, TimeUnit.SECONDS)) {
+                        succeeded++;
+                    }
+                }
+                assertThat(succeeded).as("round %d", round).isEqualTo(1);
+                assertThat(jdbcTemplate.queryForObject("select version from order_items where id = ?", Long.class, ITEM_ID))
+                        .isEqualTo(1);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // true if the update went through, false if it was turned away with 409
+    private Callable<Boolean> transition(CyclicBarrier barrier, OrderStatus target) {
+        return () -> {
+            User admin = new User();
+            admin.setId(1L);
+            admin.setEmail("admin@example.com");
+            admin.setRole(UserRole.ADMIN);
+            AuthUser principal = AuthUser.builder().user(admin).build();
+            SecurityContextHolder.getContext().setAuthentication(
+                    new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+            try {
+                barrier.await(10, TimeUnit.SECONDS);
+                orderItemService.updateOrderItemStatus(ITEM_ID, target.name(), 0L);
+                return true;
+            } catch (ConflictException e) {
+                return false;
+            } finally {
+                SecurityContextHolder.clearContext();
+            }
+        };
+    }
+}
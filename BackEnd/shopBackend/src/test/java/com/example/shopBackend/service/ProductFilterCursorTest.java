@@ -0,0 +1,62 @@
+package com.example.shopBackend.service;
+
+import com.example.shopBackend.dto.ProductDto;
+import com.example.shopBackend.dto.Response;
+import com.example.shopBackend.util.CursorCodec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** NEWEST cursors carry a fixed-width timestamp and walk every product once, whole seconds included. */
+@SpringBootTest
+@Transactional
+class ProductFilterCursorTest {
+
+    private static final long CATEGORY_ID = 961_000L;
+    private static final long FIRST_ID = 961_100L;
+
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("insert into categories (id, name, created_at) values (?, 'cursor', current_timestamp)", CATEGORY_ID);
+        // whole minutes, whole seconds and sub-second times, two rows sharing each timestamp
+        String[] times = {"2026-01-01 00:00:00", "2026-01-01 00:00:00", "2026-01-01 00:00:05",
+                "2026-01-01 00:00:05", "2026-01-01 00:00:05.123", "2026-01-01 00:00:05.123", "2026-01-02 10:30:00"};
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < times.length; i++) {
+            rows.add(new Object[]{FIRST_ID + i, CATEGORY_ID, times[i]});
+        }
+        jdbcTemplate.batchUpdate("insert into products (id, category_id, name, price, created_at) " +
+                "values (?, ?, 'cursor', 10.00, cast(? as timestamp))", rows);
+    }
+
+    @Test
+    void newestCursorsWalkEveryProductOnce() {
+        List<Long> ids = new ArrayList<>();
+        List<String> cursors = new ArrayList<>();
+        String cursor = null;
+        do {
+            Response page = productService.filterProducts(CATEGORY_ID, null, null, "newest", 2, cursor);
+            page.getProductList().stream().map(ProductDto::getId).forEach(ids::add);
+            cursor = page.getNextCursor();
+            if (cursor != null) cursors.add(cursor);
+        } while (cursor != null);
+
+        assertThat(ids).containsExactly(FIRST_ID + 6, FIRST_ID + 5, FIRST_ID + 4, FIRST_ID + 3,
+                FIRST_ID + 2, FIRST_ID + 1, FIRST_ID);
+        assertThat(cursors).isNotEmpty().allSatisfy(next ->
+                assertThat(CursorCodec.decode(next, 2)[0]).matches("\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}\\.\\d{9}"));
+    }
+}
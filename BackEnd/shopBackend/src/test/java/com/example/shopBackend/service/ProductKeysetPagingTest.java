@@ -0,0 +1,93 @@
+package com.example.shopBackend.service;
+
+import com.example.shopBackend.dto.ProductDto;
+import com.example.shopBackend.dto.Response;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Walking every cursor page must return each product exactly once, newest id first. */
+@SpringBootTest
+@Transactional
+class ProductKeysetPagingTest {
+
+    private static final long CATEGORY_ID = 960_000L;
+    private static final long OTHER_CATEGORY_ID = 960_001L;
+    private static final long FIRST_ID = 960_100L;
+    private static final int PRODUCTS = 53;
+
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("insert into categories (id, name, created_at) values (?, 'paging-a', current_timestamp), " +
+                "(?, 'paging-b', current_timestamp)", CATEGORY_ID, OTHER_CATEGORY_ID);
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            // same name, price and timestamp everywhere: only the id tells the rows apart
+            rows.add(new Object[]{FIRST_ID + i, i % 3 == 0 ? OTHER_CATEGORY_ID : CATEGORY_ID});
+        }
+        jdbcTemplate.batchUpdate("insert into products (id, category_id, name, price, created_at) " +
+                "values (?, ?, 'same', 10.00, timestamp '2026-01-01 00:00:00')", rows);
+    }
+
+    @Test
+    void allProductsPagesCoverEverySeededProductOnce() {
+        List<Long> ids = walk(cursor -> productService.getAllProducts(7, cursor));
+
+        assertThat(ids).doesNotHaveDuplicates().isSortedAccordingTo(Comparator.reverseOrder());
+        assertThat(ids.stream().filter(id -> id >= FIRST_ID && id < FIRST_ID + PRODUCTS))
+                .hasSize(PRODUCTS);
+    }
+
+    @Test
+    void categoryPagesCoverEveryProductOfTheCategoryOnce() {
+        List<Long> ids = walk(cursor -> productService.getProductsByCategory(CATEGORY_ID, 4, cursor));
+
+        List<Long> expected = new ArrayList<>();
+        for (int i = PRODUCTS - 1; i >= 0; i--) {
+            if (i % 3 != 0) {
+                expected.add(FIRST_ID + i);
+            }
+        }
+        assertThat(ids).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void pageSizeEqualToTheRemainderEndsWithoutAnEmptyPage() {
+        // 35 products in the category, five pages of seven
+        List<Response> pages = new ArrayList<>();
+        String cursor = null;
+        do {
+            Response page = productService.getProductsByCategory(CATEGORY_ID, 7, cursor);
+            pages.add(page);
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(pages).hasSize(5).allSatisfy(page -> assertThat(page.getProductList()).hasSize(7));
+    }
+
+    private static List<Long> walk(Function<String, Response> fetch) {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            Response page = fetch.apply(cursor);
+            page.getProductList().stream().map(ProductDto::getId).forEach(ids::add);
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return ids;
+    }
+}
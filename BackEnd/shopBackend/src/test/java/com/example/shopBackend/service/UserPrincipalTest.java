@@ -0,0 +1,110 @@
+package com.example.shopBackend.service;
+
+import com.example.shopBackend.entity.User;
+import com.example.shopBackend.enums.UserRole;
+import com.example.shopBackend.event.UserChangedEvent;
+import com.example.shopBackend.security.AuthUser;
+import com.example.shopBackend.security.PrincipalCache;
+import jakarta.validation.ValidationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * getLoginUser reuses the principal the filter resolved, and account edits made through the
+ * service drop the cached principal. Not transactional: the evictions run after commit.
+ */
+@SpringBootTest
+class UserPrincipalTest {
+
+    private static final long USER_ID = 965_000L;
+    private static final String EMAIL = "principal@example.com";
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private PrincipalCache principalCache;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("insert into users (id, name, email, password, phone_number, role, created_at) " +
+                "values (?, 'before', ?, 'x', '555', ?, current_timestamp)", USER_ID, EMAIL, UserRole.USER.ordinal());
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        jdbcTemplate.update("delete from refresh_tokens where user_id = ?", USER_ID);
+        jdbcTemplate.update("delete from users where id = ?", USER_ID);
+        // the context is shared, the next test must not start from this one's cached principal
+        principalCache.evict(new UserChangedEvent(EMAIL));
+    }
+
+    @Test
+    void getLoginUserReturnsTheAuthUserAlreadyInTheContext() {
+        User resolved = User.builder().id(USER_ID).email(EMAIL).role(UserRole.USER).build();
+        AuthUser principal = AuthUser.builder().user(resolved).build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        long loadsBefore = principalCache.stats().getPrincipalLoads();
+
+        assertThat(userService.getLoginUser()).isSameAs(resolved);
+        assertThat(principalCache.stats().getPrincipalLoads()).isEqualTo(loadsBefore);
+    }
+
+    @Test
+    void getLoginUserFallsBackToTheCacheForOtherPrincipals() {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(EMAIL, null, List.of()));
+        long lookupsBefore = principalCache.stats().getUserLookupQueries();
+
+        User first = userService.getLoginUser();
+        User second = userService.getLoginUser();
+
+        assertThat(first.getId()).isEqualTo(USER_ID);
+        assertThat(second).isSameAs(first);
+        assertThat(principalCache.stats().getUserLookupQueries()).isEqualTo(lookupsBefore + 1);
+    }
+
+    @Test
+    void roleChangeIsVisibleOnTheNextLoad() {
+        assertThat(principalCache.load(EMAIL).getRole()).isEqualTo(UserRole.USER);
+
+        userService.updateUserRole(USER_ID, "admin");
+
+        assertThat(principalCache.load(EMAIL).getRole()).isEqualTo(UserRole.ADMIN);
+        assertThat(roleInDatabase()).isEqualTo(UserRole.ADMIN);
+    }
+
+    @Test
+    void unknownRolesAreRejected() {
+        assertThatThrownBy(() -> userService.updateUserRole(USER_ID, "owner")).isInstanceOf(ValidationException.class);
+        assertThat(roleInDatabase()).isEqualTo(UserRole.USER);
+    }
+
+    @Test
+    void revokingSessionsDropsTheCachedPrincipal() {
+        assertThat(principalCache.load(EMAIL).getName()).isEqualTo("before");
+        // edited behind the service's back, then the admin revokes the user's sessions
+        jdbcTemplate.update("update users set name = 'after' where id = ?", USER_ID);
+
+        userService.revokeUserSessions(USER_ID);
+
+        assertThat(principalCache.load(EMAIL).getName()).isEqualTo("after");
+    }
+
+    private UserRole roleInDatabase() {
+        return UserRole.values()[jdbcTemplate.queryForObject("select role from users where id = ?", Integer.class, USER_ID)];
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.shopBackend.web;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@SpringBootTest(properties = "catalog.body-cache.enabled=true")
+@AutoConfigureMockMvc
+class CatalogBodyCacheTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void gzipAndIdentityBodiesHaveDistinctETags() throws Exception {
+        MockHttpServletResponse gzipMiss = fetch("gzip, deflate", null);
+        MockHttpServletResponse gzipHit = fetch("gzip, deflate", null);
+        MockHttpServletResponse identity = fetch(null, null);
+
+        assertThat(gzipMiss.getStatus()).isEqualTo(200);
+        assertThat(gzipMiss.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(gzipMiss.getHeader(HttpHeaders.ETAG)).endsWith("-gzip\"");
+        assertThat(gzipMiss.getHeader(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(gzipHit.getContentAsByteArray()).isEqualTo(gzipMiss.getContentAsByteArray());
+        assertThat(gzipHit.getHeader(HttpHeaders.ETAG)).isEqualTo(gzipMiss.getHeader(HttpHeaders.ETAG));
+
+        assertThat(identity.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(identity.getHeader(HttpHeaders.ETAG)).doesNotContain("gzip");
+        assertThat(identity.getHeader(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(gunzip(gzipHit.getContentAsByteArray())).isEqualTo(identity.getContentAsByteArray());
+    }
+
+    @Test
+    void ifNoneMatchOnlyMatchesTheSelectedEncoding() throws Exception {
+        String gzipETag = fetch("gzip", null).getHeader(HttpHeaders.ETAG);
+        String identityETag = fetch(null, null).getHeader(HttpHeaders.ETAG);
+
+        assertThat(fetch("gzip", gzipETag).getStatus()).isEqualTo(304);
+        assertThat(fetch(null, identityETag).getStatus()).isEqualTo(304);
+        assertThat(fetch("gzip", identityETag).getStatus()).isEqualTo(200);
+        assertThat(fetch(null, gzipETag).getStatus()).isEqualTo(200);
+        assertThat(fetch("gzip;q=0", gzipETag).getStatus()).isEqualTo(200);
+    }
+
+    private MockHttpServletResponse fetch(String acceptEncoding, String ifNoneMatch) throws Exception {
+        var request = get("/product/get-all");
+        if (acceptEncoding != null) {
+            request.header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        if (ifNoneMatch != null) {
+            request.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return mockMvc.perform(request).andReturn().getResponse();
+    }
+
+    private static byte[] gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.shopBackend.web;
+
+import com.example.shopBackend.cache.CategorySnapshot;
+import com.example.shopBackend.entity.User;
+import com.example.shopBackend.enums.UserRole;
+import com.example.shopBackend.event.CategoryChangedEvent;
+import com.example.shopBackend.event.ProductChangedEvent;
+import com.example.shopBackend.security.AuthUser;
+import com.example.shopBackend.service.ProductService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * After a product edit, every ETag handed out with the old content must differ from the
+ * ETag served with the new content, including read models that rebuild in the background.
+ * Not transactional: the catalog listeners run after commit.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class CatalogETagFreshnessTest {
+
+    private static final long OLD_CATEGORY_ID = 962_000L;
+    private static final long NEW_CATEGORY_ID = 962_001L;
+    private static final long PRODUCT_ID = 962_100L;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private CategorySnapshot categorySnapshot;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("insert into categories (id, name, created_at) values (?, 'etag-old', current_timestamp), " +
+                "(?, 'etag-new', current_timestamp)", OLD_CATEGORY_ID, NEW_CATEGORY_ID);
+        jdbcTemplate.update("insert into products (id, category_id, name, price, created_at) " +
+                "values (?, ?, 'etagfreshold', 10.00, current_timestamp)", PRODUCT_ID, OLD_CATEGORY_ID);
+        categorySnapshot.reload();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        jdbcTemplate.update("delete from products where id = ?", PRODUCT_ID);
+        jdbcTemplate.update("delete from categories where id in (?, ?)", OLD_CATEGORY_ID, NEW_CATEGORY_ID);
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(PRODUCT_ID));
+        eventPublisher.publishEvent(new CategoryChangedEvent(OLD_CATEGORY_ID));
+    }
+
+    @Test
+    void suggestAndCategoryCountsChangeUnderANewETag() throws Exception {
+        String suggestUrl = "/product/suggest?prefix=etagfreshnew";
+        String categoryUrl = "/category/get-category-by-id/" + NEW_CATEGORY_ID;
+        Predicate<JsonNode> suggestFresh = body -> body.path("productList").size() == 1;
+        Predicate<JsonNode> countFresh = body -> body.path("category").path("productCount").asLong() == 1;
+
+        Map<String, Boolean> suggestETags = new HashMap<>();
+        Map<String, Boolean> categoryETags = new HashMap<>();
+        record(suggestUrl, suggestFresh, suggestETags);
+        record(categoryUrl, countFresh, categoryETags);
+        assertThat(suggestETags).doesNotContainValue(true);
+        assertThat(categoryETags).doesNotContainValue(true);
+
+        loginAsAdmin();
+        productService.updateProduct(PRODUCT_ID, NEW_CATEGORY_ID, null, "etagfreshnew", null, null);
+
+        // poll through the background rebuilds, remembering which ETags came with which content
+        long deadline = System.currentTimeMillis() + 5_000;
+        boolean suggestSeen = false;
+        boolean countSeen = false;
+        while (!(suggestSeen && countSeen)) {
+            if (System.currentTimeMillis() > deadline) fail("read models never caught up with the edit");
+            suggestSeen = record(suggestUrl, suggestFresh, suggestETags);
+            countSeen = record(categoryUrl, countFresh, categoryETags);
+        }
+
+        // later background reloads may bump again, but never back to an ETag of the old content
+        assertThat(record(suggestUrl, suggestFresh, suggestETags)).isTrue();
+        assertThat(record(categoryUrl, countFresh, categoryETags)).isTrue();
+    }
+
+    /** Fetches the URL and records its ETag; fails if one ETag was seen with both contents. */
+    private boolean record(String url, Predicate<JsonNode> fresh, Map<String, Boolean> seen) throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(get(url)).andReturn().getResponse();
+        assertThat(response.getStatus()).isEqualTo(200);
+        boolean isFresh = fresh.test(objectMapper.readTree(response.getContentAsString()));
+        String etag = response.getHeader(HttpHeaders.ETAG);
+        Boolean previous = seen.putIfAbsent(etag, isFresh);
+        if (previous != null && previous != isFresh) {
+            fail("ETag " + etag + " was served with both old and new content of " + url);
+        }
+        return isFresh;
+    }
+
+    // MockMvc clears the security context after each request, so log in right before the edit
+    private static void loginAsAdmin() {
+        User admin = new User();
+        admin.setId(1L);
+        admin.setEmail("admin@example.com");
+        admin.setRole(UserRole.ADMIN);
+        AuthUser principal = AuthUser.builder().user(admin).build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+}
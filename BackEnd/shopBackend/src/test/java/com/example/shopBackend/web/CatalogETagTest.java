@@ -0,0 +1,49 @@
+package com.example.shopBackend.web;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class CatalogETagTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void successfulCatalogReadIsPubliclyCacheableWithETag() throws Exception {
+        mockMvc.perform(get("/product/get-all"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, startsWith("\"catalog-")))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, startsWith("public")));
+    }
+
+    @Test
+    void matchingIfNoneMatchIsAnsweredWith304() throws Exception {
+        String etag = mockMvc.perform(get("/product/get-all"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/product/get-all").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+    }
+
+    @Test
+    void errorResponsesCarryNoCatalogValidators() throws Exception {
+        mockMvc.perform(get("/product/get-by-product-id/987654321"))
+                .andExpect(status().isNotFound())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, not(containsString("public"))));
+    }
+}
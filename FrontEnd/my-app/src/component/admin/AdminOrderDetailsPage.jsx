@@ -11,6 +11,7 @@ const AdminOrderDetailsPage = () => {
     const [orderItems, setOrderItems] = useState([]);
     const [message, setMessage] = useState('');
     const [selectedStatus, setSelectedStatus] = useState({});
+    const [bulkStatus, setBulkStatus] = useState(OrderStatus[0]);
 
 
     useEffect(() => {
@@ -30,10 +31,24 @@ const AdminOrderDetailsPage = () => {
         setSelectedStatus({ ...selectedStatus, [orderItemId]: newStatus })
     }
 
-    const handleSubmitStatusChange = async (orderItemId) => {
+    const handleSubmitStatusChange = async (orderItem) => {
         try {
-            await ApiService.updateOrderitemStatus(orderItemId, selectedStatus[orderItemId]);
+            await ApiService.updateOrderitemStatus(orderItem.id, selectedStatus[orderItem.id], orderItem.version);
             setMessage('order item status was successfully updated')
+            fetchOrderDetails(itemId);
+            setTimeout(() => {
+                setMessage('');
+            }, 3000)
+        } catch (error) {
+            setMessage(error.response?.data?.message || error.message || 'unable  to update order item status')
+        }
+    }
+
+    const handleBulkStatusChange = async () => {
+        try {
+            const response = await ApiService.bulkUpdateOrderItemStatus(orderItems.map(item => item.id), bulkStatus);
+            setMessage(`${response.updatedCount} order item(s) updated`)
+            fetchOrderDetails(itemId);
             setTimeout(() => {
                 setMessage('');
             }, 3000)
@@ -47,6 +62,21 @@ const AdminOrderDetailsPage = () => {
         <div className="order-details-page">
             {message && <div className="message">{message}</div>}
             <h2>Order Details</h2>
+            {orderItems.length > 1 && (
+                <div className="status-change">
+                    <h4>Change Status Of All Items</h4>
+                    <select
+                        className="status-option"
+                        value={bulkStatus}
+                        onChange={(e) => setBulkStatus(e.target.value)}>
+
+                        {OrderStatus.map(status => (
+                            <option key={status} value={status}>{status}</option>
+                        ))}
+                    </select>
+                    <button className="update-status-button" onClick={handleBulkStatusChange}>Update All</button>
+                </div>
+            )}
             {orderItems.length ? (
                 orderItems.map((orderItem) => (
                     <div key={orderItem.id} className="order-item-details">
@@ -92,7 +122,7 @@ const AdminOrderDetailsPage = () => {
                                     <option key={status} value={status}>{status}</option>
                                 ))}
                             </select>
-                            <button className="update-status-button" onClick={() => handleSubmitStatusChange(orderItem.id)}>Update Status</button>
+                            <button className="update-status-button" onClick={() => handleSubmitStatusChange(orderItem)}>Update Status</button>
                         </div>
                     </div>
 
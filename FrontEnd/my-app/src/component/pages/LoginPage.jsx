@@ -39,6 +39,7 @@ const LoginPage = () => {
 
                
                 localStorage.setItem('app_token', response.token);
+                localStorage.setItem('refreshToken', response.refreshToken);
                 localStorage.setItem('app_role', response.role);
 
                 setTimeout(() => {
@@ -24,6 +24,18 @@ export default class ApiService {
         return response.data;
     }
 
+    // access tokens live 15 minutes; trade the refresh token for a new pair
+    static async refreshAccessToken() {
+        const refreshToken = localStorage.getItem("refreshToken");
+        if (!refreshToken) {
+            throw new Error("No refresh token");
+        }
+        const response = await axios.post(`${this.BASE_URL}/auth/refresh`, { refreshToken });
+        localStorage.setItem("token", response.data.token);
+        localStorage.setItem("refreshToken", response.data.refreshToken);
+        return response.data.token;
+    }
+
 
     static async getLoggedInUserInfo() {
         const response = await axios.get(`${this.BASE_URL}/user/my-info`, {
@@ -147,10 +159,17 @@ export default class ApiService {
         return response.data;
     }
 
-    static async updateOrderitemStatus(orderItemId, status) {
+    static async updateOrderitemStatus(orderItemId, status, version) {
         const response = await axios.put(`${this.BASE_URL}/order/update-item-status/${orderItemId}`, {}, {
             headers: this.getHeader(),
-            params: {status}
+            params: {status, version}
+        })
+        return response.data;
+    }
+
+    static async bulkUpdateOrderItemStatus(orderItemIds, status) {
+        const response = await axios.put(`${this.BASE_URL}/order/update-item-status/bulk`, {orderItemIds, status}, {
+            headers: this.getHeader()
         })
         return response.data;
     }
@@ -168,7 +187,12 @@ export default class ApiService {
 
     /***AUTHEMNTICATION CHECKER */
     static logout(){
+        const refreshToken = localStorage.getItem('refreshToken')
+        if (refreshToken) {
+            axios.post(`${this.BASE_URL}/auth/logout`, { refreshToken }).catch(() => {})
+        }
         localStorage.removeItem('token')
+        localStorage.removeItem('refreshToken')
         localStorage.removeItem('role')
     }
 
@@ -184,4 +208,22 @@ export default class ApiService {
 
 
 
-}
\ No newline at end of file
+}
+
+// retry a rejected request once with a refreshed access token
+axios.interceptors.response.use(undefined, async (error) => {
+    const original = error.config;
+    const status = error.response?.status;
+    if ((status === 401 || status === 403) && original && !original._retried
+        && original.headers?.Authorization && localStorage.getItem("refreshToken")) {
+        original._retried = true;
+        try {
+            const token = await ApiService.refreshAccessToken();
+            original.headers.Authorization = `Bearer ${token}`;
+            return axios(original);
+        } catch (refreshError) {
+            ApiService.logout();
+        }
+    }
+    return Promise.reject(error);
+});